@@ -0,0 +1,157 @@
+package com.boltenergy.benchmark;
+
+import com.boltenergy.service.csv.RalieCsvCharset;
+import com.boltenergy.service.csv.RalieCsvTokenizer;
+import com.boltenergy.service.csv.RalieFieldParsers;
+import com.boltenergy.service.csv.RalieRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a conversão de datas e decimais usada antes no mapeamento do CSV
+ * ({@code LocalDate.parse} com formatador e {@code replace} + {@code Double.parseDouble},
+ * ambos com exceções para valores inválidos) com os conversores sobre fatias de
+ * {@link RalieFieldParsers}. Os valores vêm das colunas {@code Dat*},
+ * {@code MdaPotenciaOutorgadaKw} e {@code NumCnpjEmpresaConexao} do arquivo de exemplo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RalieFieldParsersBenchmark {
+
+    private static final String EXAMPLE = "/examples/ralie-usina-example-simple.csv";
+
+    private Slices dates;
+    private Slices decimals;
+
+    @Setup
+    public void loadExample() throws IOException {
+        dates = new Slices();
+        decimals = new Slices();
+        try (InputStream inputStream = getClass().getResourceAsStream(EXAMPLE);
+             RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(RalieCsvCharset.openReader(inputStream))) {
+            List<String> header = tokenizer.header();
+            while (tokenizer.next()) {
+                RalieRecord record = tokenizer.current();
+                for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                    String column = header.get(i);
+                    if (column.startsWith("Dat")) {
+                        dates.add(record.getString(i));
+                    } else if (column.equals("MdaPotenciaOutorgadaKw") || column.equals("NumCnpjEmpresaConexao")) {
+                        decimals.add(record.getString(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyDates(Blackhole blackhole) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        for (int i = 0; i < dates.size(); i++) {
+            blackhole.consume(legacyParseDate(dates.string(i), formatter));
+        }
+    }
+
+    @Benchmark
+    public void sliceDates(Blackhole blackhole) {
+        RalieFieldParsers parsers = new RalieFieldParsers();
+        for (int i = 0; i < dates.size(); i++) {
+            blackhole.consume(parsers.date(dates.chars, dates.starts[i], dates.ends[i]));
+        }
+    }
+
+    @Benchmark
+    public void legacyDecimals(Blackhole blackhole) {
+        for (int i = 0; i < decimals.size(); i++) {
+            blackhole.consume(legacyParseDouble(decimals.string(i)));
+        }
+    }
+
+    @Benchmark
+    public void sliceDecimals(Blackhole blackhole) {
+        for (int i = 0; i < decimals.size(); i++) {
+            blackhole.consume(RalieFieldParsers.parseDecimal(decimals.chars, decimals.starts[i], decimals.ends[i]));
+        }
+    }
+
+    // Implementações anteriores de RalieUsinaCsvImportService, incluindo a String criada por campo
+    private static LocalDate legacyParseDate(String dateStr, DateTimeFormatter formatter) {
+        if (dateStr == null || dateStr.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(dateStr, formatter);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Double legacyParseDouble(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.replace(",", "."));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Valores concatenados em um único buffer, como o {@link RalieRecord} os expõe.
+     */
+    private static final class Slices {
+        private final StringBuilder buffer = new StringBuilder();
+        private final List<int[]> bounds = new ArrayList<>();
+        private char[] chars;
+        private int[] starts;
+        private int[] ends;
+
+        void add(String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            bounds.add(new int[]{buffer.length(), buffer.length() + value.length()});
+            buffer.append(value);
+            chars = null;
+        }
+
+        int size() {
+            ensureCompiled();
+            return starts.length;
+        }
+
+        String string(int i) {
+            return new String(chars, starts[i], ends[i] - starts[i]);
+        }
+
+        private void ensureCompiled() {
+            if (chars == null) {
+                chars = buffer.toString().toCharArray();
+                starts = bounds.stream().mapToInt(b -> b[0]).toArray();
+                ends = bounds.stream().mapToInt(b -> b[1]).toArray();
+            }
+        }
+    }
+}
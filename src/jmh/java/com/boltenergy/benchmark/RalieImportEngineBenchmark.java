@@ -0,0 +1,143 @@
+package com.boltenergy.benchmark;
+
+import com.boltenergy.App;
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.service.RalieUsinaCsvImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara os engines de gravação da importação ({@code jpa}, {@code jdbc} e {@code load-data})
+ * importando o mesmo arquivo em modo {@code full}, com o contexto completo da aplicação. Por
+ * padrão usa um H2 em memória, onde {@code load-data} volta para {@code jpa}; para medir os três
+ * no MySQL, informe {@code -p jdbcUrl=jdbc:mysql://...&rewriteBatchedStatements=true&allowLoadLocalInfile=true}
+ * e, se preciso, {@code -p username=... -p password=...} (padrão {@code root}/{@code root}).
+ * O arquivo repete as linhas do arquivo de exemplo até {@code rows} registros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RalieImportEngineBenchmark {
+
+    private static final String EXAMPLE = "/examples/ralie-usina-example-simple.csv";
+
+    @Param({"JPA", "JDBC", "LOAD_DATA"})
+    public RalieImportProperties.Engine engine;
+
+    @Param("20000")
+    public int rows;
+
+    @Param("jdbc:h2:mem:ralie_benchmark;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("root")
+    public String username;
+
+    @Param("root")
+    public String password;
+
+    private ConfigurableApplicationContext context;
+    private RalieUsinaCsvImportService importService;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        file = writeFile(rows);
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", username);
+        properties.put("spring.datasource.password", password);
+        if (jdbcUrl.startsWith("jdbc:h2:")) {
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        }
+        properties.put("ralie.schedule.enabled", "false");
+        properties.put("logging.level.com.boltenergy", "WARN");
+        // Argumentos de linha de comando têm precedência sobre o application.yml
+        context = new SpringApplicationBuilder(App.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+
+        RalieImportProperties importProperties = context.getBean(RalieImportProperties.class);
+        importProperties.setMode(RalieImportProperties.Mode.FULL);
+        importProperties.setEngine(engine);
+        importService = context.getBean(RalieUsinaCsvImportService.class);
+    }
+
+    @Benchmark
+    public RalieImportResult importFile() throws IOException {
+        return importService.importCsv(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        Files.deleteIfExists(file);
+    }
+
+    private static Path writeFile(int rows) throws IOException {
+        byte[] example;
+        try (InputStream inputStream = RalieImportEngineBenchmark.class.getResourceAsStream(EXAMPLE)) {
+            example = inputStream.readAllBytes();
+        }
+        List<byte[]> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < example.length; i++) {
+            if (example[i] == '\n') {
+                lines.add(Arrays.copyOfRange(example, start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < example.length) {
+            ByteArrayOutputStream last = new ByteArrayOutputStream();
+            last.write(example, start, example.length - start);
+            last.write('\n');
+            lines.add(last.toByteArray());
+        }
+
+        Path path = Files.createTempFile("ralie-benchmark", ".csv");
+        try (OutputStream out = Files.newOutputStream(path)) {
+            out.write(lines.get(0));
+            for (int i = 0; i < rows; i++) {
+                out.write(lines.get(1 + i % (lines.size() - 1)));
+            }
+        }
+        return path;
+    }
+}
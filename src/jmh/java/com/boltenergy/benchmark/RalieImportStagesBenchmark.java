@@ -0,0 +1,257 @@
+package com.boltenergy.benchmark;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.service.csv.RalieBindingPlan;
+import com.boltenergy.service.csv.RalieCsvCharset;
+import com.boltenergy.service.csv.RalieCsvTokenizer;
+import com.boltenergy.service.csv.RalieFieldParsers;
+import com.boltenergy.service.csv.RalieRecord;
+import com.boltenergy.support.RalieSyntheticCsv;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede separadamente cada etapa da leitura do CSV na importação, sem banco: detecção do charset
+ * e decodificação ({@code decode}), separação dos campos ({@code tokenize}), mapeamento da linha
+ * para a entidade ({@code bind}) e conversão de datas ({@code parseDates}) e decimais
+ * ({@code parseDecimals}). {@code decodeTokenizeBind} executa as três primeiras juntas, como a
+ * importação com uma thread de leitura.
+ *
+ * <p>Cada operação processa o arquivo inteiro: {@code example} escolhe um dos arquivos de
+ * {@code src/main/resources/examples} e {@code scale} repete as linhas dele para simular um
+ * arquivo maior; com {@code synthetic}, o arquivo tem {@code scale} mil registros gerados pelo
+ * {@link RalieSyntheticCsv}, em Windows-1252 e com campos em várias linhas. As etapas
+ * posteriores recebem a entrada já preparada no {@link Setup}, então o resultado de uma não
+ * inclui o custo das anteriores. Com o perfil {@code jmh}, o profiler {@code gc} é ativado e
+ * informa a alocação por operação ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RalieImportStagesBenchmark {
+
+    private static final String EXAMPLES = "/examples/";
+    private static final String DECIMAL_COLUMN = "MdaPotenciaOutorgadaKw";
+
+    private static final String SYNTHETIC = "synthetic";
+
+    @Param({"ralie-usina-example-simple.csv", "ralie-usina-example-simple-2.csv", SYNTHETIC})
+    public String example;
+
+    @Param({"1", "100"})
+    public int scale;
+
+    private byte[] bytes;
+    private char[] chars;
+    private RalieBindingPlan plan;
+    private List<RalieRecord> records;
+    private Slices dates;
+    private Slices decimals;
+
+    @Setup
+    public void prepare() throws IOException {
+        bytes = SYNTHETIC.equals(example)
+                ? RalieSyntheticCsv.fromExamples().generate(scale * 1000)
+                : scaledFile(EXAMPLES + example, scale);
+        chars = decodeAll(bytes);
+
+        records = new ArrayList<>();
+        dates = new Slices();
+        decimals = new Slices();
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new CharArrayReader(chars))) {
+            List<String> header = tokenizer.header();
+            plan = RalieBindingPlan.compile(header);
+            while (tokenizer.next()) {
+                RalieRecord record = tokenizer.current();
+                records.add(StoredRecord.copyOf(record));
+                for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                    String column = header.get(i);
+                    if (column.startsWith("Dat")) {
+                        dates.add(record.getString(i));
+                    } else if (column.equals(DECIMAL_COLUMN)) {
+                        decimals.add(record.getString(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int decode() throws IOException {
+        return decodeAll(bytes).length;
+    }
+
+    @Benchmark
+    public long tokenize(Blackhole blackhole) throws IOException {
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new CharArrayReader(chars))) {
+            while (tokenizer.next()) {
+                blackhole.consume(tokenizer.size());
+            }
+            return tokenizer.recordNumber();
+        }
+    }
+
+    @Benchmark
+    public void bind(Blackhole blackhole) {
+        for (RalieRecord record : records) {
+            RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+            plan.bind(record, entity);
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void parseDates(Blackhole blackhole) {
+        RalieFieldParsers parsers = new RalieFieldParsers();
+        for (int i = 0; i < dates.size(); i++) {
+            blackhole.consume(parsers.date(dates.chars, dates.starts[i], dates.ends[i]));
+        }
+    }
+
+    @Benchmark
+    public void parseDecimals(Blackhole blackhole) {
+        for (int i = 0; i < decimals.size(); i++) {
+            blackhole.consume(RalieFieldParsers.parseDecimal(decimals.chars, decimals.starts[i], decimals.ends[i]));
+        }
+    }
+
+    @Benchmark
+    public void decodeTokenizeBind(Blackhole blackhole) throws IOException {
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(RalieCsvCharset.openReader(new ByteArrayInputStream(bytes)))) {
+            RalieBindingPlan filePlan = RalieBindingPlan.compile(tokenizer.header());
+            while (tokenizer.next()) {
+                RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+                filePlan.bind(tokenizer.current(), entity);
+                blackhole.consume(entity);
+            }
+        }
+    }
+
+    private static char[] decodeAll(byte[] bytes) throws IOException {
+        try (Reader reader = RalieCsvCharset.openReader(new ByteArrayInputStream(bytes))) {
+            char[] buffer = new char[bytes.length];
+            int length = 0;
+            int read;
+            while ((read = reader.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+        }
+    }
+
+    /**
+     * Cabeçalho do arquivo de exemplo seguido das linhas dele repetidas {@code scale} vezes, nos
+     * bytes originais (o charset continua o do exemplo).
+     */
+    private static byte[] scaledFile(String resource, int scale) throws IOException {
+        byte[] example;
+        try (InputStream inputStream = RalieImportStagesBenchmark.class.getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IOException("Arquivo de exemplo não encontrado: " + resource);
+            }
+            example = inputStream.readAllBytes();
+        }
+        int headerEnd = 0;
+        while (headerEnd < example.length && example[headerEnd] != '\n') {
+            headerEnd++;
+        }
+        headerEnd = Math.min(headerEnd + 1, example.length);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(headerEnd + (example.length - headerEnd + 1) * scale);
+        out.write(example, 0, headerEnd);
+        for (int i = 0; i < scale; i++) {
+            out.write(example, headerEnd, example.length - headerEnd);
+            if (example[example.length - 1] != '\n') {
+                out.write('\n');
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Cópia de uma linha do tokenizador, que reutiliza o buffer a cada registro.
+     */
+    private record StoredRecord(long recordNumber, char[] chars, int[] starts, int[] ends) implements RalieRecord {
+
+        static StoredRecord copyOf(RalieRecord record) {
+            int size = record.size();
+            int[] starts = new int[size];
+            int[] ends = new int[size];
+            StringBuilder buffer = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                starts[i] = buffer.length();
+                buffer.append(record.chars(), record.start(i), record.length(i));
+                ends[i] = buffer.length();
+            }
+            return new StoredRecord(record.recordNumber(), buffer.toString().toCharArray(), starts, ends);
+        }
+
+        @Override
+        public int size() {
+            return starts.length;
+        }
+
+        @Override
+        public int start(int field) {
+            return starts[field];
+        }
+
+        @Override
+        public int end(int field) {
+            return ends[field];
+        }
+    }
+
+    /**
+     * Valores concatenados em um único buffer, como o {@link RalieRecord} os expõe.
+     */
+    private static final class Slices {
+        private final StringBuilder buffer = new StringBuilder();
+        private final List<int[]> bounds = new ArrayList<>();
+        private char[] chars;
+        private int[] starts;
+        private int[] ends;
+
+        void add(String value) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            bounds.add(new int[]{buffer.length(), buffer.length() + value.length()});
+            buffer.append(value);
+            chars = null;
+        }
+
+        int size() {
+            if (chars == null) {
+                chars = buffer.toString().toCharArray();
+                starts = bounds.stream().mapToInt(b -> b[0]).toArray();
+                ends = bounds.stream().mapToInt(b -> b[1]).toArray();
+            }
+            return starts.length;
+        }
+    }
+}
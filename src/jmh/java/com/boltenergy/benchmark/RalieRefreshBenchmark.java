@@ -0,0 +1,236 @@
+package com.boltenergy.benchmark;
+
+import com.boltenergy.App;
+import com.boltenergy.service.AneelRalieService;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.support.AneelStandInServer;
+import com.boltenergy.support.RalieSyntheticCsv;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a atualização completa do RALIE, como o agendamento a executa: download com
+ * {@code downloadRalieCsv()}, importação e publicação (incluindo {@code processImportedData}), com
+ * o contexto completo da aplicação e o arquivo servido por um {@link AneelStandInServer} local.
+ * Cada iteração publica um arquivo sintético novo ({@link RalieSyntheticCsv}, {@code rows}
+ * registros), então o download nunca termina em 304 e a importação nunca é ignorada pelo hash.
+ *
+ * <p>As condições da rede vêm dos parâmetros {@code bandwidth} (bytes por segundo em cada
+ * conexão, {@code 0} sem limite), {@code latencyMillis} (atraso dos cabeçalhos de cada resposta),
+ * {@code etag} ({@code STRONG}, {@code WEAK} ou {@code NONE}) e {@code resets} (conexões
+ * derrubadas no meio do corpo a cada iteração). O banco é o H2 em memória, a menos que
+ * {@code jdbcUrl} aponte para um MySQL, como no {@link RalieImportEngineBenchmark}.
+ *
+ * <p>Além do tempo medido pelo JMH, cada iteração de medição registra a duração de cada etapa,
+ * as linhas por segundo da importação e o pico de heap em {@code resultFile} (JSON, padrão
+ * {@code target/ralie-refresh-benchmark.json}), uma lista com um objeto por iteração.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RalieRefreshBenchmark {
+
+    @Param({"JDBC"})
+    public String engine;
+
+    @Param("20000")
+    public int rows;
+
+    @Param("0")
+    public long bandwidth;
+
+    @Param("0")
+    public long latencyMillis;
+
+    @Param({"STRONG"})
+    public AneelStandInServer.EtagMode etag;
+
+    @Param("0")
+    public int resets;
+
+    @Param("jdbc:h2:mem:ralie_refresh_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1")
+    public String jdbcUrl;
+
+    @Param("root")
+    public String username;
+
+    @Param("root")
+    public String password;
+
+    @Param("target/ralie-refresh-benchmark.json")
+    public String resultFile;
+
+    private final List<Map<String, Object>> results = new ArrayList<>();
+    private AneelStandInServer server;
+    private Path downloadDir;
+    private ConfigurableApplicationContext context;
+    private AneelRalieService service;
+    private RalieSyntheticCsv generator;
+    private int iteration;
+    private boolean measuring;
+    private int requestsBefore;
+    private RalieImportProgress progress;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        generator = RalieSyntheticCsv.fromExamples();
+        server = new AneelStandInServer()
+                .etag(etag)
+                .bandwidth(bandwidth)
+                .latency(Duration.ofMillis(latencyMillis))
+                .start();
+        downloadDir = Files.createTempDirectory("ralie-refresh-benchmark");
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", username);
+        properties.put("spring.datasource.password", password);
+        if (jdbcUrl.startsWith("jdbc:h2:")) {
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        }
+        properties.put("ralie.source.url", server.url());
+        properties.put("ralie.source.download-dir", downloadDir.toString());
+        properties.put("ralie.import.engine", engine);
+        properties.put("ralie.schedule.enabled", "false");
+        properties.put("ralie.lease.enabled", "false");
+        // As interrupções simuladas são retomadas na hora, sem a espera usada contra a ANEEL
+        properties.put("webclient.download-retry-backoff", "0s");
+        properties.put("logging.level.com.boltenergy", "WARN");
+        properties.put("logging.level.com.boltenergy.benchmark", "INFO");
+        context = new SpringApplicationBuilder(App.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+        service = context.getBean(AneelRalieService.class);
+        if (jdbcUrl.startsWith("jdbc:h2:")) {
+            // A agregação do processImportedData usa SUBSTRING_INDEX, que só existe no MySQL
+            context.getBean(JdbcTemplate.class).execute("CREATE ALIAS IF NOT EXISTS SUBSTRING_INDEX FOR \""
+                    + RalieRefreshBenchmark.class.getName() + ".substringIndex\"");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void publish(IterationParams params) {
+        measuring = params.getType() == IterationType.MEASUREMENT;
+        server.publish(generator.withSeed(++iteration).generate(rows)).resets(resets);
+        progress = new RalieImportProgress();
+        requestsBefore = server.requestCount();
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @Benchmark
+    public String refresh() {
+        return service.downloadRalieCsv(progress);
+    }
+
+    @TearDown(Level.Iteration)
+    public void record() {
+        if (!measuring) {
+            return;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("iteration", results.size() + 1);
+        result.put("engine", engine);
+        result.put("rows", rows);
+        result.put("bandwidth", bandwidth);
+        result.put("latencyMillis", latencyMillis);
+        result.put("etag", etag.name());
+        result.put("resets", resets);
+        result.put("database", jdbcUrl.replaceAll("[;?].*", ""));
+        result.put("requests", server.requestCount() - requestsBefore);
+        result.put("bytesDownloaded", progress.bytesDownloaded());
+        result.put("downloadMillis", progress.downloadMillis());
+        result.put("importMillis", progress.importMillis());
+        result.put("publishMillis", progress.publishMillis());
+        result.put("rowsWritten", progress.rowsWritten());
+        result.put("rowsPerSecond", progress.rowsPerSecond());
+        result.put("peakHeapBytes", peakHeapBytes());
+        results.add(result);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        try {
+            context.close();
+            server.close();
+            FileSystemUtils.deleteRecursively(downloadDir);
+        } finally {
+            Path output = Path.of(resultFile).toAbsolutePath();
+            Files.createDirectories(output.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+            log.info("Resultados por etapa: {}", output);
+        }
+    }
+
+    /**
+     * {@code SUBSTRING_INDEX} do MySQL para o H2: o trecho antes da {@code count}-ésima
+     * ocorrência de {@code delimiter} (contagens negativas não são usadas pela agregação).
+     */
+    public static String substringIndex(String value, String delimiter, int count) {
+        if (value == null) {
+            return null;
+        }
+        int end = -1;
+        for (int i = 0; i < count; i++) {
+            end = value.indexOf(delimiter, end + 1);
+            if (end < 0) {
+                return value;
+            }
+        }
+        return value.substring(0, Math.max(end, 0));
+    }
+
+    /**
+     * Soma dos picos dos pools de heap desde o início da iteração; como os pools atingem o pico
+     * em momentos diferentes, é um limite superior do heap ocupado.
+     */
+    private static long peakHeapBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+}
@@ -7,12 +7,15 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.config.RalieLeaseProperties;
 import com.boltenergy.config.RalieSchedulingProperties;
+import com.boltenergy.config.RalieSourceProperties;
 import com.boltenergy.config.WebClientProperties;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties({WebClientProperties.class, RalieSchedulingProperties.class})
+@EnableConfigurationProperties({WebClientProperties.class, RalieSchedulingProperties.class, RalieImportProperties.class, RalieLeaseProperties.class, RalieSourceProperties.class})
 public class App {
     
     private static final Logger logger = LoggerFactory.getLogger(App.class);
@@ -0,0 +1,206 @@
+package com.boltenergy.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "ralie.import")
+public class RalieImportProperties {
+
+    /**
+     * {@code full} apaga e recarrega a tabela de importação; {@code delta} compara o hash de cada
+     * linha com o armazenado e aplica apenas inclusões, alterações e exclusões.
+     */
+    @NotNull
+    private Mode mode = Mode.FULL;
+
+    /**
+     * {@code tokenizer} usa o leitor próprio do formato RALIE; {@code commons} mantém o Commons CSV.
+     */
+    @NotNull
+    private Parser parser = Parser.TOKENIZER;
+
+    /**
+     * Threads usadas para ler e mapear o arquivo baixado. Com mais de uma, o arquivo é mapeado
+     * em memória e dividido em blocos lidos em paralelo (apenas com o parser {@code tokenizer});
+     * a gravação continua sequencial e na ordem do arquivo.
+     */
+    @Min(1)
+    private int parallelism = 1;
+
+    /**
+     * {@code jpa} grava pelo repositório JPA; {@code jdbc} usa INSERTs em lote com IDs gerados no
+     * cliente, já que o {@code IDENTITY} da entidade impede o batch do Hibernate; {@code load-data}
+     * carrega as linhas novas com {@code LOAD DATA LOCAL INFILE} e só vale no MySQL (em outros
+     * bancos a importação usa {@code jpa}).
+     */
+    @NotNull
+    private Engine engine = Engine.JPA;
+
+    /**
+     * Tamanho aproximado de cada bloco da leitura paralela. O bloco sempre termina no fim de um
+     * registro, então pode ficar um pouco maior.
+     */
+    @NotNull
+    private DataSize chunkSize = DataSize.ofMegabytes(4);
+
+    /**
+     * {@code in-place} grava direto nas tabelas publicadas; {@code swap} carrega a nova versão em
+     * tabelas de staging, valida a contagem e publica as duas tabelas com um único
+     * {@code RENAME TABLE}, mantendo a versão anterior para rollback. {@code swap} só vale no
+     * MySQL (em outros bancos a publicação usa {@code in-place}).
+     */
+    @NotNull
+    private Publish publish = Publish.IN_PLACE;
+
+    @Valid
+    @NotNull
+    private Batch batch = new Batch();
+
+    @Valid
+    @NotNull
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * Tamanho dos lotes gravados no banco. Com {@code adaptive}, o tamanho começa em {@code size}
+     * e é ajustado a cada lote pelo tempo de gravação: cresce {@code increaseStep} registros
+     * enquanto o lote fica abaixo de {@code targetLatency} e os registros por segundo não caem, e
+     * é multiplicado por {@code decreaseFactor} quando passa do limite. O tamanho fica sempre
+     * entre {@code minSize} e {@code maxSize}.
+     */
+    @Data
+    public static class Batch {
+
+        private boolean adaptive = true;
+
+        /**
+         * Tamanho inicial, ou fixo sem {@code adaptive}.
+         */
+        @Min(1)
+        private int size = 10000;
+
+        @Min(1)
+        private int minSize = 1000;
+
+        @Min(1)
+        private int maxSize = 50000;
+
+        /**
+         * Tempo de gravação de um lote acima do qual o lote diminui.
+         */
+        @NotNull
+        private Duration targetLatency = Duration.ofSeconds(1);
+
+        @Min(1)
+        private int increaseStep = 1000;
+
+        @DecimalMin("0.1")
+        @DecimalMax("0.9")
+        private double decreaseFactor = 0.5;
+    }
+
+    @Valid
+    @NotNull
+    private Sharding sharding = new Sharding();
+
+    /**
+     * Leitura e gravação em paralelo: a leitura entrega lotes prontos em uma fila limitada e a
+     * gravação os consome em outra thread. No máximo {@code queueCapacity} lotes, mais um em
+     * cada gravação, aguardam na memória; com a fila cheia, a leitura espera.
+     */
+    @Data
+    public static class Pipeline {
+
+        private boolean enabled = false;
+
+        /**
+         * Lotes que podem aguardar a gravação, cada um com até {@code batch.max-size} registros.
+         */
+        @Min(1)
+        private int queueCapacity = 4;
+
+        /**
+         * Threads de gravação. Mais de uma só vale na carga das tabelas de staging
+         * ({@code publish: swap}), em que cada lote é confirmado sozinho; na importação direta
+         * a gravação fica em uma thread, dentro da transação da importação.
+         */
+        @Min(1)
+        private int writers = 1;
+    }
+
+    /**
+     * Importação distribuída: a instância que atualiza divide o arquivo em trechos registrados
+     * na tabela {@code ralie_import_shard}, e qualquer instância pode ler e gravar um trecho na
+     * tabela de staging. Vale com {@code mode: full} e {@code publish: swap}; o arquivo baixado
+     * precisa estar no mesmo caminho em todas as instâncias (um volume compartilhado).
+     */
+    @Data
+    public static class Sharding {
+
+        private boolean enabled = false;
+
+        /**
+         * Tamanho aproximado de cada trecho; como os blocos da leitura paralela, termina sempre
+         * no fim de um registro.
+         */
+        @NotNull
+        private DataSize shardSize = DataSize.ofMegabytes(8);
+
+        /**
+         * Prazo de um trecho obtido por uma instância. Se ela parar, o trecho volta a ficar
+         * disponível depois desse tempo; a gravação não confirmada é desfeita pelo banco.
+         */
+        @NotNull
+        private Duration claimTtl = Duration.ofMinutes(5);
+
+        /**
+         * Intervalo com que cada instância procura trechos pendentes.
+         */
+        @NotNull
+        private Duration pollInterval = Duration.ofSeconds(2);
+
+        /**
+         * Tentativas de um trecho antes de a importação falhar. Erros de leitura de um registro
+         * falham na primeira tentativa.
+         */
+        @Min(1)
+        private int maxAttempts = 3;
+
+        /**
+         * Tempo máximo para todos os trechos serem gravados.
+         */
+        @NotNull
+        private Duration timeout = Duration.ofHours(2);
+    }
+
+    public enum Mode {
+        FULL,
+        DELTA
+    }
+
+    public enum Engine {
+        JPA,
+        JDBC,
+        LOAD_DATA
+    }
+
+    public enum Publish {
+        IN_PLACE,
+        SWAP
+    }
+
+    public enum Parser {
+        TOKENIZER,
+        COMMONS
+    }
+}
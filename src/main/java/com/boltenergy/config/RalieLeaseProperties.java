@@ -0,0 +1,40 @@
+package com.boltenergy.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "ralie.lease")
+public class RalieLeaseProperties {
+
+    /**
+     * Com várias instâncias no mesmo banco, só a que obtém o lease na tabela {@code ralie_lease}
+     * executa a atualização do RALIE; as demais a ignoram. Desligado, cada instância atualiza por
+     * conta própria.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Validade do lease sem renovação. Se a instância que atualiza parar, outra pode assumir
+     * depois desse tempo.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(2);
+
+    /**
+     * Intervalo entre as renovações durante a atualização; deve ser bem menor que {@code ttl}.
+     */
+    @NotNull
+    private Duration renewInterval = Duration.ofSeconds(30);
+
+    /**
+     * Identificação desta instância nos leases. Sem valor, usa o nome do host, o PID e um sufixo
+     * aleatório, diferente a cada inicialização.
+     */
+    private String ownerId;
+}
@@ -0,0 +1,26 @@
+package com.boltenergy.config;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "ralie.source")
+public class RalieSourceProperties {
+
+    /**
+     * Endereço do arquivo CSV do RALIE. Por padrão, o recurso publicado pela ANEEL no portal de
+     * dados abertos; testes e benchmarks apontam para um servidor local.
+     */
+    @NotBlank
+    private String url = "https://dadosabertos.aneel.gov.br/dataset/57e4b8b5-a5db-40e6-9901-27ca629d0477/resource/4a615df8-4c25-48fa-bbea-873a36a79518/download/ralie-usina.csv";
+
+    /**
+     * Diretório dos arquivos baixados e dos metadados em arquivo, relativo ao diretório de
+     * execução quando não for absoluto.
+     */
+    @NotBlank
+    private String downloadDir = "downloads";
+}
@@ -32,4 +32,15 @@ public class WebClientProperties {
     private Duration readTimeout = Duration.ofSeconds(600); // 10 minutos
     
     private DataSize bufferSize = DataSize.ofMegabytes(1); // 1MB
+    
+    @Min(1)
+    private int downloadMaxAttempts = 3;
+    
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration downloadRetryBackoff = Duration.ofSeconds(5);
+    
+    @Min(1)
+    private int downloadSegments = 4;
+    
+    private DataSize minSegmentSize = DataSize.ofMegabytes(8); // 8MB
 }
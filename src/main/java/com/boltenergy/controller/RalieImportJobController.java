@@ -0,0 +1,99 @@
+package com.boltenergy.controller;
+
+import com.boltenergy.model.dto.RalieImportJobDTO;
+import com.boltenergy.service.job.RalieImportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/ralie-usina/import-jobs")
+@RequiredArgsConstructor
+@Tag(
+    name = "RALIE Import Job Controller",
+    description = "Jobs assíncronos de atualização dos dados RALIE: download, importação e publicação"
+)
+public class RalieImportJobController {
+
+    private final RalieImportJobService importJobService;
+
+    @PostMapping
+    @Operation(
+        summary = "Iniciar atualização do RALIE",
+        description = "Cria um job que baixa, importa e publica o arquivo RALIE em segundo plano e retorna o ID do job imediatamente"
+    )
+    @ApiResponse(
+        responseCode = "202",
+        description = "Job criado",
+        content = @Content(mediaType = "application/json", schema = @Schema(implementation = RalieImportJobDTO.class))
+    )
+    public ResponseEntity<RalieImportJobDTO> startJob() {
+        log.info("Recebida requisição para iniciar job de importação do RALIE");
+        
+        RalieImportJobDTO job = importJobService.start();
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/ralie-usina/import-jobs/" + job.getId()))
+            .body(job);
+    }
+    
+    @GetMapping
+    @Operation(
+        summary = "Listar jobs de importação",
+        description = "Retorna os 20 jobs mais recentes, do mais novo para o mais antigo"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Lista de jobs retornada com sucesso",
+        content = @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = RalieImportJobDTO.class))
+        )
+    )
+    public ResponseEntity<List<RalieImportJobDTO>> listJobs() {
+        return ResponseEntity.ok(importJobService.findRecent());
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(
+        summary = "Consultar job de importação",
+        description = "Retorna a situação e o andamento do job: fase, bytes baixados, registros lidos e gravados, registros por segundo e tempo restante estimado"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Job encontrado",
+        content = @Content(mediaType = "application/json", schema = @Schema(implementation = RalieImportJobDTO.class))
+    )
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    public ResponseEntity<RalieImportJobDTO> getJob(@PathVariable String id) {
+        return ResponseEntity.of(importJobService.find(id));
+    }
+    
+    @DeleteMapping("/{id}")
+    @Operation(
+        summary = "Cancelar job de importação",
+        description = "Pede o cancelamento do job, que para no próximo ponto de verificação sem publicar uma versão parcial dos dados"
+    )
+    @ApiResponse(responseCode = "202", description = "Cancelamento solicitado")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @ApiResponse(responseCode = "409", description = "O job já terminou")
+    public ResponseEntity<RalieImportJobDTO> cancelJob(@PathVariable String id) {
+        log.info("Recebida requisição para cancelar o job de importação {}", id);
+        
+        boolean cancelled = importJobService.cancel(id);
+        return importJobService.find(id)
+            .map(job -> ResponseEntity.status(cancelled ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(job))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
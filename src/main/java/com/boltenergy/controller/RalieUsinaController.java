@@ -2,7 +2,7 @@ package com.boltenergy.controller;
 
 import com.boltenergy.model.dto.RalieUsinaEmpresaPotenciaGeradaDTO;
 import com.boltenergy.service.AneelRalieService;
-import com.boltenergy.service.RalieUsinaCsvImportService;
+import com.boltenergy.service.RalieDatasetPublisher;
 import com.boltenergy.service.RalieUsinaEmpresaPotenciaGeradaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -31,6 +31,7 @@ public class RalieUsinaController {
 
     private final AneelRalieService aneelRalieService;
     private final RalieUsinaEmpresaPotenciaGeradaService potenciaGeradaService;
+    private final RalieDatasetPublisher datasetPublisher;
 
     @GetMapping("/download-csv")
     @Operation(
@@ -38,6 +39,7 @@ public class RalieUsinaController {
         description = "Faz o download do arquivo CSV mais recente do Relatório de Acompanhamento da Expansão da Oferta de Geração de Energia Elétrica (RALIE) da ANEEL"
     )
     @ApiResponse(responseCode = "200", description = "Arquivo CSV baixado com sucesso")
+    @ApiResponse(responseCode = "409", description = "Atualização em andamento em outra instância da aplicação")
     @ApiResponse(responseCode = "500", description = "Erro ao processar a requisição")
     public ResponseEntity<String> downloadRalieCsv() {
         log.info("Recebida requisição para download do arquivo RALIE");
@@ -102,4 +104,29 @@ public class RalieUsinaController {
             return ResponseEntity.internalServerError().body("Erro ao processar tabela de maiores geradoras: " + e.getMessage());
         }
     }
+    
+    @PostMapping("/restaura-versao-anterior")
+    @Operation(
+        summary = "Restaurar a versão anterior dos dados",
+        description = "Troca as tabelas publicadas pela versão guardada na última publicação (ralie.import.publish=swap, apenas MySQL). Uma segunda chamada desfaz a primeira"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Versão anterior restaurada com sucesso"
+    )
+    @ApiResponse(
+        responseCode = "500",
+        description = "Nenhuma versão anterior disponível ou erro ao restaurar"
+    )
+    public ResponseEntity<String> restorePreviousVersion() {
+        log.info("Recebida requisição para restaurar a versão anterior dos dados RALIE");
+        
+        try {
+            datasetPublisher.rollback();
+            return ResponseEntity.ok("Versão anterior dos dados RALIE restaurada com sucesso");
+        } catch (Exception e) {
+            log.error("Erro ao restaurar a versão anterior: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body("Erro ao restaurar a versão anterior: " + e.getMessage());
+        }
+    }
 }
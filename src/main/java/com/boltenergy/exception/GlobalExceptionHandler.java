@@ -28,6 +28,14 @@ public class GlobalExceptionHandler {
                 .body("Error from external service: " + ex.getStatusText());
     }
 
+    @ExceptionHandler(RalieLeaseException.class)
+    public ResponseEntity<String> handleRalieLeaseException(RalieLeaseException ex) {
+        log.warn("Atualização do RALIE não executada: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ex.getMessage());
+    }
+
     @ExceptionHandler(RalieDownloadException.class)
     public ResponseEntity<String> handleRalieDownloadException(RalieDownloadException ex) {
         log.error("Erro ao processar o download do arquivo RALIE: {}", ex.getMessage(), ex);
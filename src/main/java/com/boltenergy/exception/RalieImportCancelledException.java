@@ -0,0 +1,12 @@
+package com.boltenergy.exception;
+
+/**
+ * Lançada no ponto de verificação seguinte a um pedido de cancelamento de um job de importação.
+ */
+public class RalieImportCancelledException extends RalieDownloadException {
+    private static final long serialVersionUID = 1L;
+
+    public RalieImportCancelledException(String message) {
+        super(message);
+    }
+}
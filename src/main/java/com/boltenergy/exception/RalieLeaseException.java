@@ -0,0 +1,13 @@
+package com.boltenergy.exception;
+
+/**
+ * Lançada quando a atualização do RALIE não pode ser executada por esta instância, porque outra
+ * detém o lease, ou não pode ser concluída, porque o lease foi perdido durante a execução.
+ */
+public class RalieLeaseException extends RalieDownloadException {
+    private static final long serialVersionUID = 1L;
+
+    public RalieLeaseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.boltenergy.model;
+
+import java.time.LocalDate;
+
+/**
+ * Resumo de uma importação do CSV do RALIE. {@code datasetVersion} é a
+ * {@code DatGeracaoConjuntoDados} informada pelo próprio arquivo; os contadores indicam
+ * quantas linhas foram incluídas, alteradas, excluídas ou mantidas na tabela de importação.
+ */
+public record RalieImportResult(long totalRecords, LocalDate datasetVersion,
+                                long inserted, long updated, long deleted, long unchanged) {
+
+    public boolean hasChanges() {
+        return inserted > 0 || updated > 0 || deleted > 0;
+    }
+
+    public RalieImportResult withDeleted(long deleted) {
+        return new RalieImportResult(totalRecords, datasetVersion, inserted, updated, deleted, unchanged);
+    }
+}
@@ -0,0 +1,16 @@
+package com.boltenergy.model;
+
+/**
+ * Trecho de um arquivo do RALIE registrado para importação distribuída, com o necessário para
+ * qualquer instância lê-lo sem percorrer o arquivo inteiro. Os IDs das linhas do trecho são
+ * {@code idBase}, {@code idBase + 1}, ... na ordem do arquivo. {@code attempts} identifica a
+ * posse atual do trecho: só quem o obteve nessa tentativa pode concluí-lo.
+ */
+public record RalieImportShard(String id, String runId, int shardIndex, String filePath, String charset,
+                               int headerStart, int headerEnd, int startOffset, int endOffset, long firstLine,
+                               long idBase, String stagingTable, int attempts) {
+
+    public static String id(String runId, int shardIndex) {
+        return runId + ":" + shardIndex;
+    }
+}
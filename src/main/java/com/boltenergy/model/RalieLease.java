@@ -0,0 +1,8 @@
+package com.boltenergy.model;
+
+/**
+ * Lease obtido por esta instância. O {@code fencingToken} identifica a aquisição: renovar,
+ * verificar e liberar só funcionam enquanto ele for o token atual da linha.
+ */
+public record RalieLease(String name, String ownerId, long fencingToken) {
+}
@@ -1,6 +1,7 @@
 package com.boltenergy.model;
 
 import lombok.Data;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -12,6 +13,9 @@ public class RalieMetadata {
     private String lastDownloadedFile;
     private LocalDateTime lastDownloadTime;
     private long fileSize;
+    private String contentHash;
+    private LocalDate datasetVersion;
+    private LocalDateTime lastCheckTime;
     
     public void update(String etag, String lastModified, String downloadedFilePath, long fileSize) {
         this.etag = etag;
@@ -21,6 +25,20 @@ public class RalieMetadata {
         this.fileSize = fileSize;
     }
     
+    public void update(String etag, String lastModified, String downloadedFilePath, long fileSize, String contentHash) {
+        update(etag, lastModified, downloadedFilePath, fileSize);
+        this.contentHash = contentHash;
+        this.lastCheckTime = this.lastDownloadTime;
+    }
+    
+    /**
+     * Registra uma verificação que não trouxe conteúdo novo (304 ou arquivo idêntico ao último
+     * importado), sem alterar o horário do último download.
+     */
+    public void checked() {
+        this.lastCheckTime = LocalDateTime.now();
+    }
+    
 
     public String getFormattedLastDownloadTime() {
         if (lastDownloadTime == null) return "Never";
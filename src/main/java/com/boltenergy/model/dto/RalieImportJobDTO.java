@@ -0,0 +1,80 @@
+package com.boltenergy.model.dto;
+
+import com.boltenergy.model.entity.RalieImportJobEntity;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.pipeline.RalieImportPipeline;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RalieImportJobDTO {
+
+    private String id;
+    private RalieImportJobEntity.Status status;
+    private String phase;
+    private long bytesDownloaded;
+    private Long bytesTotal;
+    private long rowsParsed;
+    private long rowsWritten;
+    private double rowsPerSecond;
+    private Long etaSeconds;
+    private RalieImportPipeline.Snapshot pipeline;
+    private Long heapAfterGcBytes;
+    private LocalDate datasetVersion;
+    private Long inserted;
+    private Long updated;
+    private Long deleted;
+    private Long unchanged;
+    private String filePath;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * Monta a resposta a partir do registro gravado e, para um job em execução, do andamento
+     * atual em memória.
+     */
+    public static RalieImportJobDTO fromEntity(RalieImportJobEntity entity, RalieImportProgress progress) {
+        RalieImportJobDTOBuilder builder = RalieImportJobDTO.builder()
+            .id(entity.getId())
+            .status(entity.getStatus())
+            .phase(entity.getPhase())
+            .bytesDownloaded(entity.getBytesDownloaded())
+            .bytesTotal(entity.getBytesTotal() >= 0 ? entity.getBytesTotal() : null)
+            .rowsParsed(entity.getRowsParsed())
+            .rowsWritten(entity.getRowsWritten())
+            .rowsPerSecond(entity.getRowsPerSecond())
+            .datasetVersion(entity.getDatasetVersion())
+            .inserted(entity.getInserted())
+            .updated(entity.getUpdated())
+            .deleted(entity.getDeleted())
+            .unchanged(entity.getUnchanged())
+            .filePath(entity.getFilePath())
+            .message(entity.getMessage())
+            .createdAt(entity.getCreatedAt())
+            .startedAt(entity.getStartedAt())
+            .finishedAt(entity.getFinishedAt());
+
+        if (progress != null && !entity.getStatus().isFinished()) {
+            builder.phase(progress.phase() != null ? progress.phase().name() : entity.getPhase())
+                .bytesDownloaded(progress.bytesDownloaded())
+                .bytesTotal(progress.bytesTotal() >= 0 ? progress.bytesTotal() : null)
+                .rowsParsed(progress.rowsParsed())
+                .rowsWritten(progress.rowsWritten())
+                .rowsPerSecond(progress.rowsPerSecond())
+                .etaSeconds(progress.etaSeconds())
+                .pipeline(progress.pipelineSnapshot())
+                .heapAfterGcBytes(progress.heapAfterGc() >= 0 ? progress.heapAfterGc() : null);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.boltenergy.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Execução de um job de atualização do RALIE. Guarda a situação e, ao fim, os contadores e
+ * tempos de cada etapa, para comparar as execuções ao longo do tempo.
+ */
+@Data
+@Entity
+@Table(name = "ralie_import_job", indexes = @Index(name = "idx_ralie_import_job_created_at", columnList = "created_at"))
+public class RalieImportJobEntity {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private Status status;
+
+    @Column(name = "phase", length = 16)
+    private String phase;
+
+    @Column(name = "bytes_downloaded")
+    private long bytesDownloaded;
+
+    @Column(name = "bytes_total")
+    private long bytesTotal = -1;
+
+    @Column(name = "rows_parsed")
+    private long rowsParsed;
+
+    @Column(name = "rows_written")
+    private long rowsWritten;
+
+    @Column(name = "rows_per_second")
+    private double rowsPerSecond;
+
+    @Column(name = "download_millis")
+    private long downloadMillis;
+
+    @Column(name = "import_millis")
+    private long importMillis;
+
+    @Column(name = "dataset_version")
+    private LocalDate datasetVersion;
+
+    @Column(name = "inserted")
+    private Long inserted;
+
+    @Column(name = "updated")
+    private Long updated;
+
+    @Column(name = "deleted")
+    private Long deleted;
+
+    @Column(name = "unchanged")
+    private Long unchanged;
+
+    @Column(name = "file_path", length = 1000)
+    private String filePath;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    /** Instância que criou e executa o job ({@code RalieRefreshLease#getOwnerId()}). */
+    @Column(name = "owner_id", length = 255)
+    private String ownerId;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.boltenergy.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Trecho de uma importação distribuída. A linha é criada e alterada só por
+ * {@link com.boltenergy.repository.RalieImportShardTable}; a entidade existe para o Hibernate
+ * criar a tabela junto com as demais.
+ */
+@Data
+@Entity
+@Table(name = "ralie_import_shard", indexes = @Index(name = "idx_ralie_import_shard_status", columnList = "status"))
+public class RalieImportShardEntity {
+
+    public enum Status {
+        PENDING,
+        CLAIMED,
+        DONE,
+        FAILED,
+        CANCELLED
+    }
+
+    @Id
+    @Column(name = "id", length = 48)
+    private String id;
+
+    @Column(name = "run_id", length = 36, nullable = false)
+    private String runId;
+
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16, nullable = false)
+    private Status status;
+
+    @Column(name = "file_path", length = 1000, nullable = false)
+    private String filePath;
+
+    @Column(name = "charset", length = 32, nullable = false)
+    private String charset;
+
+    @Column(name = "header_start", nullable = false)
+    private int headerStart;
+
+    @Column(name = "header_end", nullable = false)
+    private int headerEnd;
+
+    @Column(name = "start_offset", nullable = false)
+    private int startOffset;
+
+    @Column(name = "end_offset", nullable = false)
+    private int endOffset;
+
+    @Column(name = "first_line", nullable = false)
+    private long firstLine;
+
+    @Column(name = "id_base", nullable = false)
+    private long idBase;
+
+    @Column(name = "staging_table", length = 64, nullable = false)
+    private String stagingTable;
+
+    @Column(name = "owner_id", length = 255)
+    private String ownerId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "claim_expires_at")
+    private LocalDateTime claimExpiresAt;
+
+    @Column(name = "records")
+    private Long records;
+
+    @Column(name = "dataset_version")
+    private LocalDate datasetVersion;
+
+    @Column(name = "parse_failures", length = 4000)
+    private String parseFailures;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
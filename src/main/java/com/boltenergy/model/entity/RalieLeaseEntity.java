@@ -0,0 +1,37 @@
+package com.boltenergy.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease de uma tarefa exclusiva entre as instâncias da aplicação, como a atualização do RALIE.
+ * A linha é criada e alterada só por {@link com.boltenergy.repository.RalieLeaseTable}; a
+ * entidade existe para o Hibernate criar a tabela junto com as demais.
+ */
+@Data
+@Entity
+@Table(name = "ralie_lease")
+public class RalieLeaseEntity {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "owner_id", length = 255)
+    private String ownerId;
+
+    /**
+     * Incrementado a cada aquisição, nunca na renovação: um dono antigo que ainda não percebeu
+     * que perdeu o lease tem um token menor que o atual.
+     */
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    @Column(name = "acquired_at")
+    private LocalDateTime acquiredAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -2,6 +2,7 @@ package com.boltenergy.model.entity;
 
 import lombok.Data;
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,15 @@ public class RalieMetadataEntity {
     @Column(name = "file_size")
     private long fileSize;
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(name = "dataset_version")
+    private LocalDate datasetVersion;
+    
+    @Column(name = "last_check_time")
+    private LocalDateTime lastCheckTime;
+    
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
     
@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "ralie_usina_csv_import")
+@Table(name = "ralie_usina_csv_import", indexes = @Index(name = "idx_ralie_usina_csv_import_cod_ceg", columnList = "cod_ceg"))
 public class RalieUsinaCsvImportEntity {
     
     @Id
@@ -255,6 +255,9 @@ public class RalieUsinaCsvImportEntity {
     @Column(name = "dat_emissao_ato")
     private LocalDate datEmissaoAto;
     
+    @Column(name = "row_hash", length = 64)
+    private String rowHash;
+    
     @PrePersist
     protected void onCreate() {
         this.dataImportacao = LocalDateTime.now();
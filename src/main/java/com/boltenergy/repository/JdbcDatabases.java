@@ -0,0 +1,20 @@
+package com.boltenergy.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Identificação do banco por trás do {@link JdbcTemplate}, para os caminhos que dependem de
+ * recursos próprios do MySQL.
+ */
+final class JdbcDatabases {
+
+    private JdbcDatabases() {
+    }
+
+    static boolean isMySql(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+}
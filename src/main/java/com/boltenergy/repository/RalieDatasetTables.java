@@ -0,0 +1,189 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.RalieLease;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+
+/**
+ * Gerações das tabelas publicadas do RALIE ({@code ralie_usina_csv_import} e
+ * {@code ralie_usina_empresa_potencia_gerada}). Cada importação é carregada em tabelas
+ * {@code *_staging} com a mesma estrutura e publicada com um único {@code RENAME TABLE}, que o
+ * MySQL executa de forma atômica; a geração anterior fica em {@code *_previous} até a próxima
+ * publicação e pode ser restaurada com {@link #rollback(RalieLease)}.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class RalieDatasetTables {
+
+    public static final String IMPORT_TABLE = RalieUsinaCsvImportColumns.TABLE;
+    public static final String GENERATORS_TABLE = "ralie_usina_empresa_potencia_gerada";
+    public static final String STAGING_SUFFIX = "_staging";
+    public static final String PREVIOUS_SUFFIX = "_previous";
+
+    private static final String ROLLBACK_SUFFIX = "_rollback";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean supported;
+
+    /**
+     * {@code RENAME TABLE} de várias tabelas e {@code CREATE TABLE ... LIKE} só existem no MySQL.
+     */
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = JdbcDatabases.isMySql(jdbcTemplate);
+            supported = result;
+        }
+        return result;
+    }
+
+    /**
+     * Recria as tabelas de staging vazias, com a estrutura das publicadas. Com
+     * {@code copyPublished}, a tabela de importação de staging parte de uma cópia da publicada,
+     * para receber apenas as diferenças do novo arquivo.
+     */
+    public void prepareStaging(boolean copyPublished) {
+        dropStaging();
+        jdbcTemplate.execute("CREATE TABLE " + staging(IMPORT_TABLE) + " LIKE " + IMPORT_TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + staging(GENERATORS_TABLE) + " LIKE " + GENERATORS_TABLE);
+        if (copyPublished) {
+            int copied = jdbcTemplate.update("INSERT INTO " + staging(IMPORT_TABLE) + " SELECT * FROM " + IMPORT_TABLE);
+            log.info("{} registros copiados para {}", copied, staging(IMPORT_TABLE));
+        }
+    }
+
+    /**
+     * Recria só a tabela de potência gerada de staging, para recalcular a agregação sem importar
+     * um novo arquivo.
+     */
+    public void prepareGeneratorsStaging() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + staging(GENERATORS_TABLE));
+        jdbcTemplate.execute("CREATE TABLE " + staging(GENERATORS_TABLE) + " LIKE " + GENERATORS_TABLE);
+    }
+
+    public void dropStaging() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + staging(IMPORT_TABLE) + ", " + staging(GENERATORS_TABLE));
+    }
+
+    public long countStaging(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + staging(table), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Registros da tabela publicada, que a próxima publicação substitui.
+     */
+    public long countPublished(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Calcula a tabela de potência gerada de staging a partir da tabela de importação indicada,
+     * com o mesmo SQL de
+     * {@link RalieUsinaEmpresaPotenciaGeradaRepository#processDataTableLargestGenerators()}.
+     */
+    public int aggregateGeneratorsStaging(String importTable) {
+        return jdbcTemplate.update(RalieGeneratorsAggregation.insert(staging(GENERATORS_TABLE), importTable));
+    }
+
+    /**
+     * Publica as duas tabelas de staging. A geração publicada passa a ser a anterior e a
+     * anterior a ela é descartada.
+     *
+     * <p>Com {@code fence}, a troca só acontece se o lease ainda tiver o mesmo fencing token. O
+     * {@code RENAME TABLE} confirma qualquer transação em andamento, então a conferência não pode
+     * ficar em uma transação: a tabela {@code ralie_lease} é bloqueada para leitura com
+     * {@code LOCK TABLES}, junto com as tabelas trocadas, e nenhuma instância obtém o lease entre
+     * a conferência e a troca. Devolve {@code false}, sem trocar nada, se o lease foi perdido.
+     */
+    public boolean publishStaging(RalieLease fence) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + previous(IMPORT_TABLE) + ", " + previous(GENERATORS_TABLE));
+        return renameFenced(fence, "RENAME TABLE "
+                        + IMPORT_TABLE + " TO " + previous(IMPORT_TABLE) + ", "
+                        + staging(IMPORT_TABLE) + " TO " + IMPORT_TABLE + ", "
+                        + GENERATORS_TABLE + " TO " + previous(GENERATORS_TABLE) + ", "
+                        + staging(GENERATORS_TABLE) + " TO " + GENERATORS_TABLE,
+                IMPORT_TABLE, staging(IMPORT_TABLE), GENERATORS_TABLE, staging(GENERATORS_TABLE));
+    }
+
+    /**
+     * Publica só a tabela de potência gerada de staging, sem mexer na geração anterior guardada
+     * para rollback. O {@code fence} é conferido como em {@link #publishStaging(RalieLease)}.
+     */
+    public boolean publishGeneratorsStaging(RalieLease fence) {
+        String replaced = GENERATORS_TABLE + ROLLBACK_SUFFIX;
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + replaced);
+        boolean published = renameFenced(fence, "RENAME TABLE "
+                        + GENERATORS_TABLE + " TO " + replaced + ", "
+                        + staging(GENERATORS_TABLE) + " TO " + GENERATORS_TABLE,
+                GENERATORS_TABLE, staging(GENERATORS_TABLE));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + replaced);
+        return published;
+    }
+
+    public boolean hasPrevious() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name IN (?, ?)",
+                Integer.class, previous(IMPORT_TABLE), previous(GENERATORS_TABLE));
+        return tables != null && tables == 2;
+    }
+
+    /**
+     * Troca a geração publicada pela anterior, também em um único {@code RENAME TABLE}. A geração
+     * que estava publicada passa a ser a anterior, então um segundo rollback desfaz o primeiro.
+     * O {@code fence} é conferido como em {@link #publishStaging(RalieLease)}.
+     */
+    public boolean rollback(RalieLease fence) {
+        return renameFenced(fence, "RENAME TABLE "
+                        + IMPORT_TABLE + " TO " + IMPORT_TABLE + ROLLBACK_SUFFIX + ", "
+                        + previous(IMPORT_TABLE) + " TO " + IMPORT_TABLE + ", "
+                        + IMPORT_TABLE + ROLLBACK_SUFFIX + " TO " + previous(IMPORT_TABLE) + ", "
+                        + GENERATORS_TABLE + " TO " + GENERATORS_TABLE + ROLLBACK_SUFFIX + ", "
+                        + previous(GENERATORS_TABLE) + " TO " + GENERATORS_TABLE + ", "
+                        + GENERATORS_TABLE + ROLLBACK_SUFFIX + " TO " + previous(GENERATORS_TABLE),
+                IMPORT_TABLE, previous(IMPORT_TABLE), GENERATORS_TABLE, previous(GENERATORS_TABLE));
+    }
+
+    /**
+     * Executa {@code rename} se o lease ainda tiver o fencing token de {@code fence}, com
+     * {@code ralie_lease} e as {@code tables} renomeadas bloqueadas por {@code LOCK TABLES}
+     * entre a conferência e a troca. Sem {@code fence}, só renomeia.
+     */
+    private boolean renameFenced(RalieLease fence, String rename, String... tables) {
+        if (fence == null) {
+            jdbcTemplate.execute(rename);
+            return true;
+        }
+        String locks = String.join(" WRITE, ", tables) + " WRITE";
+        Boolean renamed = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LOCK TABLES ralie_lease READ, " + locks);
+                try {
+                    if (!RalieLeaseTable.isHeld(connection, fence)) {
+                        return false;
+                    }
+                    statement.execute(rename);
+                    return true;
+                } finally {
+                    statement.execute("UNLOCK TABLES");
+                }
+            }
+        });
+        return Boolean.TRUE.equals(renamed);
+    }
+
+    public static String staging(String table) {
+        return table + STAGING_SUFFIX;
+    }
+
+    public static String previous(String table) {
+        return table + PREVIOUS_SUFFIX;
+    }
+}
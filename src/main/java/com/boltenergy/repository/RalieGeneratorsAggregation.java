@@ -0,0 +1,29 @@
+package com.boltenergy.repository;
+
+/**
+ * SQL da agregação da tabela de potência gerada: a potência outorgada somada por
+ * {@code CodCEG}, com o primeiro nome de empreendimento. As partes são constantes para que a
+ * consulta nativa de {@link RalieUsinaEmpresaPotenciaGeradaRepository} e a carga do staging em
+ * {@link RalieDatasetTables} usem o mesmo SQL, mudando só as tabelas de origem e de destino.
+ */
+final class RalieGeneratorsAggregation {
+
+    static final String INSERT_INTO = "INSERT INTO ";
+    static final String SELECT_FROM =
+        " (cod_ceg, nom_empreendimento, potencia) " +
+            "SELECT " +
+            "    cod_ceg, " +
+            "    SUBSTRING_INDEX(GROUP_CONCAT(DISTINCT nom_empreendimento), ',', 1) as nom_empreendimento, " +
+            "    COALESCE(SUM(mda_potencia_outorgada_kw), 0) as potencia " +
+            "FROM ";
+    static final String GROUP_BY =
+        " WHERE cod_ceg IS NOT NULL AND cod_ceg != '' " +
+            "GROUP BY cod_ceg";
+
+    private RalieGeneratorsAggregation() {
+    }
+
+    static String insert(String target, String source) {
+        return INSERT_INTO + target + SELECT_FROM + source + GROUP_BY;
+    }
+}
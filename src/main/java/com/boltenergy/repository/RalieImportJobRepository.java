@@ -0,0 +1,20 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.entity.RalieImportJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RalieImportJobRepository extends JpaRepository<RalieImportJobEntity, String> {
+
+    List<RalieImportJobEntity> findTop20ByOrderByCreatedAtDesc();
+
+    List<RalieImportJobEntity> findByStatusInAndOwnerId(Collection<RalieImportJobEntity.Status> statuses, String ownerId);
+
+    Optional<RalieImportJobEntity> findTopByStatusAndRowsParsedGreaterThanOrderByCreatedAtDesc(
+            RalieImportJobEntity.Status status, long rowsParsed);
+}
@@ -0,0 +1,204 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.RalieImportShard;
+import com.boltenergy.model.entity.RalieImportShardEntity.Status;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Fila de trechos da importação distribuída na tabela {@code ralie_import_shard}. Como em
+ * {@link RalieLeaseTable}, cada mudança de situação é um {@code UPDATE} condicional, então um
+ * trecho nunca fica com duas instâncias ao mesmo tempo, e os prazos usam o relógio do banco.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RalieImportShardTable {
+
+    private static final String COLUMNS = "id, run_id, shard_index, file_path, charset, header_start, header_end, " +
+            "start_offset, end_offset, first_line, id_base, staging_table, attempts";
+    private static final String CLAIMABLE = "(status = 'PENDING' OR (status = 'CLAIMED' AND claim_expires_at <= CURRENT_TIMESTAMP(3)))";
+    private static final int CLAIM_CANDIDATES = 16;
+
+    private static final RowMapper<RalieImportShard> SHARD = (rs, rowNum) -> new RalieImportShard(
+            rs.getString("id"),
+            rs.getString("run_id"),
+            rs.getInt("shard_index"),
+            rs.getString("file_path"),
+            rs.getString("charset"),
+            rs.getInt("header_start"),
+            rs.getInt("header_end"),
+            rs.getInt("start_offset"),
+            rs.getInt("end_offset"),
+            rs.getLong("first_line"),
+            rs.getLong("id_base"),
+            rs.getString("staging_table"),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Registra os trechos de uma nova importação como pendentes. Os trechos de importações
+     * anteriores são descartados: só a instância com o lease da atualização registra trechos.
+     */
+    public void register(String runId, List<RalieImportShard> shards) {
+        jdbcTemplate.update("DELETE FROM ralie_import_shard WHERE run_id <> ?", runId);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO ralie_import_shard (" + COLUMNS + ", status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                shards, shards.size(), (ps, shard) -> {
+                    ps.setString(1, shard.id());
+                    ps.setString(2, shard.runId());
+                    ps.setInt(3, shard.shardIndex());
+                    ps.setString(4, shard.filePath());
+                    ps.setString(5, shard.charset());
+                    ps.setInt(6, shard.headerStart());
+                    ps.setInt(7, shard.headerEnd());
+                    ps.setInt(8, shard.startOffset());
+                    ps.setInt(9, shard.endOffset());
+                    ps.setLong(10, shard.firstLine());
+                    ps.setLong(11, shard.idBase());
+                    ps.setString(12, shard.stagingTable());
+                    ps.setInt(13, 0);
+                    ps.setString(14, Status.PENDING.name());
+                });
+    }
+
+    /**
+     * Obtém um trecho pendente, ou um cuja posse expirou, para {@code ownerId}.
+     */
+    public Optional<RalieImportShard> claim(String ownerId, Duration claimTtl) {
+        List<String> candidates = jdbcTemplate.queryForList(
+                "SELECT id FROM ralie_import_shard WHERE " + CLAIMABLE + " ORDER BY run_id, shard_index LIMIT " + CLAIM_CANDIDATES,
+                String.class);
+        for (String id : candidates) {
+            int updated = jdbcTemplate.update(
+                    "UPDATE ralie_import_shard SET status = 'CLAIMED', owner_id = ?, attempts = attempts + 1, " +
+                            "claim_expires_at = TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3)) " +
+                            "WHERE id = ? AND " + CLAIMABLE,
+                    ownerId, claimTtl.toNanos() / 1_000, id);
+            if (updated == 1) {
+                return jdbcTemplate.query("SELECT " + COLUMNS + " FROM ralie_import_shard WHERE id = ? AND owner_id = ?",
+                        SHARD, id, ownerId).stream().findFirst();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Marca o trecho como gravado, com os valores inválidos gravados como nulos em cada coluna.
+     * Devolve {@code false} se a posse expirou e o trecho foi obtido de novo, caso em que a
+     * gravação feita na mesma transação deve ser desfeita.
+     */
+    public boolean complete(RalieImportShard shard, String ownerId, long records, LocalDate datasetVersion,
+                            Map<String, Long> parseFailures) {
+        return jdbcTemplate.update(
+                "UPDATE ralie_import_shard SET status = 'DONE', records = ?, dataset_version = ?, parse_failures = ?, " +
+                        "claim_expires_at = NULL, finished_at = CURRENT_TIMESTAMP(3) " +
+                        "WHERE id = ? AND owner_id = ? AND attempts = ? AND status = 'CLAIMED'",
+                records, datasetVersion != null ? Date.valueOf(datasetVersion) : null, encode(parseFailures),
+                shard.id(), ownerId, shard.attempts()) == 1;
+    }
+
+    /**
+     * Valores inválidos gravados como nulos pelos trechos gravados da importação, somados por
+     * coluna.
+     */
+    public Map<String, Long> parseFailures(String runId) {
+        Map<String, Long> failures = new TreeMap<>();
+        jdbcTemplate.queryForList(
+                "SELECT parse_failures FROM ralie_import_shard WHERE run_id = ? AND status = 'DONE' AND parse_failures IS NOT NULL",
+                String.class, runId).forEach(encoded -> decode(encoded, failures));
+        return failures;
+    }
+
+    /**
+     * Devolve o trecho à fila após uma falha, ou o marca como falho quando {@code retry} é falso
+     * ou as tentativas se esgotaram.
+     */
+    public void release(RalieImportShard shard, String ownerId, String message, boolean retry, int maxAttempts) {
+        Status status = retry && shard.attempts() < maxAttempts ? Status.PENDING : Status.FAILED;
+        jdbcTemplate.update(
+                "UPDATE ralie_import_shard SET status = ?, owner_id = NULL, claim_expires_at = NULL, message = ? " +
+                        "WHERE id = ? AND owner_id = ? AND attempts = ? AND status = 'CLAIMED'",
+                status.name(), truncate(message), shard.id(), ownerId, shard.attempts());
+    }
+
+    /**
+     * Retira da fila os trechos ainda não gravados de uma importação que não vai ser publicada.
+     */
+    public void cancel(String runId) {
+        jdbcTemplate.update(
+                "UPDATE ralie_import_shard SET status = 'CANCELLED', claim_expires_at = NULL " +
+                        "WHERE run_id = ? AND status IN ('PENDING', 'CLAIMED')",
+                runId);
+    }
+
+    public RunProgress progress(String runId) {
+        RunProgress counts = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) AS total, " +
+                        "SUM(CASE WHEN status = 'DONE' THEN 1 ELSE 0 END) AS done, " +
+                        "SUM(CASE WHEN status = 'FAILED' THEN 1 ELSE 0 END) AS failed, " +
+                        "SUM(CASE WHEN status = 'DONE' THEN records ELSE 0 END) AS records, " +
+                        "MIN(dataset_version) AS dataset_version " +
+                        "FROM ralie_import_shard WHERE run_id = ?",
+                (rs, rowNum) -> {
+                    Date datasetVersion = rs.getDate("dataset_version");
+                    return new RunProgress(rs.getInt("total"), rs.getInt("done"), rs.getInt("failed"),
+                            rs.getLong("records"), datasetVersion != null ? datasetVersion.toLocalDate() : null, null);
+                },
+                runId);
+        if (counts.failed() == 0) {
+            return counts;
+        }
+        String failure = jdbcTemplate.queryForList(
+                "SELECT message FROM ralie_import_shard WHERE run_id = ? AND status = 'FAILED' ORDER BY shard_index",
+                String.class, runId).stream().findFirst().orElse(null);
+        return new RunProgress(counts.total(), counts.done(), counts.failed(), counts.records(),
+                counts.datasetVersion(), failure);
+    }
+
+    /**
+     * {@code coluna=contagem}, separados por {@code ;}. Os nomes são os das colunas mapeadas do
+     * RALIE, sem esses separadores.
+     */
+    private static String encode(Map<String, Long> parseFailures) {
+        if (parseFailures == null || parseFailures.isEmpty()) {
+            return null;
+        }
+        return parseFailures.entrySet().stream()
+                .map(failure -> failure.getKey() + "=" + failure.getValue())
+                .collect(Collectors.joining(";"));
+    }
+
+    private static void decode(String encoded, Map<String, Long> failures) {
+        for (String failure : encoded.split(";")) {
+            int separator = failure.lastIndexOf('=');
+            failures.merge(failure.substring(0, separator), Long.parseLong(failure.substring(separator + 1)), Long::sum);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    /**
+     * Situação dos trechos de uma importação. {@code records} soma só os trechos gravados;
+     * {@code failure} é a mensagem do primeiro trecho que falhou.
+     */
+    public record RunProgress(int total, int done, int failed, long records, LocalDate datasetVersion, String failure) {
+
+        public boolean isComplete() {
+            return total > 0 && done == total;
+        }
+    }
+}
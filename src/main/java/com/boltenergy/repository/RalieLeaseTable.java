@@ -0,0 +1,110 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.RalieLease;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leases na tabela {@code ralie_lease}. Cada operação é um único {@code UPDATE} condicional, que
+ * o banco serializa pela chave primária, então duas instâncias nunca obtêm o mesmo lease. Os
+ * horários vêm do relógio do banco, o mesmo para todas as instâncias.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RalieLeaseTable {
+
+    private static final String EXPIRES_AT = "TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Obtém o lease se estiver livre ou expirado, incrementando o fencing token. Um lease ainda
+     * válido de outro dono, ou do próprio {@code ownerId}, não é tomado.
+     */
+    public Optional<RalieLease> tryAcquire(String name, String ownerId, Duration ttl) {
+        ensureExists(name);
+        int updated = jdbcTemplate.update(
+                "UPDATE ralie_lease SET owner_id = ?, fencing_token = fencing_token + 1, " +
+                        "acquired_at = CURRENT_TIMESTAMP(3), expires_at = " + EXPIRES_AT + " " +
+                        "WHERE name = ? AND (owner_id IS NULL OR expires_at <= CURRENT_TIMESTAMP(3))",
+                ownerId, micros(ttl), name);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        // Enquanto o lease não expira, a linha só muda pelas mãos do novo dono
+        Long token = jdbcTemplate.queryForObject(
+                "SELECT fencing_token FROM ralie_lease WHERE name = ? AND owner_id = ?",
+                Long.class, name, ownerId);
+        return Optional.of(new RalieLease(name, ownerId, token));
+    }
+
+    /**
+     * Estende a validade do lease. Devolve {@code false} se ele expirou e foi obtido por outro
+     * dono, caso em que não pode mais ser usado.
+     */
+    public boolean renew(RalieLease lease, Duration ttl) {
+        return jdbcTemplate.update(
+                "UPDATE ralie_lease SET expires_at = " + EXPIRES_AT + " " +
+                        "WHERE name = ? AND owner_id = ? AND fencing_token = ? AND expires_at > CURRENT_TIMESTAMP(3)",
+                micros(ttl), lease.name(), lease.ownerId(), lease.fencingToken()) == 1;
+    }
+
+    public void release(RalieLease lease) {
+        jdbcTemplate.update(
+                "UPDATE ralie_lease SET owner_id = NULL, expires_at = CURRENT_TIMESTAMP(3) " +
+                        "WHERE name = ? AND owner_id = ? AND fencing_token = ?",
+                lease.name(), lease.ownerId(), lease.fencingToken());
+    }
+
+    /**
+     * Confere, na própria {@code connection}, que {@code lease} ainda é o atual e não expirou.
+     * Usado pelas escritas que não rodam em uma transação e bloqueiam a tabela com
+     * {@code LOCK TABLES} (ver {@link RalieDatasetTables#publishStaging(RalieLease)}).
+     */
+    static boolean isHeld(Connection connection, RalieLease lease) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM ralie_lease " +
+                        "WHERE name = ? AND owner_id = ? AND fencing_token = ? AND expires_at > CURRENT_TIMESTAMP(3)")) {
+            statement.setString(1, lease.name());
+            statement.setString(2, lease.ownerId());
+            statement.setLong(3, lease.fencingToken());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getLong(1) == 1;
+            }
+        }
+    }
+
+    /**
+     * Dono atual do lease, se houver um válido.
+     */
+    public Optional<String> currentOwner(String name) {
+        List<String> owners = jdbcTemplate.queryForList(
+                "SELECT owner_id FROM ralie_lease WHERE name = ? AND owner_id IS NOT NULL AND expires_at > CURRENT_TIMESTAMP(3)",
+                String.class, name);
+        return owners.stream().findFirst();
+    }
+
+    private void ensureExists(String name) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO ralie_lease (name, fencing_token, expires_at) VALUES (?, 0, CURRENT_TIMESTAMP(3))",
+                    name);
+        } catch (DuplicateKeyException e) {
+            // já criada por esta ou por outra instância
+        }
+    }
+
+    private static long micros(Duration ttl) {
+        return ttl.toNanos() / 1_000;
+    }
+}
@@ -0,0 +1,163 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Gravação em lote da tabela de importação via JDBC. A entidade usa {@code IDENTITY}, o que
+ * desliga o batch do Hibernate e gera um INSERT por linha; aqui os IDs são gerados no cliente,
+ * em ordem de tempo, e as linhas vão em um único {@code batchUpdate}, que o Connector/J envia
+ * como INSERTs de várias linhas com {@code rewriteBatchedStatements=true}. A lista de colunas
+ * é gerada a partir dos {@code @Column} de {@link RalieUsinaCsvImportEntity}, que continua
+ * sendo usada nas leituras.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RalieUsinaCsvImportBulkWriter {
+
+    /** Bits do ID reservados à sequência dentro do mesmo milissegundo. */
+    private static final int SEQUENCE_BITS = 20;
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final List<RalieUsinaCsvImportColumns.Mapping> COLUMNS = RalieUsinaCsvImportColumns.COLUMNS;
+    private static final String VALUES = " VALUES (?" + ", ?".repeat(COLUMNS.size()) + ")";
+    private static final String ASSIGNMENTS = COLUMNS.stream()
+            .map(column -> column.name() + " = ?")
+            .collect(Collectors.joining(", "));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong lastId = new AtomicLong();
+
+    /**
+     * Insere as entidades sem ID, atribuindo-lhes um, e atualiza as que já têm. Linhas novas sem
+     * {@code dataImportacao} recebem o horário atual, como no {@code @PrePersist} da entidade.
+     */
+    public void saveAll(List<RalieUsinaCsvImportEntity> entities) {
+        saveAll(RalieUsinaCsvImportColumns.TABLE, entities);
+    }
+
+    /**
+     * Como {@link #saveAll(List)}, mas em outra tabela com as mesmas colunas, como a de staging.
+     */
+    public void saveAll(String table, List<RalieUsinaCsvImportEntity> entities) {
+        List<RalieUsinaCsvImportEntity> inserts = new ArrayList<>(entities.size());
+        List<RalieUsinaCsvImportEntity> updates = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (RalieUsinaCsvImportEntity entity : entities) {
+            if (entity.getId() != null) {
+                updates.add(entity);
+                continue;
+            }
+            entity.setId(nextId());
+            if (entity.getDataImportacao() == null) {
+                entity.setDataImportacao(now);
+            }
+            inserts.add(entity);
+        }
+
+        if (!inserts.isEmpty()) {
+            insert(table, inserts);
+        }
+        if (!updates.isEmpty()) {
+            String updateSql = "UPDATE " + table + " SET " + ASSIGNMENTS + " WHERE id = ?";
+            jdbcTemplate.batchUpdate(updateSql, updates, updates.size(), (ps, entity) -> {
+                int next = bindColumns(ps, entity, 1);
+                ps.setLong(next, entity.getId());
+            });
+        }
+    }
+
+    /**
+     * Insere entidades que já têm ID, como as da importação distribuída, cujos IDs vêm de um bloco
+     * reservado com {@link #reserveIds(long)}. Linhas sem {@code dataImportacao} recebem o
+     * horário atual.
+     */
+    public void insertAll(String table, List<RalieUsinaCsvImportEntity> entities) {
+        LocalDateTime now = LocalDateTime.now();
+        for (RalieUsinaCsvImportEntity entity : entities) {
+            if (entity.getDataImportacao() == null) {
+                entity.setDataImportacao(now);
+            }
+        }
+        insert(table, entities);
+    }
+
+    /**
+     * Reserva {@code count} IDs consecutivos e devolve o primeiro. Os próximos IDs gerados por
+     * esta instância ficam acima do bloco; nas demais, o bloco corresponde a poucos
+     * milissegundos já passados quando elas gravarem de novo.
+     */
+    public long reserveIds(long count) {
+        long first = nextId();
+        lastId.accumulateAndGet(first + count - 1, Math::max);
+        return first;
+    }
+
+    /**
+     * Exclui as linhas pelos IDs, em lotes.
+     */
+    public void deleteAllById(String table, List<Long> ids) {
+        jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE id = ?", ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * Grava {@code datasetVersion} em {@code dat_geracao_conjunto_dados} das linhas que ainda têm
+     * outra versão, em um único {@code UPDATE}. Retorna o número de linhas alteradas.
+     */
+    public int updateDatasetVersion(LocalDate datasetVersion) {
+        return updateDatasetVersion(RalieUsinaCsvImportColumns.TABLE, datasetVersion);
+    }
+
+    /**
+     * Como {@link #updateDatasetVersion(LocalDate)}, mas em outra tabela com as mesmas colunas.
+     */
+    public int updateDatasetVersion(String table, LocalDate datasetVersion) {
+        return jdbcTemplate.update("UPDATE " + table + " SET dat_geracao_conjunto_dados = ?"
+                        + " WHERE dat_geracao_conjunto_dados IS NULL OR dat_geracao_conjunto_dados <> ?",
+                datasetVersion, datasetVersion);
+    }
+
+    /**
+     * IDs crescentes no tempo: milissegundos desde 2024 seguidos de uma sequência de
+     * {@value #SEQUENCE_BITS} bits. Ficam muito acima dos IDs gerados pelo {@code IDENTITY}.
+     */
+    long nextId() {
+        long timeBased = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        return lastId.updateAndGet(last -> Math.max(last + 1, timeBased));
+    }
+
+    private void insert(String table, List<RalieUsinaCsvImportEntity> entities) {
+        String insertSql = "INSERT INTO " + table + " (id, " + RalieUsinaCsvImportColumns.joinedNames() + ")" + VALUES;
+        jdbcTemplate.batchUpdate(insertSql, entities, entities.size(), (ps, entity) -> {
+            ps.setLong(1, entity.getId());
+            bindColumns(ps, entity, 2);
+        });
+    }
+
+    private static int bindColumns(PreparedStatement ps, RalieUsinaCsvImportEntity entity, int firstIndex)
+            throws SQLException {
+        int index = firstIndex;
+        for (RalieUsinaCsvImportColumns.Mapping column : COLUMNS) {
+            Object value = column.read(entity);
+            if (value == null) {
+                ps.setNull(index++, column.sqlType());
+            } else {
+                ps.setObject(index++, value, column.sqlType());
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,74 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Colunas da tabela de importação, geradas uma vez a partir dos {@code @Column} de
+ * {@link RalieUsinaCsvImportEntity}, na ordem de declaração e sem o {@code id}. Usadas pelos
+ * caminhos de gravação em massa que não passam pelo Hibernate.
+ */
+final class RalieUsinaCsvImportColumns {
+
+    static final String TABLE = RalieUsinaCsvImportEntity.class.getAnnotation(Table.class).name();
+    static final List<Mapping> COLUMNS = columns();
+
+    private RalieUsinaCsvImportColumns() {
+    }
+
+    static String joinedNames() {
+        return COLUMNS.stream().map(Mapping::name).collect(Collectors.joining(", "));
+    }
+
+    private static List<Mapping> columns() {
+        List<Mapping> columns = new ArrayList<>();
+        for (Field field : RalieUsinaCsvImportEntity.class.getDeclaredFields()) {
+            Column column = field.getAnnotation(Column.class);
+            if (column == null || field.isAnnotationPresent(Id.class) || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            columns.add(new Mapping(column.name(), field, sqlType(field.getType())));
+        }
+        return Collections.unmodifiableList(columns);
+    }
+
+    private static int sqlType(Class<?> type) {
+        if (type == LocalDate.class) {
+            return Types.DATE;
+        }
+        if (type == LocalDateTime.class) {
+            return Types.TIMESTAMP;
+        }
+        if (type == Double.class) {
+            return Types.DOUBLE;
+        }
+        if (type == String.class) {
+            return Types.VARCHAR;
+        }
+        throw new IllegalStateException("Tipo sem mapeamento JDBC na tabela " + TABLE + ": " + type.getName());
+    }
+
+    record Mapping(String name, Field field, int sqlType) {
+
+        Object read(RalieUsinaCsvImportEntity entity) {
+            try {
+                return field.get(entity);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Campo inacessível: " + field.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Carga da tabela de importação com {@code LOAD DATA LOCAL INFILE} do MySQL. As linhas novas
+ * são escritas em um arquivo intermediário em UTF-8, já tipado (datas ISO, decimais com ponto,
+ * {@code \N} para nulos e escapes do formato padrão do MySQL), e enviadas em uma única
+ * instrução pelo {@link InputStream} registrado no Connector/J. O driver continua só no
+ * classpath de execução: o método do Connector/J é obtido por reflexão. Em outros bancos, como o H2
+ * dos testes, {@link #isSupported()} é {@code false} e o chamador usa outro caminho.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class RalieUsinaCsvImportLoadDataWriter {
+
+    private static final String NULL = "\\N";
+    private static final String CONNECTOR_J_STATEMENT = "com.mysql.cj.jdbc.JdbcStatement";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+    private static final String LOAD_FORMAT = " CHARACTER SET utf8mb4"
+            + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'"
+            + " LINES TERMINATED BY '\\n'"
+            + " (id, " + RalieUsinaCsvImportColumns.joinedNames() + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RalieUsinaCsvImportBulkWriter bulkWriter;
+    private volatile Boolean supported;
+
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            result = JdbcDatabases.isMySql(jdbcTemplate);
+            supported = result;
+        }
+        return result;
+    }
+
+    /**
+     * Abre um arquivo intermediário vazio. Ele é apagado ao ser fechado.
+     */
+    public LoadFile open() throws IOException {
+        return new LoadFile(Files.createTempFile(RalieUsinaCsvImportColumns.TABLE + "_", ".tsv"));
+    }
+
+    /**
+     * Envia o arquivo para a tabela e devolve o número de linhas carregadas.
+     */
+    public long load(LoadFile file) throws IOException {
+        return load(RalieUsinaCsvImportColumns.TABLE, file);
+    }
+
+    /**
+     * Como {@link #load(LoadFile)}, mas em outra tabela com as mesmas colunas, como a de staging.
+     */
+    public long load(String table, LoadFile file) throws IOException {
+        file.writer.flush();
+        if (file.rows == 0) {
+            return 0;
+        }
+        log.info("Carregando {} registros em {} com LOAD DATA LOCAL INFILE ({} bytes)", file.rows, table, Files.size(file.path));
+        Long loaded = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (Statement statement = connection.createStatement();
+                 InputStream inputStream = Files.newInputStream(file.path)) {
+                setLocalInfileInputStream(statement, inputStream);
+                return statement.executeLargeUpdate("LOAD DATA LOCAL INFILE '" + table + ".tsv'"
+                        + " INTO TABLE " + table + LOAD_FORMAT);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao ler o arquivo intermediário " + file.path, e);
+            }
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+    /**
+     * {@code JdbcStatement.setLocalInfileInputStream} do Connector/J, que passa a ser a origem
+     * do próximo {@code LOAD DATA LOCAL INFILE} do {@code statement}.
+     */
+    private static void setLocalInfileInputStream(Statement statement, InputStream inputStream) throws SQLException {
+        try {
+            Class<?> type = Class.forName(CONNECTOR_J_STATEMENT);
+            Method method = type.getMethod("setLocalInfileInputStream", InputStream.class);
+            method.invoke(statement.unwrap(type), inputStream);
+        } catch (InvocationTargetException e) {
+            throw new SQLException("Falha ao registrar o arquivo intermediário no Connector/J", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("LOAD DATA LOCAL INFILE exige o driver Connector/J do MySQL", e);
+        }
+    }
+
+    /**
+     * Arquivo intermediário da carga. Cada linha recebe um ID gerado no cliente, como no
+     * {@link RalieUsinaCsvImportBulkWriter}.
+     */
+    public final class LoadFile implements Closeable {
+
+        private final Path path;
+        private final BufferedWriter writer;
+        private final LocalDateTime importTime = LocalDateTime.now();
+        private long rows;
+
+        private LoadFile(Path path) throws IOException {
+            this.path = path;
+            this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+
+        public void append(RalieUsinaCsvImportEntity entity) throws IOException {
+            entity.setId(bulkWriter.nextId());
+            if (entity.getDataImportacao() == null) {
+                entity.setDataImportacao(importTime);
+            }
+            writer.write(Long.toString(entity.getId()));
+            for (RalieUsinaCsvImportColumns.Mapping column : RalieUsinaCsvImportColumns.COLUMNS) {
+                writer.write('\t');
+                writeValue(column.read(entity));
+            }
+            writer.write('\n');
+            rows++;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        Path path() {
+            return path;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.close();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                writer.write(NULL);
+            } else if (value instanceof String text) {
+                writeEscaped(text);
+            } else if (value instanceof LocalDateTime timestamp) {
+                writer.write(TIMESTAMP.format(timestamp));
+            } else {
+                // LocalDate.toString() já é ISO e Double.toString() usa ponto decimal
+                writer.write(value.toString());
+            }
+        }
+
+        private void writeEscaped(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '\\' -> writer.write("\\\\");
+                    case '\t' -> writer.write("\\t");
+                    case '\n' -> writer.write("\\n");
+                    case '\r' -> writer.write("\\r");
+                    case '\0' -> writer.write("\\0");
+                    default -> writer.write(c);
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,23 @@ package com.boltenergy.repository;
 
 import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface RalieUsinaCsvImportRepository extends JpaRepository<RalieUsinaCsvImportEntity, Long> {
+
+    @Query("SELECT e.id AS id, e.codCeg AS codCeg, e.ideNucleoCeg AS ideNucleoCeg, e.rowHash AS rowHash " +
+           "FROM RalieUsinaCsvImportEntity e")
+    List<RowFingerprint> findAllFingerprints();
+
+    interface RowFingerprint {
+        Long getId();
+
+        String getCodCeg();
+
+        String getIdeNucleoCeg();
+
+        String getRowHash();
+    }
 }
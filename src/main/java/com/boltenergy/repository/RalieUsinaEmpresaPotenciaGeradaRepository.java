@@ -19,14 +19,9 @@ public interface RalieUsinaEmpresaPotenciaGeradaRepository extends JpaRepository
     List<RalieUsinaEmpresaPotenciaGeradaEntity> findTop5ByOrderByPotenciaDesc();
 
     @Query(nativeQuery = true, value =
-        "INSERT INTO ralie_usina_empresa_potencia_gerada (cod_ceg, nom_empreendimento, potencia) " +
-            "SELECT " +
-            "    cod_ceg, " +
-            "    SUBSTRING_INDEX(GROUP_CONCAT(DISTINCT nom_empreendimento), ',', 1) as nom_empreendimento, " +
-            "    COALESCE(SUM(mda_potencia_outorgada_kw), 0) as potencia " +
-            "FROM ralie_usina_csv_import " +
-            "WHERE cod_ceg IS NOT NULL AND cod_ceg != '' " +
-            "GROUP BY cod_ceg")
+        RalieGeneratorsAggregation.INSERT_INTO + "ralie_usina_empresa_potencia_gerada" +
+            RalieGeneratorsAggregation.SELECT_FROM + "ralie_usina_csv_import" +
+            RalieGeneratorsAggregation.GROUP_BY)
     @Modifying
     void processDataTableLargestGenerators();
 }
@@ -1,65 +1,54 @@
 package com.boltenergy.service;
 
+import com.boltenergy.config.RalieSourceProperties;
 import com.boltenergy.config.WebClientConfig;
 import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieImportResult;
 import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.service.download.RalieDownloadResult;
+import com.boltenergy.service.download.RalieFileDownloader;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.metrics.RalieImportMetrics;
 import jakarta.annotation.PostConstruct;
 import java.nio.file.Files;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
+import java.net.URI;
 import java.nio.file.*;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.Optional;
-import org.springframework.http.HttpHeaders;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AneelRalieService {
-
-
-    private static final String ANEEL_BASE_URL = "https://dadosabertos.aneel.gov.br";
-
-    //     URL direta para o arquivo CSV do RALIE (atualizada para o recurso correto)
-    private static final String RALIE_CSV_URL = "https://dadosabertos.aneel.gov.br/dataset/57e4b8b5-a5db-40e6-9901-27ca629d0477/resource/4a615df8-4c25-48fa-bbea-873a36a79518/download/ralie-usina.csv";
-
-
-    //urls de teste
-//    private static final String ANEEL_BASE_URL = "https://github.com";
-    //private static final String RALIE_CSV_URL = "https://raw.githubusercontent.com/sum182/bolt_energy/refs/heads/main/src/main/resources/examples/ralie-usina-example-simple.csv";
-//    private static final String RALIE_CSV_URL = "https://raw.githubusercontent.com/sum182/bolt_energy/refs/heads/main/src/main/resources/examples/ralie-usina-example-simple-2.csv";
-
-    private static final String DOWNLOAD_DIR = "downloads";
     
     private final WebClientConfig webClientConfig;
+    private final RalieSourceProperties sourceProperties;
     private final RalieMetadataService metadataService;
-    private final RalieUsinaCsvImportService csvImportService;
-    private final RalieUsinaEmpresaPotenciaGeradaService potenciaGeradaService;
+    private final RalieDatasetPublisher datasetPublisher;
+    private final RalieFileDownloader fileDownloader;
+    private final RalieRefreshCoordinator refreshCoordinator;
+    private final RalieRefreshLease refreshLease;
+    private final RalieImportMetrics importMetrics;
     private WebClient webClient;
     private Path appBasePath;
     private Path downloadPath;
-    private RalieMetadata metadata;
     
     @PostConstruct
     public void init() {
-        this.webClient = webClientConfig.createWebClient(ANEEL_BASE_URL);
+        this.webClient = webClientConfig.createWebClient(baseUrl(sourceProperties.getUrl()));
         this.appBasePath = Paths.get("").toAbsolutePath();
-        this.downloadPath = appBasePath.resolve(DOWNLOAD_DIR);
+        this.downloadPath = appBasePath.resolve(sourceProperties.getDownloadDir());
         
         try {
             log.info("Inicializando diretório de downloads em: {}", this.downloadPath);
@@ -74,7 +63,8 @@ public class AneelRalieService {
             }
             
             metadataService.init(downloadPath);
-            metadata = metadataService.loadMetadata();
+            RalieMetadata metadata = metadataService.loadMetadata();
+            importMetrics.dataset(metadata);
             
             log.info("Metadados carregados. Último download em: {}", 
                     metadata.getFormattedLastDownloadTime());
@@ -86,118 +76,117 @@ public class AneelRalieService {
     }
     
     public String downloadRalieCsv() {
+        return downloadRalieCsv(RalieImportProgress.untracked());
+    }
+    
+    /**
+     * Como {@link #downloadRalieCsv()}, informando o andamento de cada etapa em {@code progress},
+     * que também permite cancelar a atualização. Se outra atualização já estiver em andamento
+     * nesta instância (agendamento, endpoint ou job), aguarda e devolve o resultado dela; se
+     * estiver em outra instância, lança {@link com.boltenergy.exception.RalieLeaseException}.
+     */
+    public String downloadRalieCsv(RalieImportProgress progress) {
+        return refreshCoordinator.refresh(progress, leader -> refreshLease.runExclusive(leader, this::refresh));
+    }
+    
+    private String refresh(RalieImportProgress progress) {
         log.info("Iniciando verificação de atualizações do arquivo RALIE da ANEEL");
+        long start = System.nanoTime();
+        Throwable failure = null;
         
         try {
             String csvUrl = getCsvFileUrl();
             log.info("URL do arquivo CSV: {}", csvUrl);
             
-            metadata = metadataService.loadMetadata();
-            
-            if (!hasRemoteFileChanged(csvUrl)) {
-                log.info("O arquivo remoto não foi modificado desde o último download");
-                return findLatestRalieFile()
-                    .map(Path::toString)
-                    .orElseGet(() -> downloadNewFile(csvUrl));
-            }
+            // Os metadados são relidos a cada execução e só circulam dentro dela
+            RalieMetadata metadata = metadataService.loadMetadata();
             
-            log.info("Arquivo remoto foi modificado ou é o primeiro download");
-            return downloadNewFile(csvUrl);
+            return downloadNewFile(csvUrl, metadata, findExistingFile(metadata), progress);
             
         } catch (RalieDownloadException e) {
+            failure = e;
             log.error("Erro ao baixar o arquivo RALIE: {}", e.getMessage());
             throw e;
         } catch (Exception e) {
+            failure = e;
             log.error("Erro inesperado ao baixar o arquivo RALIE: {}", e.getMessage(), e);
             throw new RalieDownloadException("Erro ao baixar o arquivo RALIE: " + e.getMessage(), e);
+        } finally {
+            progress.complete();
+            importMetrics.refresh(progress, System.nanoTime() - start, failure);
         }
     }
     
-    private boolean hasRemoteFileChanged(String fileUrl) {
-        try {
-            if (metadata.getEtag() == null && metadata.getLastModified() == null) {
-                log.info("Nenhum ETag ou Last-Modified anterior encontrado, considerando como modificado");
-                return true;
-            }
-            
-            HttpHeaders headers = webClient.head()
-                .uri(fileUrl)
-                .retrieve()
-                .toBodilessEntity()
-                .block()
-                .getHeaders();
-            
-            String currentEtag = headers.getETag();
-            String currentLastModified = headers.getFirst("Last-Modified");
-            
-            log.debug("Cabeçalhos recebidos - ETag: {}, Last-Modified: {}", currentEtag, currentLastModified);
-            
-            if (currentEtag == null && currentLastModified == null) {
-                log.info("Servidor não retornou ETag nem Last-Modified, considerando como modificado");
-                return true;
-            }
-            
-            if (metadata.getEtag() != null && currentEtag != null) {
-                boolean etagChanged = !currentEtag.equals(metadata.getEtag());
-                log.info("Comparação de ETag - Antigo: {}, Novo: {}, Modificado: {}", 
-                        metadata.getEtag(), currentEtag, etagChanged);
-                return etagChanged;
-            }
-            
-            if (metadata.getLastModified() != null && currentLastModified != null) {
-                boolean lastModifiedChanged = !currentLastModified.equals(metadata.getLastModified());
-                log.info("Comparação de Last-Modified - Antigo: {}, Novo: {}, Modificado: {}", 
-                        metadata.getLastModified(), currentLastModified, lastModifiedChanged);
-                return lastModifiedChanged;
+    private Optional<Path> findExistingFile(RalieMetadata metadata) {
+        if (metadata.getLastDownloadedFile() != null) {
+            Path lastDownloadedFile = Paths.get(metadata.getLastDownloadedFile());
+            if (Files.isRegularFile(lastDownloadedFile)) {
+                return Optional.of(lastDownloadedFile);
             }
-            
-            log.info("Não foi possível determinar se o arquivo foi modificado. Considerando como modificado.");
-            return true;
-            
-        } catch (Exception e) {
-            log.warn("Erro ao verificar alterações no arquivo remoto: {}. Considerando como modificado.", e.getMessage());
-            return true;
         }
+        return findLatestRalieFile();
     }
     
     @Transactional(rollbackFor = Exception.class)
-    private String downloadNewFile(String fileUrl) {
+    private String downloadNewFile(String fileUrl, RalieMetadata metadata, Optional<Path> existingFile,
+                                   RalieImportProgress progress) {
         try {
-            log.info("Iniciando download de novo arquivo: {}", fileUrl);
-            
-            HttpHeaders headers = webClient.head()
-                .uri(fileUrl)
-                .retrieve()
-                .toBodilessEntity()
-                .block()
-                .getHeaders();
-                
-            String etag = headers.getETag();
-            String lastModified = headers.getFirst("Last-Modified");
-            log.info("Novos cabeçalhos recebidos - ETag: {}, Last-Modified: {}", etag, lastModified);
-                
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             String fileName = String.format("ralie_%s.csv", timestamp);
             Path filePath = downloadPath.resolve(fileName);
             
-            log.info("Iniciando download para: {}", filePath);
-            long startTime = System.currentTimeMillis();
+            // Sem arquivo local não há o que reaproveitar, então a requisição não é condicional
+            RalieMetadata validators = existingFile.isPresent() ? metadata : new RalieMetadata();
+            
+            log.info("Iniciando download condicional para: {}", filePath);
+            long startTime = System.nanoTime();
+            
+            progress.phase(RalieImportProgress.Phase.DOWNLOADING);
+            RalieDownloadResult download = fileDownloader.download(webClient, fileUrl, filePath, validators, progress);
+            long downloadNanos = System.nanoTime() - startTime;
+            importMetrics.download(download, downloadNanos);
+            
+            if (download.notModified()) {
+                log.info("O arquivo remoto não foi modificado desde o último download");
+                metadata.checked();
+                refreshLease.fenced(() -> metadataService.saveMetadata(metadata));
+                return existingFile.get().toString();
+            }
             
-            String fileContent = downloadFile(fileUrl, filePath);
+            log.info("Novos cabeçalhos recebidos - ETag: {}, Last-Modified: {}", download.etag(), download.lastModified());
             
-            long fileSize = Files.size(filePath);
-            double duration = (System.currentTimeMillis() - startTime) / 1000.0;
+            long fileSize = download.size();
+            double duration = downloadNanos / 1e9;
             
             log.info("Download concluído em {}s - Tamanho: {}MB", 
                     String.format("%.2f", duration), 
                     String.format("%.2f", fileSize / (1024.0 * 1024.0)));
 
-            importCsvToDatabase(fileContent);
+            boolean unchanged = download.contentHash().equals(metadata.getContentHash());
+            if (unchanged) {
+                // O servidor pode trocar o ETag sem alterar o conteúdo; nesse caso a base já está atualizada
+                log.info("Conteúdo idêntico ao último importado (SHA-256 {}). Importação ignorada", download.contentHash());
+                if (existingFile.isPresent()) {
+                    // A cópia nova é igual à anterior, que continua sendo o arquivo de referência
+                    Files.delete(filePath);
+                    filePath = existingFile.get();
+                }
+                metadata.setEtag(download.etag());
+                metadata.setLastModified(download.lastModified());
+                metadata.setLastDownloadedFile(filePath.toString());
+                metadata.checked();
+            } else {
+                progress.checkCancelled();
+                RalieImportResult importResult = importCsvToDatabase(filePath, progress);
+                progress.importResult(importResult);
+                metadata.setDatasetVersion(importResult.datasetVersion());
+                metadata.update(download.etag(), download.lastModified(), filePath.toString(), fileSize, download.contentHash());
+            }
 
-            metadata.update(etag, lastModified, filePath.toString(), fileSize);
-            metadataService.saveMetadata(metadata);
+            refreshLease.fenced(() -> metadataService.saveMetadata(metadata));
+            importMetrics.dataset(metadata);
             
-            log.info("Metadados atualizados com sucesso");
+            log.info("Metadados atualizados com sucesso (versão do conjunto de dados: {})", metadata.getDatasetVersion());
             
             return filePath.toString();
             
@@ -220,111 +209,21 @@ public class AneelRalieService {
     }
     
     private String getCsvFileUrl() {
-        return RALIE_CSV_URL;
+        return sourceProperties.getUrl();
+    }
+    
+    private static String baseUrl(String fileUrl) {
+        return URI.create(fileUrl).resolve("/").toString();
     }
     
-    private void importCsvToDatabase(String csvContent) {
+    private RalieImportResult importCsvToDatabase(Path filePath, RalieImportProgress progress) {
         log.info("Iniciando importação do CSV para o banco de dados...");
         try {
-            csvImportService.importCsv(csvContent);
-            log.info("Importação do CSV concluída com sucesso");
-
-            potenciaGeradaService.processImportedData();
-            log.info("Processamento dos dados para a tabela de potência gerada concluído");
+            return datasetPublisher.publish(filePath, progress);
             
         } catch (Exception e) {
             log.error("Erro ao importar o CSV para o banco de dados: {}", e.getMessage(), e);
             throw new RalieDownloadException("Falha ao importar o CSV para o banco de dados", e);
         }
     }
-    
-    private String detectCharset(byte[] content) {
-        String[] charsets = {"UTF-8", "ISO-8859-1", "Windows-1252", "US-ASCII"};
-        
-        for (String charset : charsets) {
-            try {
-                String test = new String(content, charset);
-                byte[] backToBytes = test.getBytes(charset);
-                if (Arrays.equals(content, backToBytes)) {
-                    return charset;
-                }
-            } catch (Exception e) {
-                continue;
-            }
-        }
-        
-        return "UTF-8";
-    }
-    
-    private String downloadFile(String fileUrl, Path targetPath) {
-        log.info("Iniciando download do arquivo de: {}", fileUrl);
-        log.info("Salvando em: {}", targetPath);
-        
-        Path tempFile = null;
-        try {
-            Files.createDirectories(targetPath.getParent());
-            
-            tempFile = Files.createTempFile(targetPath.getParent(), "ralie_download_", ".tmp");
-            log.debug("Arquivo temporário criado: {}", tempFile);
-            try (FileChannel channel = FileChannel.open(tempFile, 
-                    StandardOpenOption.CREATE, 
-                    StandardOpenOption.WRITE, 
-                    StandardOpenOption.TRUNCATE_EXISTING)) {
-                
-                webClient.get()
-                    .uri(fileUrl)
-                    .accept(MediaType.APPLICATION_OCTET_STREAM)
-                    .retrieve()
-                    .bodyToFlux(DataBuffer.class)
-                    .doOnNext(dataBuffer -> {
-                        try {
-                            ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
-                            while (byteBuffer.hasRemaining()) {
-                                channel.write(byteBuffer);
-                            }
-                            DataBufferUtils.release(dataBuffer);
-                        } catch (IOException e) {
-                            DataBufferUtils.release(dataBuffer);
-                            throw new RuntimeException("Erro ao escrever no arquivo temporário", e);
-                        }
-                    })
-                    .doOnError(e -> {
-                        log.error("Erro durante o download: {}", e.getMessage());
-                        throw new RalieDownloadException("Erro durante o download do arquivo: " + e.getMessage(), e);
-                    })
-                    .collectList()
-                    .block();
-            }
-            
-            byte[] fileContent = Files.readAllBytes(tempFile);
-            
-            if (fileContent == null || fileContent.length == 0) {
-                throw new RalieDownloadException("O conteúdo do arquivo está vazio");
-            }
-            
-            String detectedCharset = detectCharset(fileContent);
-            log.debug("Codificação detectada: {}", detectedCharset);
-            
-            String content = new String(fileContent, detectedCharset);
-            
-            Files.writeString(targetPath, content, StandardCharsets.UTF_8);
-            
-            log.info("Arquivo salvo com sucesso em: {}", targetPath);
-            
-            return content;
-                
-        } catch (Exception e) {
-            log.warn("Erro durante o download: {}", e.getMessage());
-            throw new RalieDownloadException("Falha ao baixar o arquivo: " + e.getMessage(), e);
-        } finally {
-            if (tempFile != null) {
-                try {
-                    Files.deleteIfExists(tempFile);
-                    log.debug("Arquivo temporário removido: {}", tempFile);
-                } catch (IOException ex) {
-                    log.warn("Falha ao remover arquivo temporário: {}", tempFile, ex);
-                }
-            }
-        }
-    }
 }
@@ -0,0 +1,159 @@
+package com.boltenergy.service;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.metrics.RalieImportMetrics;
+import com.boltenergy.service.shard.RalieShardedImport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Publica uma nova versão do RALIE nas tabelas lidas pela API. No modo {@code swap}, a tabela de
+ * importação e a de potência gerada são montadas em staging e trocadas juntas por um único
+ * {@code RENAME TABLE}, então os leitores veem a versão anterior completa até a nova estar
+ * pronta e validada, nunca uma tabela vazia ou parcial. Uma carga que falha ou não passa na
+ * validação só descarta o staging.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RalieDatasetPublisher {
+
+    private final RalieUsinaCsvImportService csvImportService;
+    private final RalieUsinaEmpresaPotenciaGeradaService potenciaGeradaService;
+    private final RalieDatasetTables datasetTables;
+    private final RalieImportProperties importProperties;
+    private final RalieRefreshLease refreshLease;
+    private final RalieRefreshCoordinator refreshCoordinator;
+    private final RalieShardedImport shardedImport;
+    private final RalieImportMetrics importMetrics;
+
+    public RalieImportResult publish(Path file) throws IOException {
+        return publish(file, RalieImportProgress.untracked());
+    }
+
+    /**
+     * Como {@link #publish(Path)}, informando o andamento em {@code progress}. Um cancelamento
+     * durante a carga do staging mantém a versão publicada.
+     */
+    public RalieImportResult publish(Path file, RalieImportProgress progress) throws IOException {
+        progress.phase(RalieImportProgress.Phase.IMPORTING);
+        if (!useSwap()) {
+            return publishInPlace(file, progress);
+        }
+
+        datasetTables.prepareStaging(importProperties.getMode() == RalieImportProperties.Mode.DELTA);
+        boolean published = false;
+        try {
+            RalieImportResult importResult = useSharding()
+                    ? shardedImport.importToStaging(file, progress)
+                    : csvImportService.importCsvToStaging(file, progress);
+            if (importProperties.getMode() == RalieImportProperties.Mode.FULL) {
+                // Como na gravação direta, as excluídas são os registros da versão que será substituída
+                importResult = importResult.withDeleted(datasetTables.countPublished(RalieDatasetTables.IMPORT_TABLE));
+            }
+            if (!importResult.hasChanges()) {
+                log.info("Nenhuma linha incluída, alterada ou excluída. Versão publicada mantida");
+                return importResult;
+            }
+
+            long staged = datasetTables.countStaging(RalieDatasetTables.IMPORT_TABLE);
+            if (staged == 0 || staged != importResult.totalRecords()) {
+                throw new RalieDownloadException(String.format(
+                        "Staging inválido: %d registros na tabela e %d no arquivo. Versão publicada mantida",
+                        staged, importResult.totalRecords()));
+            }
+
+            progress.checkCancelled();
+            progress.phase(RalieImportProgress.Phase.PUBLISHING);
+            long start = System.nanoTime();
+            int generators = datasetTables.aggregateGeneratorsStaging(
+                    RalieDatasetTables.staging(RalieDatasetTables.IMPORT_TABLE));
+            importMetrics.aggregation(RalieImportProperties.Publish.SWAP, System.nanoTime() - start);
+            refreshLease.fencedWithoutTransaction(datasetTables::publishStaging);
+            published = true;
+            log.info("Nova versão publicada: {} registros e {} geradoras", staged, generators);
+            return importResult;
+        } finally {
+            if (!published) {
+                discardStaging();
+            }
+        }
+    }
+
+    /**
+     * Restaura a versão publicada antes da última troca. A versão substituída passa a ser a
+     * anterior, então uma segunda chamada desfaz a primeira. Os metadados do download não mudam:
+     * a versão restaurada fica publicada até a ANEEL publicar um arquivo diferente.
+     *
+     * <p>Roda com o lease da atualização e nunca junto com uma atualização desta instância, cuja
+     * publicação descarta a versão anterior.
+     */
+    public void rollback() {
+        if (!datasetTables.isSupported()) {
+            throw new RalieDownloadException("Restauração de versão disponível apenas com o banco MySQL");
+        }
+        refreshCoordinator.runAlone(() -> refreshLease.runExclusive(() -> {
+            if (!datasetTables.hasPrevious()) {
+                throw new RalieDownloadException("Nenhuma versão anterior disponível para restauração");
+            }
+            refreshLease.fencedWithoutTransaction(datasetTables::rollback);
+            log.info("Versão anterior do RALIE restaurada");
+        }));
+    }
+
+    private boolean useSwap() {
+        if (importProperties.getPublish() != RalieImportProperties.Publish.SWAP) {
+            return false;
+        }
+        if (!datasetTables.isSupported()) {
+            log.warn("Publicação por troca de tabelas disponível apenas no MySQL; gravando direto nas tabelas publicadas");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean useSharding() {
+        if (!importProperties.getSharding().isEnabled()) {
+            return false;
+        }
+        if (importProperties.getMode() != RalieImportProperties.Mode.FULL) {
+            log.warn("Importação distribuída disponível apenas com mode: full; importando nesta instância");
+            return false;
+        }
+        return true;
+    }
+
+    private RalieImportResult publishInPlace(Path file, RalieImportProgress progress) throws IOException {
+        RalieImportResult importResult = csvImportService.importCsv(file, progress);
+        log.info("Importação do CSV concluída com sucesso");
+
+        if (!importResult.hasChanges()) {
+            log.info("Nenhuma linha incluída, alterada ou excluída. Tabela de potência gerada mantida");
+            return importResult;
+        }
+        progress.phase(RalieImportProgress.Phase.PUBLISHING);
+        long start = System.nanoTime();
+        refreshLease.fenced(potenciaGeradaService::processImportedData);
+        importMetrics.aggregation(RalieImportProperties.Publish.IN_PLACE, System.nanoTime() - start);
+        log.info("Processamento dos dados para a tabela de potência gerada concluído");
+        return importResult;
+    }
+
+    private void discardStaging() {
+        try {
+            datasetTables.dropStaging();
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível remover as tabelas de staging: {}", e.getMessage());
+        }
+    }
+}
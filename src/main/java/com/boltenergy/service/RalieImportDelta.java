@@ -0,0 +1,73 @@
+package com.boltenergy.service;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.repository.RalieUsinaCsvImportRepository.RowFingerprint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Estado de uma importação incremental: as linhas já gravadas agrupadas pela chave
+ * {@code CodCEG}/{@code IdeNucleoCEG}. A mesma chave pode aparecer mais de uma vez no RALIE,
+ * por isso cada grupo é um multiconjunto e cada linha gravada é consumida no máximo uma vez.
+ */
+final class RalieImportDelta {
+
+    private final Map<String, List<RowFingerprint>> storedByKey = new HashMap<>();
+
+    RalieImportDelta(List<RowFingerprint> storedRows) {
+        for (RowFingerprint row : storedRows) {
+            storedByKey.computeIfAbsent(key(row.getCodCeg(), row.getIdeNucleoCeg()), k -> new ArrayList<>(1)).add(row);
+        }
+    }
+
+    /**
+     * Consome uma linha gravada com a mesma chave e o mesmo hash, se existir.
+     */
+    boolean claimUnchanged(RalieUsinaCsvImportEntity entity) {
+        List<RowFingerprint> candidates = storedByKey.get(key(entity));
+        if (candidates == null) {
+            return false;
+        }
+        for (Iterator<RowFingerprint> iterator = candidates.iterator(); iterator.hasNext(); ) {
+            if (Objects.equals(iterator.next().getRowHash(), entity.getRowHash())) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Consome uma linha gravada com a mesma chave para ser sobrescrita, devolvendo seu id,
+     * ou {@code null} quando a linha é nova.
+     */
+    Long claimReplaced(RalieUsinaCsvImportEntity entity) {
+        List<RowFingerprint> candidates = storedByKey.get(key(entity));
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.remove(candidates.size() - 1).getId();
+    }
+
+    /**
+     * Ids das linhas gravadas que não apareceram no novo arquivo.
+     */
+    List<Long> unclaimedIds() {
+        List<Long> ids = new ArrayList<>();
+        storedByKey.values().forEach(rows -> rows.forEach(row -> ids.add(row.getId())));
+        return ids;
+    }
+
+    private static String key(RalieUsinaCsvImportEntity entity) {
+        return key(entity.getCodCeg(), entity.getIdeNucleoCeg());
+    }
+
+    private static String key(String codCeg, String ideNucleoCeg) {
+        return codCeg + '|' + ideNucleoCeg;
+    }
+}
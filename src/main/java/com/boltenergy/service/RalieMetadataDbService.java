@@ -41,6 +41,13 @@ public class RalieMetadataDbService implements RalieMetadataService {
             metadata.getLastDownloadedFile(),
             metadata.getFileSize()
         );
+        if (metadata.getLastDownloadTime() != null) {
+            // Uma verificação sem arquivo novo mantém o horário do último download
+            entityToSave.setLastDownloadTime(metadata.getLastDownloadTime());
+        }
+        entityToSave.setContentHash(metadata.getContentHash());
+        entityToSave.setDatasetVersion(metadata.getDatasetVersion());
+        entityToSave.setLastCheckTime(metadata.getLastCheckTime());
         
         this.currentMetadata = metadataRepository.save(entityToSave);
     }
@@ -52,6 +59,9 @@ public class RalieMetadataDbService implements RalieMetadataService {
         dto.setLastDownloadedFile(entity.getLastDownloadedFile());
         dto.setLastDownloadTime(entity.getLastDownloadTime());
         dto.setFileSize(entity.getFileSize());
+        dto.setContentHash(entity.getContentHash());
+        dto.setDatasetVersion(entity.getDatasetVersion());
+        dto.setLastCheckTime(entity.getLastCheckTime());
         return dto;
     }
 }
@@ -1,69 +1,64 @@
 package com.boltenergy.service;
 
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieImportCancelledException;
+import com.boltenergy.exception.RalieLeaseException;
+import com.boltenergy.model.RalieImportResult;
 import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.repository.RalieUsinaCsvImportLoadDataWriter;
 import com.boltenergy.repository.RalieUsinaCsvImportRepository;
+import com.boltenergy.service.csv.CommonsCsvRecordReader;
+import com.boltenergy.service.csv.RalieBindingPlan;
+import com.boltenergy.service.csv.RalieCsvCharset;
+import com.boltenergy.service.csv.RalieCsvTokenizer;
+import com.boltenergy.service.csv.RalieParallelCsvParser;
+import com.boltenergy.service.csv.RalieRecord;
+import com.boltenergy.service.csv.RalieRecordException;
+import com.boltenergy.service.csv.RalieRecordReader;
+import com.boltenergy.service.csv.RalieRowHash;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.pipeline.RalieBatchSizer;
+import com.boltenergy.service.pipeline.RalieHeapUsage;
+import com.boltenergy.service.pipeline.RalieImportPipeline;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RalieUsinaCsvImportService {
 
-    private final RalieUsinaCsvImportRepository repository;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
 
-    private String fixEncoding(String text) {
-        if (text == null) return null;
-        
-        if (isValidUtf8(text)) {
-            return text;
-        }
-        
-        try {
-            byte[] bytes = text.getBytes("ISO-8859-1");
-            String converted = new String(bytes, "UTF-8");
-            if (isValidUtf8(converted)) {
-                return converted;
-            }
-        } catch (Exception e) {
-            log.debug("Não foi possível converter de ISO-8859-1: {}", e.getMessage());
-        }
-        
-        try {
-            byte[] bytes = text.getBytes("Windows-1252");
-            String converted = new String(bytes, "UTF-8");
-            if (isValidUtf8(converted)) {
-                return converted;
-            }
-        } catch (Exception e) {
-            log.debug("Não foi possível converter de Windows-1252: {}", e.getMessage());
-        }
-        
-        log.warn("Não foi possível determinar a codificação correta para o texto: {}", text);
-        return text;
-    }
-    
-    private boolean isValidUtf8(String text) {
-        try {
-            byte[] bytes = text.getBytes("UTF-8");
-            String decoded = new String(bytes, "UTF-8");
-            return text.equals(decoded);
-        } catch (Exception e) {
-            return false;
-        }
-    }
+    private final RalieUsinaCsvImportRepository repository;
+    private final RalieUsinaCsvImportBulkWriter bulkWriter;
+    private final RalieUsinaCsvImportLoadDataWriter loadDataWriter;
+    private final RalieImportProperties importProperties;
+    private final RalieBatchSizer batchSizer;
+    private final EntityManager entityManager;
+    private final RalieRefreshLease refreshLease;
 
     @Transactional
     public void deleteAll() {
@@ -82,173 +77,400 @@ public class RalieUsinaCsvImportService {
     }
     
     @Transactional
-    public void importCsv(String csvContent) throws IOException {
+    public RalieImportResult importCsv(String csvContent) throws IOException {
         if (csvContent == null || csvContent.trim().isEmpty()) {
             throw new IllegalArgumentException("O conteúdo do CSV não pode ser nulo ou vazio");
         }
         
-        deleteAll();
-        String fixedContent = fixEncoding(csvContent);
-        log.info("Iniciando importação do CSV para a tabela de importação");
+        return importCsv(new StringReader(csvContent));
+    }
+    
+    @Transactional
+    public RalieImportResult importCsv(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("O fluxo de entrada do CSV não pode ser nulo");
+        }
         
-        try (CSVParser parser = new CSVParser(
-                new StringReader(fixedContent),
-                CSVFormat.DEFAULT.builder()
-                    .setDelimiter(';')
-                    .setHeader()
-                    .setSkipHeaderRecord(true)
-                    .setIgnoreHeaderCase(true)
-                    .setTrim(true)
-                    .build())) {
-            
-            // Verifica se o CSV tem cabeçalhos
-            if (parser.getHeaderMap().isEmpty()) {
-                throw new IllegalArgumentException("O arquivo CSV não contém cabeçalhos válidos");
+        return importRecords(openReader(inputStream), null, RalieImportProgress.untracked());
+    }
+    
+    /**
+     * Importa o arquivo baixado. Com {@code ralie.import.parallelism} maior que 1 e o parser
+     * {@code tokenizer}, o arquivo é lido em blocos paralelos; a gravação segue na ordem do arquivo.
+     */
+    @Transactional
+    public RalieImportResult importCsv(Path file) throws IOException {
+        return importFile(file, null, RalieImportProgress.untracked());
+    }
+    
+    /**
+     * Como {@link #importCsv(Path)}, contando os registros lidos e gravados em {@code progress} e
+     * parando no registro seguinte a um cancelamento, o que desfaz a transação. Durante uma
+     * atualização com lease, a transação termina por {@link RalieRefreshLease#checkHeld()}.
+     */
+    @Transactional
+    public RalieImportResult importCsv(Path file, RalieImportProgress progress) throws IOException {
+        return importFile(file, null, progress);
+    }
+    
+    /**
+     * Importa o arquivo baixado na tabela de staging ({@link RalieDatasetTables#staging(String)}),
+     * preparada antes por {@link RalieDatasetTables#prepareStaging(boolean)}. A tabela publicada
+     * não é alterada: no modo delta ela só fornece as impressões digitais, e a de staging parte
+     * de uma cópia dela. Cada lote é confirmado ao ser gravado, sem uma transação única sobre a
+     * carga inteira; a gravação usa JDBC, ou {@code load-data} quando configurado e disponível.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RalieImportResult importCsvToStaging(Path file) throws IOException {
+        return importCsvToStaging(file, RalieImportProgress.untracked());
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RalieImportResult importCsvToStaging(Path file, RalieImportProgress progress) throws IOException {
+        return importFile(file, RalieDatasetTables.staging(RalieDatasetTables.IMPORT_TABLE), progress);
+    }
+    
+    @Transactional
+    public RalieImportResult importCsv(Reader reader) throws IOException {
+        return importRecords(reader, null, RalieImportProgress.untracked());
+    }
+    
+    private RalieImportResult importFile(Path file, String stagingTable, RalieImportProgress progress) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("O caminho do arquivo CSV não pode ser nulo");
+        }
+        
+        if (!useParallelParser(file)) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                return importRecords(openReader(inputStream), stagingTable, progress);
             }
+        }
+        
+        ImportWriter writer = new ImportWriter(stagingTable, progress);
+        try (writer; RalieParallelCsvParser parser = RalieParallelCsvParser.open(file,
+                importProperties.getParallelism(), (int) importProperties.getChunkSize().toBytes())) {
+            log.info("Importando CSV em {} blocos com {} threads e a codificação {}",
+                    parser.chunkCount(), importProperties.getParallelism(), parser.charset());
             
-            int batchSize = 10000;
-            int count = 0;
-            List<RalieUsinaCsvImportEntity> batchImport = new ArrayList<>(batchSize);
+            RalieBindingPlan bindingPlan = compileBindingPlan(parser.header());
+            writer.run(() -> parser.forEachChunk(bindingPlan, chunk -> {
+                for (RalieUsinaCsvImportEntity entity : chunk.entities()) {
+                    progress.checkCancelled();
+                    writer.write(entity);
+                }
+            }));
+            reportParseFailures(bindingPlan, progress);
+            return writer.finish();
+        } catch (RalieRecordException e) {
+            throw recordError(e.getRecordNumber(), (Exception) e.getCause());
+        } catch (IOException | RalieImportCancelledException | RalieLeaseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Erro ao processar o arquivo CSV: " + e.getMessage(), e);
+        }
+    }
+    
+    private RalieImportResult importRecords(Reader reader, String stagingTable, RalieImportProgress progress)
+            throws IOException {
+        ImportWriter writer = new ImportWriter(stagingTable, progress);
+        try (writer; RalieRecordReader records = openRecordReader(reader)) {
+            RalieBindingPlan bindingPlan = compileBindingPlan(records.header());
+            RalieRowHash rowHash = new RalieRowHash(records.header());
             
-            for (CSVRecord record : parser) {
-                try {
+            writer.run(() -> {
+                while (records.next()) {
+                    RalieRecord record = records.current();
+                    progress.checkCancelled();
                     RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
-                    mapRecordToEntity(record, entity);
-                    batchImport.add(entity);
-                    count++;
-                    
-                    if (batchImport.size() >= batchSize) {
-                        repository.saveAllAndFlush(batchImport);
-                        batchImport.clear();
-                        log.info("Registros processados: {}", count);
+                    try {
+                        bindingPlan.bind(record, entity);
+                        entity.setRowHash(rowHash.hash(record));
+                    } catch (Exception e) {
+                        throw recordError(record.recordNumber(), e);
                     }
-                } catch (Exception e) {
-                    throw new IOException("Erro ao processar a linha " + record.getRecordNumber() + 
-                                       " do CSV: " + e.getMessage(), e);
+                    writer.write(entity);
                 }
-            }
-            
-            if (!batchImport.isEmpty()) {
-                repository.saveAllAndFlush(batchImport);
-            }
-            
-            log.info("Importação concluída. Total de registros importados: {}", count);
-        } catch (IOException e) {
+            });
+            reportParseFailures(bindingPlan, progress);
+            return writer.finish();
+        } catch (IOException | RalieImportCancelledException | RalieLeaseException e) {
             throw e;
         } catch (Exception e) {
             throw new IOException("Erro ao processar o arquivo CSV: " + e.getMessage(), e);
         }
     }
     
-    private void mapRecordToEntity(CSVRecord record, RalieUsinaCsvImportEntity entity) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static Reader openReader(InputStream inputStream) throws IOException {
+        InputStreamReader reader = RalieCsvCharset.openReader(inputStream);
+        log.info("Importando CSV em streaming com a codificação {}", reader.getEncoding());
+        return new BufferedReader(reader, READ_BUFFER_SIZE);
+    }
+    
+    private boolean useParallelParser(Path file) throws IOException {
+        return importProperties.getParallelism() > 1
+                && importProperties.getParser() == RalieImportProperties.Parser.TOKENIZER
+                && Files.size(file) <= RalieParallelCsvParser.MAX_FILE_SIZE;
+    }
+    
+    private RalieBindingPlan compileBindingPlan(List<String> header) {
+        // Verifica se o CSV tem cabeçalhos
+        if (header.isEmpty()) {
+            throw new IllegalArgumentException("O arquivo CSV não contém cabeçalhos válidos");
+        }
+        return RalieBindingPlan.compile(header);
+    }
+    
+    private static void reportParseFailures(RalieBindingPlan bindingPlan, RalieImportProgress progress) {
+        Map<String, Long> failures = bindingPlan.parseFailures();
+        if (!failures.isEmpty()) {
+            log.warn("Valores inválidos gravados como nulos, por coluna: {}", failures);
+            progress.addParseFailures(failures);
+        }
+    }
+    
+    private static IOException recordError(long recordNumber, Exception e) {
+        return new IOException("Erro ao processar a linha " + recordNumber + 
+                           " do CSV: " + e.getMessage(), e);
+    }
+    
+    private RalieRecordReader openRecordReader(Reader reader) throws IOException {
+        if (importProperties.getParser() == RalieImportProperties.Parser.COMMONS) {
+            return new CommonsCsvRecordReader(reader);
+        }
+        return new RalieCsvTokenizer(reader);
+    }
+    
+    /**
+     * Leitura do arquivo executada em {@link ImportWriter#run(Reading)}, que entrega cada entidade
+     * mapeada a {@link ImportWriter#write(RalieUsinaCsvImportEntity)}.
+     */
+    @FunctionalInterface
+    private interface Reading {
+        void read() throws Exception;
+    }
+    
+    /**
+     * Lote pronto para gravação, com o número do seu primeiro registro para as mensagens de erro.
+     */
+    private record Batch(long firstRecordNumber, List<RalieUsinaCsvImportEntity> entities) {
+    }
+    
+    /**
+     * Grava as entidades mapeadas na ordem do arquivo, em lotes, aplicando o modo de importação.
+     * Com o engine {@code load-data}, as linhas novas vão para o arquivo intermediário e são
+     * carregadas de uma vez no fim; as alterações do modo delta seguem em lotes JDBC. Com uma
+     * tabela de staging, a gravação vai para ela e a tabela publicada não é alterada.
+     *
+     * <p>A classificação das linhas (modo delta, arquivo intermediário) acompanha a leitura; os
+     * lotes prontos são gravados pelo {@link RalieImportPipeline}, em paralelo com a leitura dos
+     * registros seguintes, quando {@code ralie.import.pipeline.enabled}.
+     *
+     * <p>Pelo repositório JPA, o contexto de persistência é limpo depois de cada lote. Sem isso,
+     * cada entidade gravada e a cópia que o Hibernate guarda para detectar alterações ficariam
+     * no cache de primeiro nível até o fim da transação, e o heap cresceria com o arquivo. O
+     * heap após a coleta de lixo é medido a cada lote e informado no fim da importação.
+     */
+    private final class ImportWriter implements Closeable {
         
-        setIfExists(record, "DatGeracaoConjuntoDados", v -> entity.setDatGeracaoConjuntoDados(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatRalie", v -> entity.setDatRalie(parseDate(v, dateFormatter)));
-        setIfExists(record, "IdeNucleoCEG", entity::setIdeNucleoCeg);
-        setIfExists(record, "CodCEG", entity::setCodCeg);
-        setIfExists(record, "SigUFPrincipal", entity::setSigUfPrincipal);
-        setIfExists(record, "DscOrigemCombustivel", entity::setDscOrigemCombustivel);
-        setIfExists(record, "SigTipoGeracao", entity::setSigTipoGeracao);
-        setIfExists(record, "NomEmpreendimento", entity::setNomEmpreendimento);
-        setIfExists(record, "MdaPotenciaOutorgadaKw", v -> entity.setMdaPotenciaOutorgadaKw(parseDouble(v)));
-        setIfExists(record, "DscPropriRegimePariticipacao", entity::setDscPropriRegimePariticipacao);
-        setIfExists(record, "DscTipoConexao", entity::setDscTipoConexao);
-        setIfExists(record, "NomConexao", entity::setNomConexao);
-        setIfExists(record, "MdaTensaoConexao", entity::setMdaTensaoConexao);
-        setIfExists(record, "NomEmpresaConexao", entity::setNomEmpresaConexao);
-        setIfExists(record, "NumCnpjEmpresaConexao", entity::setNumCnpjEmpresaConexao);
-        setIfExists(record, "DscViabilidade", entity::setDscViabilidade);
-        setIfExists(record, "DscSituacaoObra", entity::setDscSituacaoObra);
+        private final String stagingTable;
+        private final RalieImportProgress progress;
+        private final RalieImportDelta delta;
+        private final RalieImportProperties.Engine engine;
+        private final RalieUsinaCsvImportLoadDataWriter.LoadFile loadFile;
+        private final LocalDateTime importTime = LocalDateTime.now();
+        private List<RalieUsinaCsvImportEntity> batchImport = new ArrayList<>(batchSizer.size());
+        private RalieImportPipeline.Sink<Batch> batches = this::flush;
+        private long count;
+        private long inserted;
+        private long updated;
+        private long deleted;
+        private long unchanged;
+        private LocalDate datasetVersion;
+        private final long initialHeapAfterGc = RalieHeapUsage.afterLastGc();
+        private volatile long maxHeapAfterGc = initialHeapAfterGc;
         
-
-        setIfExists(record, "DatPrevisaoInicioObra", v -> entity.setDatPrevisaoInicioObra(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatContratoEPCOutorgado", v -> entity.setDatContratoEpcOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatRecursoFinanceiroOutorgado", v -> entity.setDatRecursoFinanceiroOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatCanteiroObraOutorgado", v -> entity.setDatCanteiroObraOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatCanteiroObraRealizado", v -> entity.setDatCanteiroObraRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatInicioObraOutorgado", v -> entity.setDatInicioObraOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatInicioObraRealizado", v -> entity.setDatInicioObraRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatConcretagemOutorgado", v -> entity.setDatConcretagemOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatConcretagemRealizado", v -> entity.setDatConcretagemRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatDesvioRioOutorgado", v -> entity.setDatDesvioRioOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatDesvioRioRealizado", v -> entity.setDatDesvioRioRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatMontagemOutorgado", v -> entity.setDatMontagemOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatMontagemRealizado", v -> entity.setDatMontagemRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatConclusaoTorresOutorgado", v -> entity.setDatConclusaoTorresOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatConclusaoTorresRealizado", v -> entity.setDatConclusaoTorresRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatEnchimentoOutorgado", v -> entity.setDatEnchimentoOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatEnchimentoRealizado", v -> entity.setDatEnchimentoRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatComissionamentoUGRealizado", v -> entity.setDatComissionamentoUgRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatSisTransmissaoOutorgado", v -> entity.setDatSisTransmissaoOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatSisTransmissaoRealizado", v -> entity.setDatSisTransmissaoRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatConclusaoSisTransOutorgado", v -> entity.setDatConclusaoSisTransOutorgado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatConclusaoSisTransRealizado", v -> entity.setDatConclusaoSisTransRealizado(parseDate(v, dateFormatter)));
+        ImportWriter(String stagingTable, RalieImportProgress progress) throws IOException {
+            this.stagingTable = stagingTable;
+            this.progress = progress;
+            RalieImportProperties.Engine configured = importProperties.getEngine();
+            if (configured == RalieImportProperties.Engine.LOAD_DATA && !loadDataWriter.isSupported()) {
+                log.warn("LOAD DATA LOCAL INFILE disponível apenas no MySQL; importando pelo repositório JPA");
+                configured = RalieImportProperties.Engine.JPA;
+            }
+            if (stagingTable != null && configured == RalieImportProperties.Engine.JPA) {
+                // A entidade JPA está mapeada para a tabela publicada
+                configured = RalieImportProperties.Engine.JDBC;
+            }
+            engine = configured;
+            String target = stagingTable != null ? stagingTable : "a tabela de importação";
+            
+            if (importProperties.getMode() == RalieImportProperties.Mode.DELTA) {
+                delta = new RalieImportDelta(repository.findAllFingerprints());
+                log.info("Iniciando importação incremental do CSV para {}", target);
+            } else {
+                delta = null;
+                if (stagingTable == null) {
+                    // No staging, as excluídas são contadas pelo RalieDatasetPublisher antes da troca
+                    deleted = repository.count();
+                    deleteAll();
+                }
+                log.info("Iniciando importação do CSV para {}", target);
+            }
+            loadFile = engine == RalieImportProperties.Engine.LOAD_DATA ? loadDataWriter.open() : null;
+        }
         
-        setIfExists(record, "DscJustificativaPrevisao", entity::setDscJustificativaPrevisao);
-        setIfExists(record, "DscComercializacaoEnergia", entity::setDscComercializacaoEnergia);
-        setIfExists(record, "DscSistema", entity::setDscSistema);
-        setIfExists(record, "DatConclusaoTransporteRealizado", v -> entity.setDatConclusaoTransporteRealizado(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSituacaoCronograma", entity::setDscSituacaoCronograma);
-        setIfExists(record, "DatRapeel", v -> entity.setDatRapeel(parseDate(v, dateFormatter)));
-        setIfExists(record, "IdcComplexo", entity::setIdcComplexo);
-        setIfExists(record, "NomComplexo", entity::setNomComplexo);
-        setIfExists(record, "DatEmissaoLP", v -> entity.setDatEmissaoLp(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatValidadeLP", v -> entity.setDatValidadeLp(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSituacaoLP", entity::setDscSituacaoLp);
-        setIfExists(record, "DatEmissaoLI", v -> entity.setDatEmissaoLi(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatValidadeLI", v -> entity.setDatValidadeLi(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSituacaoLI", entity::setDscSituacaoLi);
-        setIfExists(record, "DatSolicitacaoLO", v -> entity.setDatSolicitacaoLo(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatPrevistaEmissaoLO", v -> entity.setDatPrevistaEmissaoLo(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatPrevMaxEmissaoLO", v -> entity.setDatPrevMaxEmissaoLo(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatEmissaoLO", v -> entity.setDatEmissaoLo(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatValidadeLO", v -> entity.setDatValidadeLo(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSituacaoLO", entity::setDscSituacaoLo);
-        setIfExists(record, "NomSituacaoParAcesso", entity::setNomSituacaoParAcesso);
-        setIfExists(record, "DatSolicitacaoParAcesso", v -> entity.setDatSolicitacaoParAcesso(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatEmissaoParAcesso", v -> entity.setDatEmissaoParAcesso(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSitCCD", entity::setDscSitCcd);
-        setIfExists(record, "DatValidadeCCD", v -> entity.setDatValidadeCcd(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatAssinaturaCCD", v -> entity.setDatAssinaturaCcd(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSitCCT", entity::setDscSitCct);
-        setIfExists(record, "DatValidadeCCT", v -> entity.setDatValidadeCct(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatAssinaturaCCT", v -> entity.setDatAssinaturaCct(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSituacaoCUSD", entity::setDscSituacaoCusd);
-        setIfExists(record, "DatValidadeCUSD", v -> entity.setDatValidadeCusd(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatAssinaturaCUSD", v -> entity.setDatAssinaturaCusd(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscSitCUST", entity::setDscSitCust);
-        setIfExists(record, "DatValidadeCUST", v -> entity.setDatValidadeCust(parseDate(v, dateFormatter)));
-        setIfExists(record, "DatAssinaturaCUST", v -> entity.setDatAssinaturaCust(parseDate(v, dateFormatter)));
-        setIfExists(record, "DscAtoOutorga", entity::setDscAtoOutorga);
-        setIfExists(record, "DscNumeroAto", entity::setDscNumeroAto);
-        setIfExists(record, "NomOrgaoOutorgante", entity::setNomOrgaoOutorgante);
-        setIfExists(record, "DscTipoOutorga", entity::setDscTipoOutorga);
-        setIfExists(record, "DatEmissaoAto", v -> entity.setDatEmissaoAto(parseDate(v, dateFormatter)));
-    }
-    
-    private void setIfExists(CSVRecord record, String column, java.util.function.Consumer<String> setter) {
-        try {
-            if (record.isSet(column)) {
-                String value = record.get(column);
-                if (value != null && !value.trim().isEmpty()) {
-                    String fixedValue = fixEncoding(value);
-                    setter.accept(fixedValue);
+        /**
+         * Executa a leitura e grava os lotes que ela monta. Retorna com todos os lotes gravados.
+         */
+        void run(Reading reading) throws Exception {
+            RalieImportProperties.Pipeline settings = importProperties.getPipeline();
+            if (!settings.isEnabled()) {
+                reading.read();
+                emit();
+                return;
+            }
+            
+            int writers = settings.getWriters();
+            if (writers > 1 && stagingTable == null) {
+                // Fora do staging, a gravação participa da transação da importação, presa a esta thread
+                writers = 1;
+            }
+            RalieImportPipeline<Batch> pipeline = new RalieImportPipeline<>(settings.getQueueCapacity(), writers);
+            progress.pipeline(pipeline);
+            try {
+                pipeline.run(sink -> {
+                    batches = sink;
+                    reading.read();
+                    emit();
+                }, this::flush);
+            } finally {
+                log.info("Pipeline da importação: {}; lotes de {} registros ao final", pipeline.snapshot(), batchSizer.size());
+            }
+        }
+        
+        void write(RalieUsinaCsvImportEntity entity) throws IOException {
+            progress.addRowParsed();
+            count++;
+            if (datasetVersion == null) {
+                datasetVersion = entity.getDatGeracaoConjuntoDados();
+            }
+            
+            if (delta != null) {
+                if (delta.claimUnchanged(entity)) {
+                    unchanged++;
+                    return;
+                }
+                Long replacedId = delta.claimReplaced(entity);
+                if (replacedId != null) {
+                    entity.setId(replacedId);
+                    entity.setDataImportacao(importTime);
+                    updated++;
+                } else {
+                    inserted++;
+                }
+            } else {
+                inserted++;
+            }
+            if (loadFile != null && entity.getId() == null) {
+                loadFile.append(entity);
+                return;
+            }
+            batchImport.add(entity);
+            
+            if (batchImport.size() >= batchSizer.size()) {
+                emit();
+                log.info("Registros processados: {}", count);
+            }
+        }
+        
+        RalieImportResult finish() throws IOException {
+            if (loadFile != null) {
+                progress.checkCancelled();
+                if (stagingTable != null) {
+                    loadDataWriter.load(stagingTable, loadFile);
+                } else {
+                    loadDataWriter.load(loadFile);
                 }
+                progress.addRowsWritten(loadFile.rows());
             }
-        } catch (IllegalArgumentException e) {
-            log.warn("Coluna não encontrada no registro: {}", column);
+            
+            if (delta != null) {
+                List<Long> removedIds = delta.unclaimedIds();
+                if (!removedIds.isEmpty() && stagingTable != null) {
+                    bulkWriter.deleteAllById(stagingTable, removedIds);
+                } else if (!removedIds.isEmpty()) {
+                    repository.deleteAllByIdInBatch(removedIds);
+                }
+                deleted = removedIds.size();
+                progress.addRowsWritten(deleted);
+                if (datasetVersion != null) {
+                    // A versão do conjunto fica fora do row_hash; as linhas inalteradas a recebem aqui
+                    int stale = stagingTable != null
+                            ? bulkWriter.updateDatasetVersion(stagingTable, datasetVersion)
+                            : bulkWriter.updateDatasetVersion(datasetVersion);
+                    log.debug("Versão do conjunto de dados {} gravada em {} linhas inalteradas", datasetVersion, stale);
+                }
+                log.info("Importação incremental concluída. {} registros: {} incluídos, {} alterados, {} excluídos, {} inalterados",
+                        count, inserted, updated, deleted, unchanged);
+            } else {
+                log.info("Importação concluída. Total de registros importados: {}", count);
+            }
+            log.info("Heap após GC: {} MB no início da importação, máximo de {} MB durante a importação",
+                    initialHeapAfterGc / (1024 * 1024), maxHeapAfterGc / (1024 * 1024));
+            if (stagingTable == null) {
+                // A tabela publicada foi alterada na transação de importCsv; a renovação condicional
+                // bloqueia a linha do lease até o commit, ou desfaz tudo se outra instância o obteve
+                refreshLease.checkHeld();
+            }
+            return new RalieImportResult(count, datasetVersion, inserted, updated, deleted, unchanged);
         }
-    }
-    
-    private LocalDate parseDate(String dateStr, DateTimeFormatter formatter) {
-        if (dateStr == null || dateStr.trim().isEmpty()) {
-            return null;
+        
+        @Override
+        public void close() throws IOException {
+            if (loadFile != null) {
+                loadFile.close();
+            }
         }
-        try {
-            return LocalDate.parse(dateStr, formatter);
-        } catch (Exception e) {
-            return null;
+        
+        private void emit() throws IOException {
+            if (batchImport.isEmpty()) {
+                return;
+            }
+            // O lote segue para a gravação; os próximos registros vão para uma nova lista
+            Batch batch = new Batch(count - batchImport.size() + 1, batchImport);
+            batchImport = new ArrayList<>(batchSizer.size());
+            batches.accept(batch);
+        }
+        
+        private void flush(Batch batch) throws IOException {
+            progress.checkCancelled();
+            List<RalieUsinaCsvImportEntity> entities = batch.entities();
+            long start = System.nanoTime();
+            try {
+                if (stagingTable != null) {
+                    bulkWriter.saveAll(stagingTable, entities);
+                } else if (engine == RalieImportProperties.Engine.JPA) {
+                    repository.saveAllAndFlush(entities);
+                    // As entidades já estão no banco; mantê-las no contexto só ocupa o heap
+                    entityManager.clear();
+                } else {
+                    bulkWriter.saveAll(entities);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException(String.format("Erro ao gravar o lote iniciado na linha %d do CSV: %s",
+                        batch.firstRecordNumber(), e.getMessage()), e);
+            }
+            batchSizer.record(engine, entities.size(), System.nanoTime() - start);
+            progress.addRowsWritten(entities.size());
+            recordHeapAfterGc();
+        }
+        
+        private synchronized void recordHeapAfterGc() {
+            long heapAfterGc = RalieHeapUsage.afterLastGc();
+            progress.heapAfterGc(heapAfterGc);
+            if (heapAfterGc > maxHeapAfterGc) {
+                maxHeapAfterGc = heapAfterGc;
+            }
         }
     }
     
@@ -257,15 +479,4 @@ public class RalieUsinaCsvImportService {
                entity.getCodCeg() != null ||
                entity.getIdeNucleoCeg() != null;
     }
-    
-    private Double parseDouble(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return null;
-        }
-        try {
-            return Double.parseDouble(value.replace(",", "."));
-        } catch (Exception e) {
-            return null;
-        }
-    }
 }
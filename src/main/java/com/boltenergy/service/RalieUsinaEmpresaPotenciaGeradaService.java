@@ -1,8 +1,12 @@
 package com.boltenergy.service;
 
+import com.boltenergy.config.RalieImportProperties;
 import com.boltenergy.model.entity.RalieUsinaEmpresaPotenciaGeradaEntity;
+import com.boltenergy.repository.RalieDatasetTables;
 import com.boltenergy.repository.RalieUsinaCsvImportRepository;
 import com.boltenergy.repository.RalieUsinaEmpresaPotenciaGeradaRepository;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +20,10 @@ import java.util.*;
 public class RalieUsinaEmpresaPotenciaGeradaService {
     private final RalieUsinaEmpresaPotenciaGeradaRepository repository;
     private final RalieUsinaCsvImportRepository csvImportRepository;
+    private final RalieDatasetTables datasetTables;
+    private final RalieImportProperties importProperties;
+    private final RalieRefreshCoordinator refreshCoordinator;
+    private final RalieRefreshLease refreshLease;
     
     @Transactional
     public void processImportedData() {
@@ -81,21 +89,37 @@ public class RalieUsinaEmpresaPotenciaGeradaService {
         return repository.findTop5ByOrderByPotenciaDesc();
     }
     
-    @Transactional(rollbackFor = Exception.class)
+    /**
+     * Recalcula a tabela de maiores geradoras. Com {@code ralie.import.publish: swap} no MySQL, a
+     * nova tabela é montada em staging e trocada por {@code RENAME TABLE}, sem deixar a tabela
+     * publicada vazia durante o processamento.
+     *
+     * <p>Como uma atualização, roda com o lease e nunca junto com uma atualização desta
+     * instância, que usa a mesma tabela de staging; com uma em andamento, lança
+     * {@link com.boltenergy.exception.RalieDownloadException}.
+     */
     public void processLargestGeneratorsTable() {
+        refreshCoordinator.runAlone(() -> refreshLease.runExclusive(this::rebuildLargestGeneratorsTable));
+    }
+    
+    private void rebuildLargestGeneratorsTable() {
         log.info("Iniciando processamento da tabela de maiores geradoras");
         
-        log.info("Limpando tabela de potência gerada");
-        repository.deleteAll();
-        
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (importProperties.getPublish() == RalieImportProperties.Publish.SWAP && datasetTables.isSupported()) {
+            datasetTables.prepareGeneratorsStaging();
+            int generators = datasetTables.aggregateGeneratorsStaging(RalieDatasetTables.IMPORT_TABLE);
+            refreshLease.fencedWithoutTransaction(datasetTables::publishGeneratorsStaging);
+            log.info("Processamento da tabela de maiores geradoras concluído com sucesso. {} geradoras publicadas", generators);
+            return;
         }
         
-        log.info("Processando novos dados de potência gerada");
-        repository.processDataTableLargestGenerators();
+        refreshLease.fenced(() -> {
+            log.info("Limpando tabela de potência gerada");
+            repository.deleteAll();
+            
+            log.info("Processando novos dados de potência gerada");
+            repository.processDataTableLargestGenerators();
+        });
         
         log.info("Processamento da tabela de maiores geradoras concluído com sucesso");
     }
@@ -0,0 +1,114 @@
+package com.boltenergy.service.csv;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Leitura do CSV do RALIE com o Commons CSV, exposta como {@link RalieRecord} para que o
+ * mapeamento seja o mesmo do {@link RalieCsvTokenizer}.
+ */
+public final class CommonsCsvRecordReader implements RalieRecordReader, RalieRecord {
+
+    private final CSVParser parser;
+    private final Iterator<CSVRecord> records;
+
+    private char[] chars = new char[4096];
+    private int[] starts = new int[128];
+    private int[] ends = new int[128];
+    private int fieldCount;
+    private long recordNumber;
+
+    public CommonsCsvRecordReader(Reader reader) throws IOException {
+        this.parser = new CSVParser(
+                reader,
+                CSVFormat.DEFAULT.builder()
+                    .setDelimiter(';')
+                    .setHeader()
+                    .setSkipHeaderRecord(true)
+                    .setIgnoreHeaderCase(true)
+                    .setTrim(true)
+                    .build());
+        this.records = parser.iterator();
+    }
+
+    @Override
+    public List<String> header() {
+        return parser.getHeaderNames();
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        try {
+            if (!records.hasNext()) {
+                return false;
+            }
+            load(records.next());
+            return true;
+        } catch (IllegalStateException e) {
+            // O Commons CSV encapsula erros de leitura em IllegalStateException no iterador
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public RalieRecord current() {
+        return this;
+    }
+
+    @Override
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+
+    @Override
+    public char[] chars() {
+        return chars;
+    }
+
+    @Override
+    public int start(int field) {
+        return starts[field];
+    }
+
+    @Override
+    public int end(int field) {
+        return ends[field];
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void load(CSVRecord record) {
+        recordNumber = record.getRecordNumber();
+        fieldCount = record.size();
+        if (fieldCount > starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount);
+            ends = Arrays.copyOf(ends, fieldCount);
+        }
+        int position = 0;
+        for (int i = 0; i < fieldCount; i++) {
+            String value = record.get(i);
+            if (position + value.length() > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, position + value.length()));
+            }
+            value.getChars(0, value.length(), chars, position);
+            starts[i] = position;
+            position += value.length();
+            ends[i] = position;
+        }
+    }
+}
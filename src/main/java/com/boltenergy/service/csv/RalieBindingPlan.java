@@ -0,0 +1,238 @@
+package com.boltenergy.service.csv;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Associação entre as colunas do CSV do RALIE e os campos de {@link RalieUsinaCsvImportEntity},
+ * resolvida uma única vez a partir do cabeçalho de cada arquivo. Cada linha é mapeada com um
+ * laço por índice de coluna, sem consultas por nome; datas e decimais são lidos direto das
+ * fatias do {@link RalieRecord}, e só os valores gravados na entidade são alocados.
+ *
+ * <p>Datas e decimais inválidos ficam nulos na entidade e são contados por coluna em
+ * {@link #parseFailures()}, somando todas as cópias do plano.
+ */
+@Slf4j
+public final class RalieBindingPlan {
+
+    private static final Map<String, ColumnBinding> BINDINGS = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        date("DatGeracaoConjuntoDados", RalieUsinaCsvImportEntity::setDatGeracaoConjuntoDados);
+        date("DatRalie", RalieUsinaCsvImportEntity::setDatRalie);
+        text("IdeNucleoCEG", RalieUsinaCsvImportEntity::setIdeNucleoCeg);
+        text("CodCEG", RalieUsinaCsvImportEntity::setCodCeg);
+        text("SigUFPrincipal", RalieUsinaCsvImportEntity::setSigUfPrincipal);
+        text("DscOrigemCombustivel", RalieUsinaCsvImportEntity::setDscOrigemCombustivel);
+        text("SigTipoGeracao", RalieUsinaCsvImportEntity::setSigTipoGeracao);
+        text("NomEmpreendimento", RalieUsinaCsvImportEntity::setNomEmpreendimento);
+        decimal("MdaPotenciaOutorgadaKw", RalieUsinaCsvImportEntity::setMdaPotenciaOutorgadaKw);
+        text("DscPropriRegimePariticipacao", RalieUsinaCsvImportEntity::setDscPropriRegimePariticipacao);
+        text("DscTipoConexao", RalieUsinaCsvImportEntity::setDscTipoConexao);
+        text("NomConexao", RalieUsinaCsvImportEntity::setNomConexao);
+        text("MdaTensaoConexao", RalieUsinaCsvImportEntity::setMdaTensaoConexao);
+        text("NomEmpresaConexao", RalieUsinaCsvImportEntity::setNomEmpresaConexao);
+        text("NumCnpjEmpresaConexao", RalieUsinaCsvImportEntity::setNumCnpjEmpresaConexao);
+        text("DscViabilidade", RalieUsinaCsvImportEntity::setDscViabilidade);
+        text("DscSituacaoObra", RalieUsinaCsvImportEntity::setDscSituacaoObra);
+        date("DatPrevisaoInicioObra", RalieUsinaCsvImportEntity::setDatPrevisaoInicioObra);
+        date("DatContratoEPCOutorgado", RalieUsinaCsvImportEntity::setDatContratoEpcOutorgado);
+        date("DatRecursoFinanceiroOutorgado", RalieUsinaCsvImportEntity::setDatRecursoFinanceiroOutorgado);
+        date("DatCanteiroObraOutorgado", RalieUsinaCsvImportEntity::setDatCanteiroObraOutorgado);
+        date("DatCanteiroObraRealizado", RalieUsinaCsvImportEntity::setDatCanteiroObraRealizado);
+        date("DatInicioObraOutorgado", RalieUsinaCsvImportEntity::setDatInicioObraOutorgado);
+        date("DatInicioObraRealizado", RalieUsinaCsvImportEntity::setDatInicioObraRealizado);
+        date("DatConcretagemOutorgado", RalieUsinaCsvImportEntity::setDatConcretagemOutorgado);
+        date("DatConcretagemRealizado", RalieUsinaCsvImportEntity::setDatConcretagemRealizado);
+        date("DatDesvioRioOutorgado", RalieUsinaCsvImportEntity::setDatDesvioRioOutorgado);
+        date("DatDesvioRioRealizado", RalieUsinaCsvImportEntity::setDatDesvioRioRealizado);
+        date("DatMontagemOutorgado", RalieUsinaCsvImportEntity::setDatMontagemOutorgado);
+        date("DatMontagemRealizado", RalieUsinaCsvImportEntity::setDatMontagemRealizado);
+        date("DatConclusaoTorresOutorgado", RalieUsinaCsvImportEntity::setDatConclusaoTorresOutorgado);
+        date("DatConclusaoTorresRealizado", RalieUsinaCsvImportEntity::setDatConclusaoTorresRealizado);
+        date("DatEnchimentoOutorgado", RalieUsinaCsvImportEntity::setDatEnchimentoOutorgado);
+        date("DatEnchimentoRealizado", RalieUsinaCsvImportEntity::setDatEnchimentoRealizado);
+        date("DatComissionamentoUGRealizado", RalieUsinaCsvImportEntity::setDatComissionamentoUgRealizado);
+        date("DatSisTransmissaoOutorgado", RalieUsinaCsvImportEntity::setDatSisTransmissaoOutorgado);
+        date("DatSisTransmissaoRealizado", RalieUsinaCsvImportEntity::setDatSisTransmissaoRealizado);
+        date("DatConclusaoSisTransOutorgado", RalieUsinaCsvImportEntity::setDatConclusaoSisTransOutorgado);
+        date("DatConclusaoSisTransRealizado", RalieUsinaCsvImportEntity::setDatConclusaoSisTransRealizado);
+        text("DscJustificativaPrevisao", RalieUsinaCsvImportEntity::setDscJustificativaPrevisao);
+        text("DscComercializacaoEnergia", RalieUsinaCsvImportEntity::setDscComercializacaoEnergia);
+        text("DscSistema", RalieUsinaCsvImportEntity::setDscSistema);
+        date("DatConclusaoTransporteRealizado", RalieUsinaCsvImportEntity::setDatConclusaoTransporteRealizado);
+        text("DscSituacaoCronograma", RalieUsinaCsvImportEntity::setDscSituacaoCronograma);
+        date("DatRapeel", RalieUsinaCsvImportEntity::setDatRapeel);
+        text("IdcComplexo", RalieUsinaCsvImportEntity::setIdcComplexo);
+        text("NomComplexo", RalieUsinaCsvImportEntity::setNomComplexo);
+        date("DatEmissaoLP", RalieUsinaCsvImportEntity::setDatEmissaoLp);
+        date("DatValidadeLP", RalieUsinaCsvImportEntity::setDatValidadeLp);
+        text("DscSituacaoLP", RalieUsinaCsvImportEntity::setDscSituacaoLp);
+        date("DatEmissaoLI", RalieUsinaCsvImportEntity::setDatEmissaoLi);
+        date("DatValidadeLI", RalieUsinaCsvImportEntity::setDatValidadeLi);
+        text("DscSituacaoLI", RalieUsinaCsvImportEntity::setDscSituacaoLi);
+        date("DatSolicitacaoLO", RalieUsinaCsvImportEntity::setDatSolicitacaoLo);
+        date("DatPrevistaEmissaoLO", RalieUsinaCsvImportEntity::setDatPrevistaEmissaoLo);
+        date("DatPrevMaxEmissaoLO", RalieUsinaCsvImportEntity::setDatPrevMaxEmissaoLo);
+        date("DatEmissaoLO", RalieUsinaCsvImportEntity::setDatEmissaoLo);
+        date("DatValidadeLO", RalieUsinaCsvImportEntity::setDatValidadeLo);
+        text("DscSituacaoLO", RalieUsinaCsvImportEntity::setDscSituacaoLo);
+        text("NomSituacaoParAcesso", RalieUsinaCsvImportEntity::setNomSituacaoParAcesso);
+        date("DatSolicitacaoParAcesso", RalieUsinaCsvImportEntity::setDatSolicitacaoParAcesso);
+        date("DatEmissaoParAcesso", RalieUsinaCsvImportEntity::setDatEmissaoParAcesso);
+        text("DscSitCCD", RalieUsinaCsvImportEntity::setDscSitCcd);
+        date("DatValidadeCCD", RalieUsinaCsvImportEntity::setDatValidadeCcd);
+        date("DatAssinaturaCCD", RalieUsinaCsvImportEntity::setDatAssinaturaCcd);
+        text("DscSitCCT", RalieUsinaCsvImportEntity::setDscSitCct);
+        date("DatValidadeCCT", RalieUsinaCsvImportEntity::setDatValidadeCct);
+        date("DatAssinaturaCCT", RalieUsinaCsvImportEntity::setDatAssinaturaCct);
+        text("DscSituacaoCUSD", RalieUsinaCsvImportEntity::setDscSituacaoCusd);
+        date("DatValidadeCUSD", RalieUsinaCsvImportEntity::setDatValidadeCusd);
+        date("DatAssinaturaCUSD", RalieUsinaCsvImportEntity::setDatAssinaturaCusd);
+        text("DscSitCUST", RalieUsinaCsvImportEntity::setDscSitCust);
+        date("DatValidadeCUST", RalieUsinaCsvImportEntity::setDatValidadeCust);
+        date("DatAssinaturaCUST", RalieUsinaCsvImportEntity::setDatAssinaturaCust);
+        text("DscAtoOutorga", RalieUsinaCsvImportEntity::setDscAtoOutorga);
+        text("DscNumeroAto", RalieUsinaCsvImportEntity::setDscNumeroAto);
+        text("NomOrgaoOutorgante", RalieUsinaCsvImportEntity::setNomOrgaoOutorgante);
+        text("DscTipoOutorga", RalieUsinaCsvImportEntity::setDscTipoOutorga);
+        date("DatEmissaoAto", RalieUsinaCsvImportEntity::setDatEmissaoAto);
+    }
+
+    private final ColumnBinding[] bindingsByIndex;
+    private final List<String> header;
+    private final AtomicLongArray failuresByIndex;
+    private final RalieFieldParsers parsers = new RalieFieldParsers();
+    private final List<String> missingColumns;
+    private final List<String> unknownColumns;
+
+    private RalieBindingPlan(ColumnBinding[] bindingsByIndex, List<String> header, AtomicLongArray failuresByIndex,
+                             List<String> missingColumns, List<String> unknownColumns) {
+        this.bindingsByIndex = bindingsByIndex;
+        this.header = header;
+        this.failuresByIndex = failuresByIndex;
+        this.missingColumns = missingColumns;
+        this.unknownColumns = unknownColumns;
+    }
+
+    public static RalieBindingPlan compile(List<String> header) {
+        ColumnBinding[] bindingsByIndex = new ColumnBinding[header.size()];
+        Map<String, Boolean> bound = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> unknownColumns = new ArrayList<>();
+
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i);
+            ColumnBinding binding = BINDINGS.get(column);
+            if (binding == null) {
+                unknownColumns.add(column);
+            } else if (bound.putIfAbsent(column, Boolean.TRUE) == null) {
+                bindingsByIndex[i] = binding;
+            }
+        }
+
+        List<String> missingColumns = new ArrayList<>();
+        for (String column : BINDINGS.keySet()) {
+            if (!bound.containsKey(column)) {
+                missingColumns.add(column);
+            }
+        }
+
+        if (!missingColumns.isEmpty()) {
+            log.warn("Colunas esperadas ausentes no CSV ({}): {}", missingColumns.size(), missingColumns);
+        }
+        if (!unknownColumns.isEmpty()) {
+            log.warn("Colunas do CSV sem mapeamento, serão ignoradas ({}): {}", unknownColumns.size(), unknownColumns);
+        }
+        return new RalieBindingPlan(bindingsByIndex, List.copyOf(header), new AtomicLongArray(header.size()),
+                Collections.unmodifiableList(missingColumns), Collections.unmodifiableList(unknownColumns));
+    }
+
+    /**
+     * Cópia do plano com conversores próprios. O plano guarda o cache de datas e não é
+     * thread-safe; cada thread de leitura usa a sua cópia. A contagem de valores inválidos é
+     * compartilhada com o plano original.
+     */
+    public RalieBindingPlan copy() {
+        return new RalieBindingPlan(bindingsByIndex, header, failuresByIndex, missingColumns, unknownColumns);
+    }
+
+    public void bind(RalieRecord record, RalieUsinaCsvImportEntity entity) {
+        int columns = Math.min(record.size(), bindingsByIndex.length);
+        for (int field = 0; field < columns; field++) {
+            ColumnBinding binding = bindingsByIndex[field];
+            if (binding != null && !record.isEmpty(field) && !binding.bind(parsers, record, field, entity)) {
+                failuresByIndex.incrementAndGet(field);
+            }
+        }
+    }
+
+    /**
+     * Valores preenchidos que não puderam ser convertidos, por coluna, desde a compilação do
+     * plano. Colunas sem falhas não aparecem.
+     */
+    public Map<String, Long> parseFailures() {
+        Map<String, Long> failures = new TreeMap<>();
+        for (int i = 0; i < failuresByIndex.length(); i++) {
+            long count = failuresByIndex.get(i);
+            if (count > 0) {
+                failures.put(header.get(i), count);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Nomes das colunas na ordem do arquivo.
+     */
+    public List<String> header() {
+        return header;
+    }
+
+    public List<String> missingColumns() {
+        return missingColumns;
+    }
+
+    public List<String> unknownColumns() {
+        return unknownColumns;
+    }
+
+    /**
+     * Grava o campo na entidade; devolve {@code false} se o valor não pôde ser convertido.
+     */
+    @FunctionalInterface
+    private interface ColumnBinding {
+        boolean bind(RalieFieldParsers parsers, RalieRecord record, int field, RalieUsinaCsvImportEntity entity);
+    }
+
+    private static void text(String column, BiConsumer<RalieUsinaCsvImportEntity, String> setter) {
+        BINDINGS.put(column, (parsers, record, field, entity) -> {
+            setter.accept(entity, record.getString(field));
+            return true;
+        });
+    }
+
+    private static void date(String column, BiConsumer<RalieUsinaCsvImportEntity, LocalDate> setter) {
+        BINDINGS.put(column, (parsers, record, field, entity) -> {
+            LocalDate value = parsers.date(record.chars(), record.start(field), record.end(field));
+            setter.accept(entity, value);
+            return value != null;
+        });
+    }
+
+    private static void decimal(String column, BiConsumer<RalieUsinaCsvImportEntity, Double> setter) {
+        BINDINGS.put(column, (parsers, record, field, entity) -> {
+            double value = RalieFieldParsers.parseDecimal(record.chars(), record.start(field), record.end(field));
+            setter.accept(entity, Double.isNaN(value) ? null : value);
+            return !Double.isNaN(value);
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.boltenergy.service.csv;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Detecta a codificação do CSV do RALIE a partir de um prefixo limitado do arquivo e
+ * devolve um {@link InputStreamReader} que transcodifica o restante em uma única passada.
+ * A decodificação é estrita: um byte inválido na codificação escolhida lança
+ * {@link java.nio.charset.CharacterCodingException} em vez de virar U+FFFD. Quando o prefixo só
+ * tem ASCII, que é igual nas três codificações, a escolha fica para o primeiro byte acima de 0x7F.
+ */
+public final class RalieCsvCharset {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 64 * 1024;
+    public static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private static final int MAX_UTF8_SEQUENCE = 4;
+
+    private RalieCsvCharset() {
+    }
+
+    public static InputStreamReader openReader(InputStream inputStream) throws IOException {
+        return openReader(inputStream, DEFAULT_SAMPLE_SIZE);
+    }
+
+    public static InputStreamReader openReader(InputStream inputStream, int sampleSize) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(inputStream, sampleSize);
+        buffered.mark(sampleSize);
+        byte[] sample = buffered.readNBytes(sampleSize);
+        buffered.reset();
+
+        boolean truncated = sample.length == sampleSize;
+        if (truncated && firstNonAscii(sample, 0, sample.length) < 0) {
+            return new InputStreamReader(buffered, new AsciiPrefixDecoder());
+        }
+        Charset charset = detect(sample, sample.length, truncated);
+        if (charset == StandardCharsets.UTF_8 && hasUtf8Bom(sample, sample.length)) {
+            buffered.skipNBytes(3);
+        }
+        return new InputStreamReader(buffered, strictDecoder(charset));
+    }
+
+    /**
+     * Detecta a codificação de um arquivo inteiro já em memória. A amostra começa no primeiro
+     * byte acima de 0x7F, já que um trecho só com ASCII não indica a codificação.
+     */
+    public static Charset detect(ByteBuffer content) {
+        int limit = content.limit();
+        int from = 0;
+        while (from < limit && content.get(from) >= 0) {
+            from++;
+        }
+        if (from == limit) {
+            from = 0;
+        }
+        byte[] sample = new byte[Math.min(limit - from, DEFAULT_SAMPLE_SIZE)];
+        content.get(from, sample);
+        return detect(sample, sample.length, from + sample.length < limit);
+    }
+
+    public static CharsetDecoder strictDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+    }
+
+    public static Charset detect(byte[] sample, int length, boolean truncated) {
+        if (hasUtf8Bom(sample, length) || isValidUtf8(sample, length, truncated)) {
+            return StandardCharsets.UTF_8;
+        }
+
+        for (int i = 0; i < length; i++) {
+            int b = sample[i] & 0xFF;
+            if (b >= 0x80 && b <= 0x9F) {
+                return WINDOWS_1252;
+            }
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    public static boolean hasUtf8Bom(byte[] sample, int length) {
+        return length >= 3
+                && (sample[0] & 0xFF) == 0xEF
+                && (sample[1] & 0xFF) == 0xBB
+                && (sample[2] & 0xFF) == 0xBF;
+    }
+
+    private static int firstNonAscii(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isValidUtf8(byte[] sample, int length, boolean truncated) {
+        CharsetDecoder decoder = strictDecoder(StandardCharsets.UTF_8);
+        ByteBuffer in = ByteBuffer.wrap(sample, 0, length);
+        CharBuffer out = CharBuffer.allocate(Math.min(length, 8192) + 1);
+
+        while (true) {
+            CoderResult result = decoder.decode(in, out, !truncated);
+            if (result.isError()) {
+                return false;
+            }
+            if (result.isUnderflow()) {
+                // Um prefixo truncado pode terminar no meio de uma sequência multibyte válida.
+                return !truncated || in.remaining() < MAX_UTF8_SEQUENCE;
+            }
+            out.clear();
+        }
+    }
+
+    /**
+     * Decodifica ASCII até o primeiro byte acima de 0x7F e, a partir dele, detecta a codificação
+     * com os bytes já lidos e segue com o decodificador estrito dela. Os caracteres ASCII já
+     * entregues são os mesmos em qualquer uma das codificações, então nada precisa ser refeito.
+     */
+    private static final class AsciiPrefixDecoder extends CharsetDecoder {
+
+        private CharsetDecoder delegate;
+
+        AsciiPrefixDecoder() {
+            super(StandardCharsets.US_ASCII, 1.0f, 1.0f);
+        }
+
+        @Override
+        protected CoderResult decodeLoop(ByteBuffer in, CharBuffer out) {
+            while (delegate == null && in.hasRemaining()) {
+                byte b = in.get(in.position());
+                if (b < 0) {
+                    if (in.remaining() < MAX_UTF8_SEQUENCE) {
+                        // Aguarda mais bytes para não decidir por uma sequência multibyte cortada
+                        return CoderResult.UNDERFLOW;
+                    }
+                    byte[] window = new byte[in.remaining()];
+                    in.get(in.position(), window);
+                    delegate = strictDecoder(detect(window, window.length, true));
+                    break;
+                }
+                if (!out.hasRemaining()) {
+                    return CoderResult.OVERFLOW;
+                }
+                out.put((char) b);
+                in.position(in.position() + 1);
+            }
+            return delegate == null ? CoderResult.UNDERFLOW : delegate.decode(in, out, false);
+        }
+
+        @Override
+        protected void implReset() {
+            delegate = null;
+        }
+    }
+}
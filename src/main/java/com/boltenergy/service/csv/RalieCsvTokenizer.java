@@ -0,0 +1,229 @@
+package com.boltenergy.service.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tokenizador específico para o CSV do RALIE: campos separados por {@code ;}, aspas opcionais
+ * com {@code ""} como escape e quebras de linha dentro de campos entre aspas (comuns em
+ * {@code DscPropriRegimePariticipacao}). Os campos são copiados para um buffer reutilizado e
+ * expostos como fatias, sem criar objetos por linha. Linhas vazias são ignoradas e os valores
+ * têm os espaços das bordas removidos, como no caminho com Commons CSV.
+ */
+public final class RalieCsvTokenizer implements RalieRecordReader, RalieRecord {
+
+    private static final char DELIMITER = ';';
+    private static final char QUOTE = '"';
+    private static final int END_OF_INPUT = -1;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] input;
+    private int inputPosition;
+    private int inputLimit;
+
+    private char[] chars = new char[4096];
+    private int charCount;
+    private int[] starts = new int[128];
+    private int[] ends = new int[128];
+    private int fieldCount;
+    private long recordNumber;
+    private long lineNumber;
+
+    private final List<String> header;
+
+    public RalieCsvTokenizer(Reader reader) throws IOException {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    public RalieCsvTokenizer(Reader reader, int bufferSize) throws IOException {
+        this(reader, bufferSize, 1, true);
+    }
+
+    private RalieCsvTokenizer(Reader reader, int bufferSize, long firstLineNumber, boolean withHeader) throws IOException {
+        this.reader = reader;
+        this.input = new char[bufferSize];
+        this.lineNumber = firstLineNumber;
+        this.header = withHeader ? readHeader() : Collections.emptyList();
+    }
+
+    /**
+     * Tokenizador para um trecho do arquivo que começa no início de um registro e não tem
+     * cabeçalho. {@code firstLineNumber} é a linha do trecho no arquivo, usada nas mensagens
+     * de erro; os números de registro recomeçam em 1.
+     */
+    public static RalieCsvTokenizer fragment(Reader reader, long firstLineNumber) throws IOException {
+        return new RalieCsvTokenizer(reader, DEFAULT_BUFFER_SIZE, firstLineNumber, false);
+    }
+
+    @Override
+    public List<String> header() {
+        return header;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (!readRecord()) {
+            return false;
+        }
+        recordNumber++;
+        return true;
+    }
+
+    @Override
+    public RalieRecord current() {
+        return this;
+    }
+
+    @Override
+    public long recordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+
+    @Override
+    public char[] chars() {
+        return chars;
+    }
+
+    @Override
+    public int start(int field) {
+        return starts[field];
+    }
+
+    @Override
+    public int end(int field) {
+        return ends[field];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readHeader() throws IOException {
+        if (!readRecord()) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            names.add(getString(i));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private boolean readRecord() throws IOException {
+        int c;
+        do {
+            c = read();
+            if (c == END_OF_INPUT) {
+                return false;
+            }
+            // Linhas vazias não são registros
+        } while (skipLineBreak(c));
+
+        fieldCount = 0;
+        charCount = 0;
+        long recordLine = lineNumber;
+        while (true) {
+            int fieldStart = charCount;
+            if (c == QUOTE) {
+                while (true) {
+                    c = read();
+                    if (c == END_OF_INPUT) {
+                        throw new IOException("Aspas não fechadas no registro iniciado na linha " + recordLine);
+                    }
+                    if (c == QUOTE) {
+                        c = read();
+                        if (c != QUOTE) {
+                            break;
+                        }
+                    } else if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append((char) c);
+                }
+            }
+            while (c != DELIMITER && c != '\n' && c != '\r' && c != END_OF_INPUT) {
+                append((char) c);
+                c = read();
+            }
+            addField(fieldStart);
+
+            if (c != DELIMITER) {
+                skipLineBreak(c);
+                return true;
+            }
+            c = read();
+        }
+    }
+
+    private boolean skipLineBreak(int c) throws IOException {
+        if (c == '\r') {
+            if (peek() == '\n') {
+                inputPosition++;
+            }
+        } else if (c != '\n') {
+            return false;
+        }
+        lineNumber++;
+        return true;
+    }
+
+    private void addField(int fieldStart) {
+        int start = fieldStart;
+        int end = charCount;
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private void append(char c) {
+        if (charCount == chars.length) {
+            chars = Arrays.copyOf(chars, charCount * 2);
+        }
+        chars[charCount++] = c;
+    }
+
+    private int read() throws IOException {
+        if (inputPosition == inputLimit && !fill()) {
+            return END_OF_INPUT;
+        }
+        return input[inputPosition++];
+    }
+
+    private int peek() throws IOException {
+        if (inputPosition == inputLimit && !fill()) {
+            return END_OF_INPUT;
+        }
+        return input[inputPosition];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(input, 0, input.length);
+        if (read <= 0) {
+            return false;
+        }
+        inputPosition = 0;
+        inputLimit = read;
+        return true;
+    }
+}
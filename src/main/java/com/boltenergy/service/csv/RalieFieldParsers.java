@@ -0,0 +1,209 @@
+package com.boltenergy.service.csv;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Conversores de datas {@code dd/MM/yyyy} e de números decimais com vírgula que leem os
+ * dígitos direto da fatia de caracteres do campo. Valores inválidos devolvem sentinelas
+ * ({@link #INVALID_DATE}, {@code NaN}) em vez de lançar exceções.
+ *
+ * <p>Um arquivo do RALIE tem poucas datas distintas repetidas em ~40 colunas por linha, por
+ * isso cada instância memoriza os {@link LocalDate} já criados. Não é thread-safe: use uma
+ * instância por importação.
+ */
+public final class RalieFieldParsers {
+
+    public static final int INVALID_DATE = -1;
+
+    private static final int DATE_LENGTH = 10;
+    private static final int MAX_CACHED_DATES = 8192;
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private int[] cachedKeys = new int[256];
+    private LocalDate[] cachedDates = new LocalDate[256];
+    private int cachedCount;
+
+    /**
+     * Data do campo, reaproveitando a instância de datas já vistas, ou {@code null} se inválida.
+     */
+    public LocalDate date(char[] chars, int start, int end) {
+        int key = parseDateKey(chars, start, end);
+        if (key == INVALID_DATE) {
+            return null;
+        }
+
+        int mask = cachedKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (cachedDates[slot] != null) {
+            if (cachedKeys[slot] == key) {
+                return cachedDates[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        LocalDate date = toLocalDate(key);
+        if (cachedCount < MAX_CACHED_DATES) {
+            cachedKeys[slot] = key;
+            cachedDates[slot] = date;
+            if (++cachedCount * 2 > cachedKeys.length) {
+                grow();
+            }
+        }
+        return date;
+    }
+
+    /**
+     * Converte {@code dd/MM/yyyy} para a chave {@code yyyyMMdd}, ou {@link #INVALID_DATE}. Como o
+     * {@code LocalDate.parse} com resolução {@code SMART}, dias 29 a 31 além do fim do mês
+     * são ajustados para o último dia do mês.
+     */
+    public static int parseDateKey(char[] chars, int start, int end) {
+        if (end - start != DATE_LENGTH || chars[start + 2] != '/' || chars[start + 5] != '/') {
+            return INVALID_DATE;
+        }
+        int day = twoDigits(chars, start);
+        int month = twoDigits(chars, start + 3);
+        int year = twoDigits(chars, start + 6) * 100 + twoDigits(chars, start + 8);
+        if (day <= 0 || month <= 0 || year <= 0 || month > 12 || day > 31) {
+            return INVALID_DATE;
+        }
+        if (day > 28) {
+            day = Math.min(day, YearMonth.of(year, month).lengthOfMonth());
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
+    public static LocalDate toLocalDate(int key) {
+        return LocalDate.of(key / 10000, key / 100 % 100, key % 100);
+    }
+
+    /**
+     * Número com vírgula ou ponto como separador decimal e expoente opcional
+     * ({@code 1234,5}, {@code 9,27158E+13}), ou {@code NaN} se inválido. O resultado é o mesmo
+     * de {@code Double.parseDouble(valor.replace(",", "."))}.
+     */
+    public static double parseDecimal(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean separator = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa != 0 || c != '0') {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (separator) {
+                    exponent--;
+                }
+            } else if ((c == ',' || c == '.') && !separator) {
+                separator = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return invalidOrSpecial(chars, start, end);
+        }
+
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int exponentStart = i;
+            int explicitExponent = 0;
+            for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                if (explicitExponent < 10000) {
+                    explicitExponent = explicitExponent * 10 + (chars[i] - '0');
+                }
+            }
+            if (i == exponentStart) {
+                return invalidOrSpecial(chars, start, end);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != end) {
+            return invalidOrSpecial(chars, start, end);
+        }
+        if (significantDigits > MAX_FAST_DIGITS || mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return parseWithJdk(chars, start, end);
+        }
+
+        // Mantissa e potência de dez exatas em double: uma única operação já arredonda corretamente
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    // NaN, Infinity, hexadecimais e sufixos d/f também são aceitos pelo Double.parseDouble
+    private static double invalidOrSpecial(char[] chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ("NIxXdDfF".indexOf(chars[i]) >= 0) {
+                return parseWithJdk(chars, start, end);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double parseWithJdk(char[] chars, int start, int end) {
+        char[] normalized = new char[end - start];
+        for (int i = start; i < end; i++) {
+            normalized[i - start] = chars[i] == ',' ? '.' : chars[i];
+        }
+        try {
+            return Double.parseDouble(new String(normalized));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static int twoDigits(char[] chars, int offset) {
+        int tens = chars[offset] - '0';
+        int units = chars[offset + 1] - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -10000;
+        }
+        return tens * 10 + units;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int[] oldKeys = cachedKeys;
+        LocalDate[] oldDates = cachedDates;
+        cachedKeys = new int[oldKeys.length * 2];
+        cachedDates = new LocalDate[oldDates.length * 2];
+        int mask = cachedKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldDates[i] != null) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (cachedDates[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                cachedKeys[slot] = oldKeys[i];
+                cachedDates[slot] = oldDates[i];
+            }
+        }
+    }
+}
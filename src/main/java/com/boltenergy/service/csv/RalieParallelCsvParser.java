@@ -0,0 +1,296 @@
+package com.boltenergy.service.csv;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Leitura paralela do CSV do RALIE já baixado. O arquivo é mapeado em memória e dividido em
+ * blocos que sempre começam no início de um registro: a divisão percorre os bytes com a mesma
+ * regra de aspas do {@link RalieCsvTokenizer}, então quebras de linha dentro de campos entre
+ * aspas nunca viram fronteira. Cada bloco é decodificado, tokenizado e mapeado para entidades
+ * em um {@link ForkJoinPool}; os blocos são entregues na ordem do arquivo, na thread chamadora,
+ * com no máximo dois blocos por thread em andamento para limitar a memória.
+ */
+public final class RalieParallelCsvParser implements Closeable {
+
+    /** Um único mapeamento de {@link FileChannel#map} é limitado a 2 GB. */
+    public static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int parallelism;
+    private final Charset charset;
+    private final List<String> header;
+    private final Segment headerSegment;
+    private final List<Segment> chunks = new ArrayList<>();
+
+    private RalieParallelCsvParser(FileChannel channel, MappedByteBuffer buffer, int parallelism, int chunkSize)
+            throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.parallelism = parallelism;
+
+        byte[] sample = new byte[Math.min(buffer.limit(), 3)];
+        buffer.get(0, sample);
+        this.charset = RalieCsvCharset.detect(buffer);
+        int dataStart = charset == StandardCharsets.UTF_8 && RalieCsvCharset.hasUtf8Bom(sample, sample.length) ? 3 : 0;
+
+        int headerEnd = split(dataStart, chunkSize);
+        this.headerSegment = new Segment(dataStart, headerEnd, 1);
+        try (RalieCsvTokenizer headerReader = new RalieCsvTokenizer(decode(buffer, charset, dataStart, headerEnd))) {
+            this.header = headerReader.header();
+        }
+    }
+
+    public static RalieParallelCsvParser open(Path file, int parallelism, int chunkSize) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > MAX_FILE_SIZE) {
+                throw new IOException("Arquivo grande demais para leitura paralela: " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new RalieParallelCsvParser(channel, buffer, parallelism, chunkSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<String> header() {
+        return header;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Trecho do cabeçalho, sem o BOM.
+     */
+    public Segment headerSegment() {
+        return headerSegment;
+    }
+
+    /**
+     * Blocos do arquivo, na ordem, cada um começando no início de um registro. Podem ser lidos
+     * depois, em outro processo, com {@link #parseSegment}.
+     */
+    public List<Segment> segments() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * Lê e mapeia só o trecho {@code segment} do arquivo, sem percorrê-lo inteiro, com o
+     * cabeçalho do trecho {@code header}. Os trechos e a codificação vêm de um
+     * {@link RalieParallelCsvParser} aberto antes sobre o mesmo arquivo. Uma falha ao mapear um
+     * registro é lançada como {@link RalieRecordException}, numerada a partir do início do trecho.
+     */
+    public static ParsedSegment parseSegment(Path file, Charset charset, Segment header,
+                                             Segment segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<String> names;
+            ByteBuffer headerBytes = channel.map(FileChannel.MapMode.READ_ONLY, header.start(), header.end() - header.start());
+            try (RalieCsvTokenizer headerReader = new RalieCsvTokenizer(decode(headerBytes, charset, 0, headerBytes.limit()))) {
+                names = headerReader.header();
+            }
+            if (names.isEmpty()) {
+                throw new IOException("O arquivo CSV não contém cabeçalhos válidos");
+            }
+
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, segment.start(), segment.end() - segment.start());
+            RalieBindingPlan plan = RalieBindingPlan.compile(names);
+            ParsedChunk parsed = parse(bytes, charset, new Segment(0, bytes.limit(), segment.firstLine()),
+                    plan, new RalieRowHash(names));
+            if (parsed.failure() instanceof IOException e && parsed.failedRecord() == 0) {
+                throw e;
+            }
+            if (parsed.failure() != null) {
+                throw new RalieRecordException(parsed.failedRecord(), parsed.failure());
+            }
+            return new ParsedSegment(parsed.entities(), plan.parseFailures());
+        }
+    }
+
+    /**
+     * Mapeia todos os blocos com o {@code plan} informado e os entrega ao {@code handler} na
+     * ordem do arquivo. Uma falha ao mapear um registro é lançada como
+     * {@link RalieRecordException} com o número do registro no arquivo inteiro, depois de
+     * entregues os registros que o precedem.
+     */
+    public void forEachChunk(RalieBindingPlan plan, ChunkHandler handler) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ThreadLocal<RalieBindingPlan> plans = ThreadLocal.withInitial(plan::copy);
+        ThreadLocal<RalieRowHash> rowHashes = ThreadLocal.withInitial(() -> new RalieRowHash(plan.header()));
+        Deque<ForkJoinTask<ParsedChunk>> pending = new ArrayDeque<>();
+        int window = parallelism * 2;
+        int next = 0;
+        long recordsBefore = 0;
+        try {
+            while (next < chunks.size() || !pending.isEmpty()) {
+                while (next < chunks.size() && pending.size() < window) {
+                    Segment bounds = chunks.get(next++);
+                    pending.add(pool.submit(() -> parse(buffer, charset, bounds, plans.get(), rowHashes.get())));
+                }
+
+                ParsedChunk parsed = pending.poll().join();
+                if (parsed.failure() instanceof IOException e && parsed.failedRecord() == 0) {
+                    throw e;
+                }
+                handler.accept(new Chunk(recordsBefore + 1, parsed.entities()));
+                if (parsed.failure() != null) {
+                    throw new RalieRecordException(recordsBefore + parsed.failedRecord(), parsed.failure());
+                }
+                recordsBefore += parsed.entities().size();
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(true));
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Percorre o arquivo uma vez marcando as fronteiras dos blocos, sempre logo após a quebra de
+     * linha que encerra um registro. Devolve o fim do cabeçalho, que é o início do primeiro bloco.
+     */
+    private int split(int dataStart, int chunkSize) {
+        int limit = buffer.limit();
+        int state = FIELD_START;
+        long line = 1;
+        int headerEnd = -1;
+        int chunkStart = limit;
+        long chunkLine = 1;
+
+        for (int i = dataStart; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (state == QUOTED) {
+                if (b == '"') {
+                    state = QUOTE_IN_QUOTED;
+                } else if (b == '\n') {
+                    line++;
+                }
+                continue;
+            }
+            if (state == QUOTE_IN_QUOTED && b == '"') {
+                state = QUOTED;
+            } else if (b == ';' || b == '\r') {
+                state = FIELD_START;
+            } else if (b == '\n') {
+                state = FIELD_START;
+                line++;
+                if (headerEnd < 0) {
+                    headerEnd = i + 1;
+                    chunkStart = i + 1;
+                    chunkLine = line;
+                } else if (i + 1 - chunkStart >= chunkSize) {
+                    chunks.add(new Segment(chunkStart, i + 1, chunkLine));
+                    chunkStart = i + 1;
+                    chunkLine = line;
+                }
+            } else if (state == FIELD_START && b == '"') {
+                state = QUOTED;
+            } else {
+                state = UNQUOTED;
+            }
+        }
+
+        if (chunkStart < limit) {
+            chunks.add(new Segment(chunkStart, limit, chunkLine));
+        }
+        return headerEnd < 0 ? limit : headerEnd;
+    }
+
+    private static ParsedChunk parse(ByteBuffer buffer, Charset charset, Segment bounds, RalieBindingPlan plan,
+                                     RalieRowHash rowHash) {
+        List<RalieUsinaCsvImportEntity> entities = new ArrayList<>();
+        try (RalieCsvTokenizer records = RalieCsvTokenizer.fragment(
+                decode(buffer, charset, bounds.start(), bounds.end()), bounds.firstLine())) {
+            while (records.next()) {
+                RalieRecord record = records.current();
+                try {
+                    RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+                    plan.bind(record, entity);
+                    entity.setRowHash(rowHash.hash(record));
+                    entities.add(entity);
+                } catch (RuntimeException e) {
+                    return new ParsedChunk(entities, record.recordNumber(), e);
+                }
+            }
+        } catch (IOException e) {
+            return new ParsedChunk(entities, 0, e);
+        }
+        return new ParsedChunk(entities, 0, null);
+    }
+
+    private static Reader decode(ByteBuffer buffer, Charset charset, int start, int end) throws IOException {
+        CharBuffer chars = RalieCsvCharset.strictDecoder(charset).decode(buffer.slice(start, end - start));
+        return new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+    }
+
+    /**
+     * Registros mapeados de um bloco, em ordem; {@code firstRecordNumber} é o número do primeiro
+     * deles no arquivo inteiro.
+     */
+    public record Chunk(long firstRecordNumber, List<RalieUsinaCsvImportEntity> entities) {
+
+        public Chunk {
+            entities = Collections.unmodifiableList(entities);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void accept(Chunk chunk) throws IOException;
+    }
+
+    /**
+     * Trecho do arquivo em bytes, de {@code start} até {@code end} (exclusivo);
+     * {@code firstLine} é a linha do arquivo em que ele começa.
+     */
+    public record Segment(int start, int end, long firstLine) {
+    }
+
+    /**
+     * Registros mapeados de um trecho lido por {@link #parseSegment}, com os valores inválidos
+     * gravados como nulos, por coluna.
+     */
+    public record ParsedSegment(List<RalieUsinaCsvImportEntity> entities, Map<String, Long> parseFailures) {
+    }
+
+    private record ParsedChunk(List<RalieUsinaCsvImportEntity> entities, long failedRecord, Exception failure) {
+    }
+}
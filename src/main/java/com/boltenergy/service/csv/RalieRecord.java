@@ -0,0 +1,40 @@
+package com.boltenergy.service.csv;
+
+/**
+ * Linha do CSV do RALIE exposta como fatias de um buffer de caracteres reutilizado. O
+ * conteúdo só é válido até o próximo {@link RalieRecordReader#next()}; quem precisa guardar
+ * um valor usa {@link #getString(int)}.
+ */
+public interface RalieRecord {
+
+    long recordNumber();
+
+    int size();
+
+    /**
+     * Buffer com o conteúdo de todos os campos da linha, já sem aspas e sem espaços nas bordas.
+     */
+    char[] chars();
+
+    int start(int field);
+
+    int end(int field);
+
+    default int length(int field) {
+        return end(field) - start(field);
+    }
+
+    default boolean isEmpty(int field) {
+        return field >= size() || start(field) == end(field);
+    }
+
+    /**
+     * Valor do campo como {@link String}, ou {@code null} quando o campo não existe na linha.
+     */
+    default String getString(int field) {
+        if (field >= size()) {
+            return null;
+        }
+        return new String(chars(), start(field), length(field));
+    }
+}
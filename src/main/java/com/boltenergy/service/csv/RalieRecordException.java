@@ -0,0 +1,20 @@
+package com.boltenergy.service.csv;
+
+import java.io.IOException;
+
+/**
+ * Falha ao mapear um registro do CSV, com o número do registro no arquivo inteiro.
+ */
+public class RalieRecordException extends IOException {
+
+    private final long recordNumber;
+
+    public RalieRecordException(long recordNumber, Throwable cause) {
+        super(cause.getMessage(), cause);
+        this.recordNumber = recordNumber;
+    }
+
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+}
@@ -0,0 +1,17 @@
+package com.boltenergy.service.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Percorre as linhas de dados de um CSV do RALIE, depois do cabeçalho.
+ */
+public interface RalieRecordReader extends Closeable {
+
+    List<String> header();
+
+    boolean next() throws IOException;
+
+    RalieRecord current();
+}
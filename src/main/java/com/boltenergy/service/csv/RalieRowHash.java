@@ -0,0 +1,86 @@
+package com.boltenergy.service.csv;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Hash estável do conteúdo de uma linha do CSV, calculado sobre o UTF-8 dos valores das
+ * colunas na ordem do arquivo, separados por {@code 0x1F}. A coluna
+ * {@value #DATASET_VERSION_COLUMN} fica de fora: ela muda em toda publicação do RALIE e faria
+ * todas as linhas parecerem alteradas. Não é thread-safe: use uma instância por importação.
+ */
+public final class RalieRowHash {
+
+    /** Data de geração do arquivo, igual em todas as linhas. */
+    public static final String DATASET_VERSION_COLUMN = "DatGeracaoConjuntoDados";
+
+    private static final byte SEPARATOR = 0x1F;
+
+    private final MessageDigest digest;
+    private final int datasetVersionField;
+    private byte[] bytes = new byte[8192];
+
+    public RalieRowHash(List<String> header) {
+        this.datasetVersionField = indexOf(header, DATASET_VERSION_COLUMN);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    public String hash(RalieRecord record) {
+        char[] chars = record.chars();
+        for (int field = 0; field < record.size(); field++) {
+            if (field == datasetVersionField) {
+                continue;
+            }
+            int length = encodeUtf8(chars, record.start(field), record.end(field));
+            digest.update(bytes, 0, length);
+            digest.update(SEPARATOR);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Mesmo resultado de String.getBytes(UTF_8), inclusive o '?' para surrogates isolados
+    private int encodeUtf8(char[] chars, int start, int end) {
+        if (bytes.length < (end - start) * 3) {
+            bytes = Arrays.copyOf(bytes, (end - start) * 3);
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                bytes[length++] = '?';
+            } else {
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return length;
+    }
+}
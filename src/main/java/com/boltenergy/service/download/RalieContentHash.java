@@ -0,0 +1,62 @@
+package com.boltenergy.service.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 do conteúdo baixado, usado para reconhecer arquivos idênticos mesmo quando
+ * o servidor publica um novo {@code ETag}.
+ */
+public final class RalieContentHash {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private RalieContentHash() {
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " indisponível", e);
+        }
+    }
+
+    /**
+     * Digest já alimentado com os primeiros {@code length} bytes de {@code file}, para
+     * continuar o cálculo ao retomar um download parcial.
+     */
+    public static MessageDigest prime(Path file, long length) throws IOException {
+        MessageDigest digest = newDigest();
+        if (length <= 0) {
+            return digest;
+        }
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Arquivo parcial menor que o esperado: " + file);
+                }
+                digest.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return digest;
+    }
+
+    public static String of(Path file) throws IOException {
+        return hex(prime(file, Files.size(file)));
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
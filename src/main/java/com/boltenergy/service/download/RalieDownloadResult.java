@@ -0,0 +1,11 @@
+package com.boltenergy.service.download;
+
+import java.nio.file.Path;
+
+public record RalieDownloadResult(boolean notModified, String etag, String lastModified, Path file, long size,
+                                  String contentHash) {
+
+    public static RalieDownloadResult notModifiedResult() {
+        return new RalieDownloadResult(true, null, null, null, 0, null);
+    }
+}
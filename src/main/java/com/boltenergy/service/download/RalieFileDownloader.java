@@ -0,0 +1,496 @@
+package com.boltenergy.service.download;
+
+import com.boltenergy.config.WebClientProperties;
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.service.job.RalieImportProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * Baixa o arquivo do RALIE para um arquivo parcial em {@code downloads/}, calculando o SHA-256
+ * do conteúdo durante a gravação. Se a transferência cair, o parcial e o validador com que
+ * foi obtido são mantidos e a próxima tentativa continua do último byte gravado com
+ * {@code Range} + {@code If-Range}.
+ *
+ * <p>Quando o servidor aceita intervalos, o restante do arquivo é dividido em segmentos
+ * baixados em paralelo e gravados nas suas posições em um arquivo pré-alocado.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RalieFileDownloader {
+
+    static final String PARTIAL_FILE_NAME = "ralie_download.part";
+    static final String PARTIAL_STATE_FILE_NAME = "ralie_download.part.properties";
+
+    private final WebClientProperties properties;
+
+    public RalieDownloadResult download(WebClient webClient, String fileUrl, Path targetPath, RalieMetadata validators) {
+        return download(webClient, fileUrl, targetPath, validators, RalieImportProgress.untracked());
+    }
+
+    /**
+     * Como {@link #download(WebClient, String, Path, RalieMetadata)}, informando os bytes gravados
+     * em {@code progress} e parando no bloco seguinte a um cancelamento. Um download cancelado
+     * mantém o arquivo parcial, como uma transferência interrompida.
+     */
+    public RalieDownloadResult download(WebClient webClient, String fileUrl, Path targetPath, RalieMetadata validators,
+                                        RalieImportProgress progress) {
+        int maxAttempts = Math.max(1, properties.getDownloadMaxAttempts());
+        Path directory = targetPath.toAbsolutePath().getParent();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Files.createDirectories(directory);
+                PartialDownload partial = PartialDownload.load(directory);
+
+                Transfer transfer = fetchFirst(webClient, fileUrl, partial, validators, progress);
+                if (transfer.notModified()) {
+                    partial.discard();
+                    return RalieDownloadResult.notModifiedResult();
+                }
+                String contentHash = transfer.hasRemaining()
+                        ? fetchRemaining(webClient, fileUrl, partial, transfer, progress)
+                        : RalieContentHash.hex(transfer.digest());
+
+                long size = Files.size(partial.file());
+                if (size == 0) {
+                    partial.discard();
+                    throw new RalieDownloadException("O conteúdo do arquivo está vazio");
+                }
+                if (transfer.total() > 0 && size != transfer.total()) {
+                    partial.discard();
+                    throw new IOException("Tamanho do arquivo baixado (" + size + ") difere do informado pelo servidor (" + transfer.total() + ")");
+                }
+
+                String etag = partial.etag();
+                String lastModified = partial.lastModified();
+                Files.move(partial.file(), targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                partial.discard();
+                log.info("Arquivo salvo com sucesso em: {}", targetPath);
+                return new RalieDownloadResult(false, etag, lastModified, targetPath, size, contentHash);
+
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    log.warn("Erro durante o download: {}", e.getMessage());
+                    throw e instanceof RalieDownloadException rde
+                            ? rde
+                            : new RalieDownloadException("Falha ao baixar o arquivo: " + e.getMessage(), e);
+                }
+                log.warn("Tentativa {}/{} de download interrompida: {}. O download será retomado.",
+                        attempt, maxAttempts, e.getMessage());
+                sleepBeforeRetry();
+            }
+        }
+    }
+
+    private Transfer fetchFirst(WebClient webClient, String fileUrl, PartialDownload partial, RalieMetadata validators,
+                                RalieImportProgress progress) throws IOException {
+        long offset = partial.resumableOffset();
+        if (offset > 0) {
+            log.info("Retomando download a partir do byte {} (If-Range: {})", offset, partial.ifRange());
+            return fetchFrom(webClient, fileUrl, partial, offset, progress);
+        }
+
+        // Com segmentação habilitada o primeiro pedido já é um intervalo: a resposta 206 revela
+        // o tamanho total e o suporte a Range sem um HEAD extra; um 200 indica download simples.
+        long probeEnd = isSegmented() ? properties.getMinSegmentSize().toBytes() - 1 : -1;
+        return fetch(webClient, fileUrl, partial, 0, progress, headers -> {
+            if (probeEnd > 0) {
+                headers.set(HttpHeaders.RANGE, "bytes=0-" + probeEnd);
+            }
+            if (validators.getEtag() != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, validators.getEtag());
+            }
+            if (validators.getLastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, validators.getLastModified());
+            }
+        });
+    }
+
+    private Transfer fetchFrom(WebClient webClient, String fileUrl, PartialDownload partial, long offset,
+                               RalieImportProgress progress) throws IOException {
+        return fetch(webClient, fileUrl, partial, offset, progress, headers -> {
+            headers.set(HttpHeaders.RANGE, "bytes=" + offset + "-");
+            headers.set(HttpHeaders.IF_RANGE, partial.ifRange());
+        });
+    }
+
+    private Transfer fetch(WebClient webClient, String fileUrl, PartialDownload partial, long offset,
+                           RalieImportProgress progress, Consumer<HttpHeaders> headers) throws IOException {
+        try (FileChannel channel = FileChannel.open(partial.file(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            return webClient.get()
+                    .uri(fileUrl)
+                    .accept(MediaType.APPLICATION_OCTET_STREAM)
+                    .headers(headers)
+                    .exchangeToMono(response -> handleResponse(response, channel, partial, offset, progress))
+                    .block();
+        }
+    }
+
+    private Mono<Transfer> handleResponse(ClientResponse response, FileChannel channel,
+                                          PartialDownload partial, long offset, RalieImportProgress progress) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return response.releaseBody().thenReturn(Transfer.NOT_MODIFIED);
+        }
+        if (response.statusCode().isError()
+                && !response.statusCode().isSameCodeAs(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)) {
+            return response.createError();
+        }
+
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        ContentRange contentRange = ContentRange.parse(headers.getFirst(HttpHeaders.CONTENT_RANGE));
+        Transfer transfer;
+        try {
+            if (response.statusCode().isSameCodeAs(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)) {
+                partial.discard();
+                return response.releaseBody()
+                        .then(Mono.error(new IOException("Intervalo solicitado inválido, o download será reiniciado")));
+            }
+            if (response.statusCode().isSameCodeAs(HttpStatus.PARTIAL_CONTENT)) {
+                if (contentRange == null || contentRange.start() != offset) {
+                    partial.discard();
+                    return response.releaseBody()
+                            .then(Mono.error(new IOException("Content-Range inesperado: " + headers.getFirst(HttpHeaders.CONTENT_RANGE))));
+                }
+                if (offset == 0) {
+                    channel.truncate(0);
+                    partial.saveValidators(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), false);
+                }
+                transfer = new Transfer(false, contentRange.end() + 1, contentRange.total(),
+                        RalieContentHash.prime(partial.file(), offset));
+                progress.startTransfer(offset, contentRange.total());
+            } else {
+                if (offset > 0) {
+                    log.info("Servidor ignorou o Range, baixando o arquivo completo");
+                }
+                channel.truncate(0);
+                partial.saveValidators(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), false);
+                offset = 0;
+                // Sem Content-Length (ou com o corpo descomprimido pelo cliente) o tamanho fica desconhecido
+                long length = headers.getContentLength();
+                transfer = new Transfer(false, length, length, RalieContentHash.newDigest());
+                progress.startTransfer(0, length);
+            }
+        } catch (IOException e) {
+            return response.releaseBody().then(Mono.error(e));
+        }
+
+        long[] writePosition = {offset};
+        return response.bodyToFlux(DataBuffer.class)
+                .doOnNext(dataBuffer -> writePosition[0] += write(channel, dataBuffer, writePosition[0], transfer.digest(), progress))
+                .then(Mono.just(transfer));
+    }
+
+    private String fetchRemaining(WebClient webClient, String fileUrl, PartialDownload partial, Transfer transfer,
+                                  RalieImportProgress progress) throws IOException {
+        long from = transfer.end();
+        long remaining = transfer.total() - from;
+        long minSegmentSize = properties.getMinSegmentSize().toBytes();
+        int segmentCount = (int) Math.min(properties.getDownloadSegments(), Math.max(1, remaining / minSegmentSize));
+
+        if (partial.ifRange() == null) {
+            // Sem ETag nem Last-Modified, um Range não garante que o resto é da mesma versão do
+            // arquivo: baixa tudo de novo em um GET sem condições
+            log.info("Servidor não informou ETag nem Last-Modified, baixando o arquivo completo");
+            Transfer full = fetch(webClient, fileUrl, partial, 0, progress, headers -> { });
+            transfer.total(full.total());
+            return RalieContentHash.hex(full.digest());
+        }
+        if (segmentCount <= 1) {
+            Transfer rest = fetchFrom(webClient, fileUrl, partial, from, progress);
+            // Se o servidor respondeu 200, o arquivo foi baixado de novo e vale o tamanho dessa resposta
+            transfer.total(rest.total());
+            return RalieContentHash.hex(rest.digest());
+        }
+
+        List<Segment> segments = split(from, transfer.total(), segmentCount);
+        log.info("Servidor aceita Range: baixando {} bytes restantes em {} segmentos paralelos",
+                remaining, segments.size());
+
+        partial.saveValidators(partial.etag(), partial.lastModified(), true);
+        try (RandomAccessFile file = new RandomAccessFile(partial.file().toFile(), "rw")) {
+            file.setLength(transfer.total());
+        }
+
+        try (FileChannel channel = FileChannel.open(partial.file(), StandardOpenOption.WRITE)) {
+            Flux.fromIterable(segments)
+                    .flatMap(segment -> fetchSegment(webClient, fileUrl, channel, segment, partial.ifRange(), progress),
+                            segments.size())
+                    .then()
+                    .block();
+        } catch (RuntimeException e) {
+            // Um arquivo pré-alocado tem lacunas e não pode ser retomado como um prefixo contínuo.
+            partial.discard();
+            throw e;
+        }
+
+        for (Segment segment : segments) {
+            if (!segment.isComplete()) {
+                partial.discard();
+                throw new IOException("Segmento " + segment + " incompleto");
+            }
+        }
+        partial.saveValidators(partial.etag(), partial.lastModified(), false);
+        // Os segmentos chegam fora de ordem, então o hash é calculado em uma passada sobre o arquivo montado
+        return RalieContentHash.of(partial.file());
+    }
+
+    private Mono<Void> fetchSegment(WebClient webClient, String fileUrl, FileChannel channel, Segment segment,
+                                    String ifRange, RalieImportProgress progress) {
+        return Mono.defer(() -> webClient.get()
+                        .uri(fileUrl)
+                        .accept(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.RANGE, "bytes=" + segment.position + "-" + segment.end)
+                        .header(HttpHeaders.IF_RANGE, ifRange)
+                        .exchangeToMono(response -> {
+                            ContentRange contentRange = ContentRange.parse(response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+                            if (!response.statusCode().isSameCodeAs(HttpStatus.PARTIAL_CONTENT)
+                                    || contentRange == null || contentRange.start() != segment.position) {
+                                return response.releaseBody().then(Mono.error(new SegmentRejectedException(
+                                        "O servidor não respeitou o intervalo do segmento " + segment
+                                                + " (status " + response.statusCode().value() + "), o arquivo pode ter mudado")));
+                            }
+                            return response.bodyToFlux(DataBuffer.class)
+                                    .doOnNext(dataBuffer -> segment.position += write(channel, dataBuffer, segment.position, null, progress))
+                                    .then();
+                        }))
+                .retryWhen(Retry.backoff(Math.max(0, properties.getDownloadMaxAttempts() - 1), properties.getDownloadRetryBackoff())
+                        .filter(e -> !(e instanceof SegmentRejectedException) && isRetryable(e))
+                        .doBeforeRetry(signal -> log.warn("Segmento {} interrompido: {}. Retomando.",
+                                segment, signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private List<Segment> split(long from, long total, int segmentCount) {
+        long segmentSize = (total - from + segmentCount - 1) / segmentCount;
+        List<Segment> segments = new ArrayList<>(segmentCount);
+        for (long start = from; start < total; start += segmentSize) {
+            segments.add(new Segment(start, Math.min(start + segmentSize, total) - 1));
+        }
+        return segments;
+    }
+
+    private int write(FileChannel channel, DataBuffer dataBuffer, long position, MessageDigest digest,
+                      RalieImportProgress progress) {
+        int written = 0;
+        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+            progress.checkCancelled();
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                if (digest != null) {
+                    digest.update(byteBuffer.duplicate());
+                }
+                while (byteBuffer.hasRemaining()) {
+                    written += channel.write(byteBuffer, position + written);
+                }
+            }
+            progress.addBytesDownloaded(written);
+            return written;
+        } catch (IOException e) {
+            throw new RalieDownloadException("Erro ao escrever no arquivo parcial", e);
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+    }
+
+    private boolean isSegmented() {
+        return properties.getDownloadSegments() > 1;
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return !(e instanceof RalieDownloadException);
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(properties.getDownloadRetryBackoff().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RalieDownloadException("Download interrompido", e);
+        }
+    }
+
+    private static final class Transfer {
+        static final Transfer NOT_MODIFIED = new Transfer(true, -1, -1, null);
+
+        private final boolean notModified;
+        private final long end;
+        private final MessageDigest digest;
+        private long total;
+
+        Transfer(boolean notModified, long end, long total, MessageDigest digest) {
+            this.notModified = notModified;
+            this.end = end;
+            this.total = total;
+            this.digest = digest;
+        }
+
+        MessageDigest digest() {
+            return digest;
+        }
+
+        boolean notModified() {
+            return notModified;
+        }
+
+        long end() {
+            return end;
+        }
+
+        long total() {
+            return total;
+        }
+
+        boolean hasRemaining() {
+            return total > 0 && end < total;
+        }
+
+        void total(long total) {
+            this.total = total;
+        }
+    }
+
+    private record ContentRange(long start, long end, long total) {
+
+        // Formato: "bytes <inicio>-<fim>/<total>"
+        static ContentRange parse(String value) {
+            if (value == null || !value.startsWith("bytes ")) {
+                return null;
+            }
+            try {
+                int dash = value.indexOf('-');
+                int slash = value.indexOf('/');
+                long start = Long.parseLong(value.substring(6, dash).trim());
+                long end = Long.parseLong(value.substring(dash + 1, slash).trim());
+                String total = value.substring(slash + 1).trim();
+                return new ContentRange(start, end, "*".equals(total) ? -1 : Long.parseLong(total));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final long end;
+        private volatile long position;
+
+        Segment(long start, long end) {
+            this.position = start;
+            this.end = end;
+        }
+
+        boolean isComplete() {
+            return position == end + 1;
+        }
+
+        @Override
+        public String toString() {
+            return position + "-" + end;
+        }
+    }
+
+    private static final class SegmentRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SegmentRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Arquivo parcial e o validador ({@code ETag} forte ou {@code Last-Modified}) da resposta
+     * que o originou, persistidos lado a lado para sobreviver entre execuções.
+     */
+    private record PartialDownload(Path file, Path stateFile, Properties state) {
+
+        static PartialDownload load(Path directory) throws IOException {
+            Path file = directory.resolve(PARTIAL_FILE_NAME);
+            Path stateFile = directory.resolve(PARTIAL_STATE_FILE_NAME);
+            Properties state = new Properties();
+            if (Files.exists(stateFile)) {
+                try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+                    state.load(reader);
+                }
+            }
+            return new PartialDownload(file, stateFile, state);
+        }
+
+        String etag() {
+            return state.getProperty("etag");
+        }
+
+        String lastModified() {
+            return state.getProperty("lastModified");
+        }
+
+        String ifRange() {
+            String etag = etag();
+            if (etag != null && !etag.startsWith("W/")) {
+                return etag;
+            }
+            return lastModified();
+        }
+
+        long resumableOffset() throws IOException {
+            boolean segmented = Boolean.parseBoolean(state.getProperty("segmented"));
+            if (segmented || ifRange() == null || !Files.exists(file)) {
+                return 0;
+            }
+            return Files.size(file);
+        }
+
+        void saveValidators(String etag, String lastModified, boolean segmented) throws IOException {
+            state.clear();
+            if (etag != null) {
+                state.setProperty("etag", etag);
+            }
+            if (lastModified != null) {
+                state.setProperty("lastModified", lastModified);
+            }
+            state.setProperty("segmented", String.valueOf(segmented));
+            try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+                state.store(writer, "Validadores do download parcial do RALIE");
+            }
+        }
+
+        void discard() throws IOException {
+            state.clear();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(stateFile);
+        }
+    }
+}
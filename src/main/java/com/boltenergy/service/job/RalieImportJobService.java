@@ -0,0 +1,184 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.dto.RalieImportJobDTO;
+import com.boltenergy.model.entity.RalieImportJobEntity;
+import com.boltenergy.repository.RalieImportJobRepository;
+import com.boltenergy.service.AneelRalieService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executa a atualização do RALIE (download, importação e publicação) em segundo plano, fora da
+ * thread da requisição. Cada job recebe um ID, tem o andamento consultável enquanto executa e
+ * fica registrado na tabela {@code ralie_import_job}. Os jobs executam um de cada vez, na ordem
+ * em que foram criados.
+ */
+@Slf4j
+@Service
+public class RalieImportJobService {
+
+    private final AneelRalieService aneelRalieService;
+    private final RalieImportJobRepository repository;
+    private final RalieRefreshLease refreshLease;
+    private final Map<String, RalieImportProgress> activeJobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ralie-import-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RalieImportJobService(AneelRalieService aneelRalieService, RalieImportJobRepository repository,
+                                 RalieRefreshLease refreshLease) {
+        this.aneelRalieService = aneelRalieService;
+        this.repository = repository;
+        this.refreshLease = refreshLease;
+    }
+
+    /**
+     * Jobs desta instância que estavam na fila ou em execução quando ela parou não vão terminar.
+     * Os jobs das demais instâncias, que compartilham a tabela, continuam como estão; com o
+     * {@code ralie.lease.owner-id} padrão, que muda a cada inicialização, nenhum job anterior é
+     * desta instância.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedJobs() {
+        List<RalieImportJobEntity> interrupted = repository.findByStatusInAndOwnerId(
+                EnumSet.of(RalieImportJobEntity.Status.QUEUED, RalieImportJobEntity.Status.RUNNING),
+                refreshLease.getOwnerId());
+        for (RalieImportJobEntity job : interrupted) {
+            job.setStatus(RalieImportJobEntity.Status.FAILED);
+            job.setMessage("Interrompido pela reinicialização da aplicação");
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        if (!interrupted.isEmpty()) {
+            repository.saveAll(interrupted);
+            log.warn("{} jobs de importação interrompidos pela reinicialização", interrupted.size());
+        }
+    }
+
+    public RalieImportJobDTO start() {
+        RalieImportJobEntity job = new RalieImportJobEntity();
+        job.setId(UUID.randomUUID().toString());
+        job.setStatus(RalieImportJobEntity.Status.QUEUED);
+        job.setOwnerId(refreshLease.getOwnerId());
+        repository.save(job);
+
+        RalieImportProgress progress = new RalieImportProgress();
+        repository.findTopByStatusAndRowsParsedGreaterThanOrderByCreatedAtDesc(RalieImportJobEntity.Status.SUCCEEDED, 0)
+                .ifPresent(previous -> progress.expectRows(previous.getRowsParsed()));
+        RalieImportJobDTO created = RalieImportJobDTO.fromEntity(job, progress);
+        activeJobs.put(job.getId(), progress);
+        executor.execute(() -> run(job, progress));
+
+        log.info("Job de importação {} criado", job.getId());
+        return created;
+    }
+
+    public Optional<RalieImportJobDTO> find(String id) {
+        return repository.findById(id)
+                .map(job -> RalieImportJobDTO.fromEntity(job, activeJobs.get(id)));
+    }
+
+    public List<RalieImportJobDTO> findRecent() {
+        return repository.findTop20ByOrderByCreatedAtDesc().stream()
+                .map(job -> RalieImportJobDTO.fromEntity(job, activeJobs.get(job.getId())))
+                .toList();
+    }
+
+    /**
+     * Pede o cancelamento de um job na fila ou em execução. O job para no próximo ponto de
+     * verificação e, se estiver importando, mantém a versão dos dados já publicada.
+     *
+     * @return {@code false} se o job não está mais ativo
+     */
+    public boolean cancel(String id) {
+        RalieImportProgress progress = activeJobs.get(id);
+        if (progress == null) {
+            return false;
+        }
+        progress.cancel();
+        log.info("Cancelamento do job de importação {} solicitado", id);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        activeJobs.values().forEach(RalieImportProgress::cancel);
+        executor.shutdownNow();
+    }
+
+    private void run(RalieImportJobEntity job, RalieImportProgress progress) {
+        try {
+            if (progress.isCancelled()) {
+                finish(job, progress, RalieImportJobEntity.Status.CANCELLED, "Cancelado antes de iniciar");
+                return;
+            }
+            job.setStatus(RalieImportJobEntity.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            repository.save(job);
+
+            String filePath = aneelRalieService.downloadRalieCsv(progress);
+            job.setFilePath(filePath);
+            RalieImportResult importResult = progress.importResult();
+            finish(job, progress, RalieImportJobEntity.Status.SUCCEEDED, importResult != null
+                    ? "Arquivo importado"
+                    : "Arquivo sem alterações desde a última importação");
+        } catch (Exception e) {
+            if (progress.isCancelled()) {
+                finish(job, progress, RalieImportJobEntity.Status.CANCELLED, "Cancelado");
+            } else {
+                log.error("Job de importação {} falhou: {}", job.getId(), e.getMessage(), e);
+                finish(job, progress, RalieImportJobEntity.Status.FAILED, e.getMessage());
+            }
+        } finally {
+            activeJobs.remove(job.getId());
+        }
+    }
+
+    private void finish(RalieImportJobEntity job, RalieImportProgress progress,
+                        RalieImportJobEntity.Status status, String message) {
+        progress.complete();
+        job.setStatus(status);
+        job.setMessage(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+        job.setFinishedAt(LocalDateTime.now());
+        if (progress.phase() != null) {
+            job.setPhase(progress.phase().name());
+        }
+        job.setBytesDownloaded(progress.bytesDownloaded());
+        job.setBytesTotal(progress.bytesTotal());
+        job.setRowsParsed(progress.rowsParsed());
+        job.setRowsWritten(progress.rowsWritten());
+        job.setRowsPerSecond(progress.rowsPerSecond());
+        job.setDownloadMillis(progress.downloadMillis());
+        job.setImportMillis(progress.importMillis());
+
+        RalieImportResult importResult = progress.importResult();
+        if (importResult != null) {
+            job.setDatasetVersion(importResult.datasetVersion());
+            job.setInserted(importResult.inserted());
+            job.setUpdated(importResult.updated());
+            job.setDeleted(importResult.deleted());
+            job.setUnchanged(importResult.unchanged());
+        }
+        try {
+            repository.save(job);
+        } catch (Exception e) {
+            log.error("Não foi possível registrar o fim do job de importação {}: {}", job.getId(), e.getMessage(), e);
+        }
+        log.info("Job de importação {} finalizado: {} ({})", job.getId(), status, job.getMessage());
+    }
+}
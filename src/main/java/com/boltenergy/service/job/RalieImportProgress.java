@@ -0,0 +1,276 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.exception.RalieImportCancelledException;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.service.pipeline.RalieImportPipeline;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Andamento de uma atualização do RALIE (download, importação e publicação), atualizado pelas
+ * etapas enquanto executam e lido por outras threads. Também carrega o pedido de cancelamento:
+ * as etapas chamam {@link #checkCancelled()} a cada bloco baixado e a cada registro importado,
+ * e param com {@link RalieImportCancelledException} no primeiro ponto após o pedido.
+ *
+ * <p>Quem não acompanha o andamento usa {@link #untracked()}. Quem aguarda uma atualização já em
+ * andamento passa a refletir o andamento dela com {@link #follow(RalieImportProgress)}.
+ */
+public class RalieImportProgress {
+
+    public enum Phase {
+        DOWNLOADING,
+        IMPORTING,
+        PUBLISHING
+    }
+
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile long bytesTotal = -1;
+    private volatile long expectedRows = -1;
+    private volatile Phase phase;
+    private volatile long downloadStartNanos;
+    private volatile long downloadEndNanos;
+    private volatile long importStartNanos;
+    private volatile long importEndNanos;
+    private volatile long publishStartNanos;
+    private volatile long publishEndNanos;
+    private volatile RalieImportResult importResult;
+    private volatile RalieImportPipeline<?> pipeline;
+    private volatile long heapAfterGc = -1;
+    private final Map<String, Long> parseFailures = new ConcurrentHashMap<>();
+    private volatile boolean cancelled;
+    private volatile RalieImportProgress leader;
+
+    public static RalieImportProgress untracked() {
+        return new RalieImportProgress();
+    }
+
+    public void phase(Phase phase) {
+        long now = System.nanoTime();
+        Phase previous = this.phase;
+        if (previous == Phase.DOWNLOADING) {
+            downloadEndNanos = now;
+        } else if (previous == Phase.IMPORTING) {
+            importEndNanos = now;
+        } else if (previous == Phase.PUBLISHING) {
+            publishEndNanos = now;
+        }
+        if (phase == Phase.DOWNLOADING) {
+            downloadStartNanos = now;
+        } else if (phase == Phase.IMPORTING) {
+            importStartNanos = now;
+        } else if (phase == Phase.PUBLISHING) {
+            publishStartNanos = now;
+        }
+        this.phase = phase;
+    }
+
+    /**
+     * Encerra a contagem de tempo da fase atual, mantendo-a como a última fase executada.
+     */
+    public void complete() {
+        long now = System.nanoTime();
+        if (phase == Phase.DOWNLOADING && downloadEndNanos < downloadStartNanos) {
+            downloadEndNanos = now;
+        } else if (phase == Phase.IMPORTING && importEndNanos < importStartNanos) {
+            importEndNanos = now;
+        } else if (phase == Phase.PUBLISHING && publishEndNanos < publishStartNanos) {
+            publishEndNanos = now;
+        }
+    }
+
+    public Phase phase() {
+        return view().phase;
+    }
+
+    /**
+     * Passa a informar o andamento de {@code leader}, a atualização em andamento à qual este
+     * chamador se juntou. O cancelamento continua individual: cancelar este andamento só deixa
+     * de aguardar, sem interromper a atualização.
+     */
+    public void follow(RalieImportProgress leader) {
+        if (leader != this) {
+            this.leader = leader;
+        }
+    }
+
+    /**
+     * Início (ou reinício) de uma transferência a partir de {@code offset}, com o tamanho total
+     * do arquivo, ou -1 se o servidor não o informou.
+     */
+    public void startTransfer(long offset, long total) {
+        bytesDownloaded.set(offset);
+        bytesTotal = total;
+    }
+
+    public void addBytesDownloaded(long bytes) {
+        bytesDownloaded.addAndGet(bytes);
+    }
+
+    public void addRowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    public void addRowsParsed(long rows) {
+        rowsParsed.addAndGet(rows);
+    }
+
+    public void addRowsWritten(long rows) {
+        rowsWritten.addAndGet(rows);
+    }
+
+    /**
+     * Número de registros esperado no arquivo, usado para estimar o tempo restante da importação.
+     */
+    public void expectRows(long rows) {
+        expectedRows = rows;
+    }
+
+    /**
+     * Resultado da importação, quando o arquivo baixado foi importado.
+     */
+    public void importResult(RalieImportResult importResult) {
+        this.importResult = importResult;
+    }
+
+    public RalieImportResult importResult() {
+        return view().importResult;
+    }
+
+    /**
+     * Pipeline de leitura e gravação da importação em andamento, para acompanhar a ocupação de
+     * cada etapa e a fila entre elas.
+     */
+    public void pipeline(RalieImportPipeline<?> pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Valores que não puderam ser convertidos na importação, por coluna do CSV.
+     */
+    public void addParseFailures(Map<String, Long> failures) {
+        failures.forEach((column, count) -> parseFailures.merge(column, count, Long::sum));
+    }
+
+    public Map<String, Long> parseFailures() {
+        return Map.copyOf(view().parseFailures);
+    }
+
+    /**
+     * Heap ocupado após a última coleta de lixo, medido pela importação a cada lote gravado.
+     */
+    public void heapAfterGc(long bytes) {
+        heapAfterGc = bytes;
+    }
+
+    /**
+     * Último heap após a coleta de lixo medido pela importação, ou -1 antes do primeiro lote.
+     */
+    public long heapAfterGc() {
+        return view().heapAfterGc;
+    }
+
+    /**
+     * Situação atual do pipeline da importação, ou {@code null} se ele não foi usado.
+     */
+    public RalieImportPipeline.Snapshot pipelineSnapshot() {
+        RalieImportPipeline<?> current = view().pipeline;
+        return current != null ? current.snapshot() : null;
+    }
+
+    public long bytesDownloaded() {
+        return view().bytesDownloaded.get();
+    }
+
+    public long bytesTotal() {
+        return view().bytesTotal;
+    }
+
+    public long rowsParsed() {
+        return view().rowsParsed.get();
+    }
+
+    public long rowsWritten() {
+        return view().rowsWritten.get();
+    }
+
+    public long downloadMillis() {
+        RalieImportProgress source = view();
+        return elapsedMillis(source.downloadStartNanos, source.downloadEndNanos);
+    }
+
+    public long importMillis() {
+        RalieImportProgress source = view();
+        return elapsedMillis(source.importStartNanos, source.importEndNanos);
+    }
+
+    public long publishMillis() {
+        RalieImportProgress source = view();
+        return elapsedMillis(source.publishStartNanos, source.publishEndNanos);
+    }
+
+    /**
+     * Registros lidos por segundo desde o início da importação.
+     */
+    public double rowsPerSecond() {
+        long millis = importMillis();
+        return millis > 0 ? rowsParsed() * 1000.0 / millis : 0;
+    }
+
+    /**
+     * Estimativa em segundos para o fim da fase atual: pelos bytes restantes durante o download
+     * e pelos registros restantes, em relação a {@link #expectRows(long)}, durante a importação.
+     * {@code null} quando não há base para estimar.
+     */
+    public Long etaSeconds() {
+        RalieImportProgress source = view();
+        Phase current = source.phase;
+        if (current == Phase.DOWNLOADING) {
+            long millis = downloadMillis();
+            long done = bytesDownloaded();
+            return estimate(bytesTotal() - done, millis > 0 ? done * 1000.0 / millis : 0);
+        }
+        if (current == Phase.IMPORTING) {
+            long expected = source.expectedRows >= 0 ? source.expectedRows : expectedRows;
+            return estimate(expected - rowsParsed(), rowsPerSecond());
+        }
+        return null;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new RalieImportCancelledException("Atualização do RALIE cancelada");
+        }
+    }
+
+    private RalieImportProgress view() {
+        RalieImportProgress current = leader;
+        return current != null ? current : this;
+    }
+
+    private static Long estimate(long remaining, double perSecond) {
+        if (remaining < 0 || perSecond <= 0) {
+            return null;
+        }
+        return (long) Math.ceil(remaining / perSecond);
+    }
+
+    private static long elapsedMillis(long startNanos, long endNanos) {
+        if (startNanos == 0) {
+            return 0;
+        }
+        long end = endNanos >= startNanos ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,144 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.exception.RalieDownloadException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Garante uma única atualização do RALIE em andamento por vez (single-flight). O agendamento,
+ * o endpoint de download e os jobs passam por {@link #refresh}: o primeiro chamador executa a
+ * atualização e os que chegam enquanto ela está em andamento aguardam e recebem o mesmo
+ * resultado, ou a mesma exceção, em vez de baixar e importar o arquivo de novo.
+ *
+ * <p>As operações que trocam as tabelas publicadas fora de uma atualização (restauração da versão
+ * anterior, reprocessamento das maiores geradoras) passam por {@link #runAlone(Runnable)}: não
+ * começam com uma atualização em andamento, e as atualizações que chegam enquanto elas rodam
+ * esperam o fim delas para começar.
+ */
+@Slf4j
+@Component
+public class RalieRefreshCoordinator {
+
+    private static final long WAIT_POLL_MILLIS = 200;
+
+    private final AtomicReference<Flight> inFlight = new AtomicReference<>();
+
+    public String refresh(RalieImportProgress progress, Function<RalieImportProgress, String> refresh) {
+        Flight flight = new Flight(progress, false);
+        Flight current;
+        while ((current = inFlight.compareAndExchange(null, flight)) != null) {
+            if (!current.alone) {
+                return await(current, progress);
+            }
+            awaitEnd(current, progress);
+        }
+
+        try {
+            String result = refresh.apply(progress);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.compareAndSet(flight, null);
+        }
+    }
+
+    /**
+     * Executa {@code task} sem nenhuma atualização em andamento nesta instância. Se houver uma,
+     * lança {@link RalieDownloadException} sem executar nada.
+     */
+    public void runAlone(Runnable task) {
+        Flight flight = new Flight(RalieImportProgress.untracked(), true);
+        if (inFlight.compareAndExchange(null, flight) != null) {
+            throw new RalieDownloadException("Atualização do RALIE em andamento nesta instância; tente novamente quando ela terminar");
+        }
+        try {
+            task.run();
+        } finally {
+            flight.result.complete(null);
+            inFlight.compareAndSet(flight, null);
+        }
+    }
+
+    public boolean isRunning() {
+        return inFlight.get() != null;
+    }
+
+    /**
+     * Chamadores aguardando a atualização em andamento, sem contar quem a executa.
+     */
+    public int waiting() {
+        Flight current = inFlight.get();
+        return current != null ? current.followers.get() : 0;
+    }
+
+    private String await(Flight flight, RalieImportProgress progress) {
+        log.info("Atualização do RALIE já em andamento; aguardando o resultado dela");
+        progress.follow(flight.progress);
+        flight.followers.incrementAndGet();
+        try {
+            while (true) {
+                progress.checkCancelled();
+                try {
+                    return flight.result.get(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // continua aguardando
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a atualização do RALIE", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            flight.followers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Aguarda o fim de uma operação de {@link #runAlone(Runnable)}, que não tem resultado a
+     * compartilhar.
+     */
+    private void awaitEnd(Flight flight, RalieImportProgress progress) {
+        log.info("Operação nas tabelas publicadas em andamento; a atualização começa quando ela terminar");
+        while (!flight.result.isDone()) {
+            progress.checkCancelled();
+            try {
+                flight.result.get(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // continua aguardando; a operação sempre termina com resultado nulo
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando a operação nas tabelas publicadas", e);
+            }
+        }
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+        private final RalieImportProgress progress;
+        private final boolean alone;
+
+        private Flight(RalieImportProgress progress, boolean alone) {
+            this.progress = progress;
+            this.alone = alone;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.config.RalieLeaseProperties;
+import com.boltenergy.exception.RalieLeaseException;
+import com.boltenergy.model.RalieLease;
+import com.boltenergy.repository.RalieLeaseTable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Exclusão da atualização do RALIE entre as instâncias que usam o mesmo banco. O
+ * {@link RalieRefreshCoordinator} garante uma atualização por instância; este lease garante uma
+ * no conjunto. A instância que o obtém o renova em segundo plano enquanto a atualização roda;
+ * se ela parar, o lease expira depois de {@code ralie.lease.ttl} e outra instância pode assumir.
+ *
+ * <p>Uma instância que perde o lease (por uma pausa longa, por exemplo) tem a atualização
+ * cancelada na renovação seguinte. As escritas que alteram a versão publicada ou os metadados
+ * passam por {@link #fenced(Runnable)} ou {@link #fencedWithoutTransaction(Predicate)}, que
+ * conferem o fencing token no banco junto com a própria escrita.
+ */
+@Slf4j
+@Component
+public class RalieRefreshLease {
+
+    static final String LEASE_NAME = "ralie-refresh";
+
+    private final RalieLeaseTable leaseTable;
+    private final RalieLeaseProperties properties;
+    private final String ownerId;
+    private final AtomicReference<Held> held = new AtomicReference<>();
+    private final ScheduledExecutorService renewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ralie-lease-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RalieRefreshLease(RalieLeaseTable leaseTable, RalieLeaseProperties properties) {
+        this.leaseTable = leaseTable;
+        this.properties = properties;
+        this.ownerId = properties.getOwnerId() != null ? properties.getOwnerId() : defaultOwnerId();
+    }
+
+    /**
+     * Executa {@code task} com o lease da atualização. Se outra instância o detém, lança
+     * {@link RalieLeaseException} sem executar nada.
+     */
+    public <T> T runExclusive(RalieImportProgress progress, Function<RalieImportProgress, T> task) {
+        if (!properties.isEnabled()) {
+            return task.apply(progress);
+        }
+
+        Duration ttl = properties.getTtl();
+        RalieLease lease = leaseTable.tryAcquire(LEASE_NAME, ownerId, ttl)
+                .orElseThrow(() -> new RalieLeaseException(String.format(
+                        "Atualização do RALIE em andamento em outra instância (%s)",
+                        leaseTable.currentOwner(LEASE_NAME).orElse("dono desconhecido"))));
+        log.info("Lease {} obtido por {} (fencing token {})", LEASE_NAME, ownerId, lease.fencingToken());
+
+        Held current = new Held(lease);
+        held.set(current);
+        long interval = properties.getRenewInterval().toMillis();
+        ScheduledFuture<?> renewal = renewals.scheduleWithFixedDelay(
+                () -> renew(current, progress), interval, interval, TimeUnit.MILLISECONDS);
+        try {
+            return task.apply(progress);
+        } finally {
+            renewal.cancel(false);
+            held.compareAndSet(current, null);
+            release(lease);
+        }
+    }
+
+    /**
+     * Como {@link #runExclusive(RalieImportProgress, Function)}, para operações sem resultado e
+     * sem andamento a informar.
+     */
+    public void runExclusive(Runnable task) {
+        runExclusive(RalieImportProgress.untracked(), progress -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Confere, no banco, que esta instância ainda detém o lease com o mesmo fencing token,
+     * estendendo sua validade. Sem uma atualização com lease em andamento, não faz nada.
+     */
+    public void checkHeld() {
+        Held current = held.get();
+        if (current == null) {
+            return;
+        }
+        if (current.lost || !leaseTable.renew(current.lease, properties.getTtl())) {
+            throw lost(current);
+        }
+    }
+
+    /**
+     * Executa {@code write} em uma transação que começa por {@link #checkHeld()}. O
+     * {@code UPDATE} condicional da renovação mantém a linha do lease bloqueada até o fim da
+     * transação, então nenhuma outra instância obtém o lease antes de a escrita ser confirmada ou
+     * desfeita. {@code write} precisa participar da transação em andamento.
+     */
+    @Transactional
+    public void fenced(Runnable write) {
+        checkHeld();
+        write.run();
+    }
+
+    /**
+     * Para escritas que não podem rodar em uma transação, como o {@code RENAME TABLE} do MySQL:
+     * {@code write} recebe o lease desta instância ({@code null} sem atualização com lease em
+     * andamento), confere o fencing token junto com a escrita e devolve {@code false} se ele não
+     * era mais o atual.
+     */
+    public void fencedWithoutTransaction(Predicate<RalieLease> write) {
+        checkHeld();
+        Held current = held.get();
+        if (!write.test(current == null ? null : current.lease)) {
+            throw lost(current);
+        }
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewals.shutdownNow();
+    }
+
+    private void renew(Held current, RalieImportProgress progress) {
+        try {
+            if (!leaseTable.renew(current.lease, properties.getTtl())) {
+                current.lost = true;
+                log.error("Lease {} expirou e foi obtido por outra instância (fencing token {}); cancelando a atualização",
+                        LEASE_NAME, current.lease.fencingToken());
+                progress.cancel();
+            }
+        } catch (RuntimeException e) {
+            // O lease continua válido até expirar; a próxima renovação tenta de novo
+            log.warn("Falha ao renovar o lease {}: {}", LEASE_NAME, e.getMessage());
+        }
+    }
+
+    private void release(RalieLease lease) {
+        try {
+            leaseTable.release(lease);
+            log.info("Lease {} liberado (fencing token {})", LEASE_NAME, lease.fencingToken());
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível liberar o lease {}; ele expira em {}: {}",
+                    LEASE_NAME, properties.getTtl(), e.getMessage());
+        }
+    }
+
+    private static RalieLeaseException lost(Held current) {
+        long fencingToken = -1;
+        if (current != null) {
+            current.lost = true;
+            fencingToken = current.lease.fencingToken();
+        }
+        return new RalieLeaseException(String.format(
+                "Lease %s perdido (fencing token %d); a versão publicada não foi alterada por esta instância",
+                LEASE_NAME, fencingToken));
+    }
+
+    private static String defaultOwnerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "desconhecido";
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static final class Held {
+        private final RalieLease lease;
+        private volatile boolean lost;
+
+        private Held(RalieLease lease) {
+            this.lease = lease;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.boltenergy.service.metrics;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieImportCancelledException;
+import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.service.RalieMetadataService;
+import com.boltenergy.service.download.RalieDownloadResult;
+import com.boltenergy.service.job.RalieImportProgress;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Métricas da atualização do RALIE, publicadas em {@code /actuator/metrics} e
+ * {@code /actuator/prometheus}:
+ *
+ * <ul>
+ *   <li>{@code ralie.download.bytes}, {@code ralie.download.duration} (tag {@code outcome}:
+ *       {@code modified} ou {@code not_modified}) e {@code ralie.download.throughput} em bytes/s;</li>
+ *   <li>{@code ralie.refresh.duration}, do início do download ao fim da publicação, com a tag
+ *       {@code outcome}: {@code updated}, {@code unchanged}, {@code failed} ou {@code cancelled};</li>
+ *   <li>{@code ralie.refresh.phase.duration} com as tags {@code phase} ({@code download},
+ *       {@code import} ou {@code publish}) e {@code engine};</li>
+ *   <li>{@code ralie.import.rows.parsed}, {@code ralie.import.rows.written} e
+ *       {@code ralie.import.rows.throughput} (registros lidos por segundo), com as tags
+ *       {@code engine} e {@code mode};</li>
+ *   <li>{@code ralie.import.parse.failures}, valores que não puderam ser convertidos, com a tag
+ *       {@code column};</li>
+ *   <li>{@code ralie.aggregation.duration}, montagem da tabela de potência gerada, com a tag
+ *       {@code publish};</li>
+ *   <li>{@code ralie.dataset.age}, segundos desde o download do arquivo publicado.</li>
+ * </ul>
+ *
+ * <p>Como só a instância com o lease atualiza os metadados, {@code ralie.dataset.age} lê o
+ * horário do download dos metadados no banco, relidos no máximo a cada
+ * {@link #DATASET_RELOAD_INTERVAL}; assim todas as instâncias informam a mesma idade.
+ *
+ * <p>O tempo de gravação de cada lote fica em {@code ralie.import.batch.write}, registrado pelo
+ * {@link com.boltenergy.service.pipeline.RalieBatchSizer}.
+ */
+@Slf4j
+@Component
+public class RalieImportMetrics {
+
+    static final Duration DATASET_RELOAD_INTERVAL = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+    private final RalieImportProperties importProperties;
+    private final RalieMetadataService metadataService;
+    private final Clock clock;
+    private final AtomicReference<DatasetDownload> datasetDownload = new AtomicReference<>();
+
+    @Autowired
+    public RalieImportMetrics(MeterRegistry meterRegistry, RalieImportProperties importProperties,
+                              RalieMetadataService metadataService) {
+        this(meterRegistry, importProperties, metadataService, Clock.systemDefaultZone());
+    }
+
+    RalieImportMetrics(MeterRegistry meterRegistry, RalieImportProperties importProperties,
+                       RalieMetadataService metadataService, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.importProperties = importProperties;
+        this.metadataService = metadataService;
+        this.clock = clock;
+        Gauge.builder("ralie.dataset.age", this, RalieImportMetrics::datasetAgeSeconds)
+                .description("Segundos desde o download do arquivo RALIE publicado")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra uma requisição de download que levou {@code nanos}, com ou sem arquivo novo.
+     */
+    public void download(RalieDownloadResult download, long nanos) {
+        String outcome = download.notModified() ? "not_modified" : "modified";
+        Timer.builder("ralie.download.duration")
+                .description("Tempo de download do arquivo RALIE")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (download.notModified()) {
+            return;
+        }
+        Counter.builder("ralie.download.bytes")
+                .description("Bytes baixados do arquivo RALIE")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .increment(download.size());
+        if (nanos > 0) {
+            DistributionSummary.builder("ralie.download.throughput")
+                    .description("Vazão do download do arquivo RALIE")
+                    .baseUnit("bytes.per.second")
+                    .register(meterRegistry)
+                    .record(download.size() * 1e9 / nanos);
+        }
+    }
+
+    /**
+     * Registra uma atualização encerrada após {@code nanos}, com a duração de cada etapa e os
+     * registros lidos e gravados informados em {@code progress}. {@code failure} é {@code null}
+     * quando a atualização terminou normalmente.
+     */
+    public void refresh(RalieImportProgress progress, long nanos, Throwable failure) {
+        Timer.builder("ralie.refresh.duration")
+                .description("Tempo total da atualização do RALIE")
+                .tag("outcome", outcome(progress, failure))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        String engine = tagValue(importProperties.getEngine());
+        phase("download", engine, progress.downloadMillis());
+        phase("import", engine, progress.importMillis());
+        phase("publish", engine, progress.publishMillis());
+
+        String mode = tagValue(importProperties.getMode());
+        Counter.builder("ralie.import.rows.parsed")
+                .description("Registros lidos do arquivo RALIE")
+                .tags("engine", engine, "mode", mode)
+                .register(meterRegistry)
+                .increment(progress.rowsParsed());
+        Counter.builder("ralie.import.rows.written")
+                .description("Registros gravados pela importação do RALIE")
+                .tags("engine", engine, "mode", mode)
+                .register(meterRegistry)
+                .increment(progress.rowsWritten());
+        if (progress.rowsParsed() > 0 && progress.importMillis() > 0) {
+            DistributionSummary.builder("ralie.import.rows.throughput")
+                    .description("Registros lidos por segundo na importação do RALIE")
+                    .baseUnit("rows.per.second")
+                    .tags("engine", engine, "mode", mode)
+                    .register(meterRegistry)
+                    .record(progress.rowsPerSecond());
+        }
+
+        for (Map.Entry<String, Long> failures : progress.parseFailures().entrySet()) {
+            Counter.builder("ralie.import.parse.failures")
+                    .description("Valores do CSV que não puderam ser convertidos")
+                    .tag("column", failures.getKey())
+                    .register(meterRegistry)
+                    .increment(failures.getValue());
+        }
+    }
+
+    /**
+     * Registra a montagem da tabela de potência gerada, que levou {@code nanos}.
+     */
+    public void aggregation(RalieImportProperties.Publish publish, long nanos) {
+        Timer.builder("ralie.aggregation.duration")
+                .description("Tempo de montagem da tabela de potência gerada")
+                .tag("publish", tagValue(publish))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Atualiza a idade do conjunto de dados com os metadados do arquivo publicado.
+     */
+    public void dataset(RalieMetadata metadata) {
+        datasetDownload.set(new DatasetDownload(metadata.getLastDownloadTime(), clock.instant()));
+    }
+
+    private void phase(String phase, String engine, long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        Timer.builder("ralie.refresh.phase.duration")
+                .description("Tempo de cada etapa da atualização do RALIE")
+                .tags("phase", phase, "engine", engine)
+                .register(meterRegistry)
+                .record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private double datasetAgeSeconds() {
+        DatasetDownload current = datasetDownload.get();
+        if (current == null || current.loadedAt().plus(DATASET_RELOAD_INTERVAL).isBefore(clock.instant())) {
+            current = reloadDataset(current);
+        }
+        if (current == null || current.time() == null) {
+            return Double.NaN;
+        }
+        return Duration.between(current.time(), LocalDateTime.now(clock)).toMillis() / 1000.0;
+    }
+
+    private DatasetDownload reloadDataset(DatasetDownload previous) {
+        try {
+            dataset(metadataService.loadMetadata());
+            return datasetDownload.get();
+        } catch (RuntimeException e) {
+            // Mantém o último valor lido; a próxima leitura da métrica tenta de novo
+            log.warn("Não foi possível ler os metadados do RALIE para a idade do conjunto de dados: {}", e.getMessage());
+            return previous;
+        }
+    }
+
+    private static String outcome(RalieImportProgress progress, Throwable failure) {
+        if (failure == null) {
+            return progress.importResult() != null ? "updated" : "unchanged";
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RalieImportCancelledException) {
+                return "cancelled";
+            }
+        }
+        return "failed";
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private record DatasetDownload(LocalDateTime time, Instant loadedAt) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.boltenergy.service.pipeline;
+
+import com.boltenergy.config.RalieImportProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tamanho dos lotes gravados pela importação, ajustado pelo tempo de gravação de cada lote
+ * (aumento aditivo, redução multiplicativa). Um lote que passa de
+ * {@code ralie.import.batch.target-latency} reduz o tamanho pelo {@code decrease-factor}; abaixo
+ * do limite, o tamanho cresce {@code increase-step} registros enquanto os registros por segundo
+ * não caem em relação ao tamanho anterior, e volta um passo quando caem. O tamanho é mantido
+ * entre importações, então cada ambiente (MySQL local, gerenciado remoto ou H2) converge para o
+ * seu próprio valor.
+ *
+ * <p>O tamanho atual é publicado em {@code ralie.import.batch.size} e o tempo de cada lote em
+ * {@code ralie.import.batch.write}, com a tag {@code engine}.
+ */
+@Slf4j
+@Component
+public class RalieBatchSizer {
+
+    /** Queda de registros por segundo tolerada antes de desfazer um aumento, por causa do ruído. */
+    private static final double THROUGHPUT_TOLERANCE = 0.1;
+
+    private final RalieImportProperties importProperties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger size;
+    private int previousSize;
+    private double previousRowsPerSecond;
+
+    public RalieBatchSizer(RalieImportProperties importProperties, MeterRegistry meterRegistry) {
+        this.importProperties = importProperties;
+        this.meterRegistry = meterRegistry;
+        this.size = new AtomicInteger(clamp(importProperties.getBatch().getSize()));
+        Gauge.builder("ralie.import.batch.size", size, AtomicInteger::get)
+                .description("Registros por lote gravado pela importação do RALIE")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Número de registros do próximo lote.
+     */
+    public int size() {
+        return importProperties.getBatch().isAdaptive() ? size.get() : importProperties.getBatch().getSize();
+    }
+
+    /**
+     * Registra a gravação de um lote de {@code rows} registros em {@code nanos} pelo
+     * {@code engine} e ajusta o tamanho. Lotes com menos da metade do tamanho atual, como o último
+     * do arquivo, não mudam o tamanho.
+     */
+    public synchronized void record(RalieImportProperties.Engine engine, int rows, long nanos) {
+        Timer.builder("ralie.import.batch.write")
+                .description("Tempo de gravação de cada lote da importação do RALIE")
+                .tag("engine", engine.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        RalieImportProperties.Batch settings = importProperties.getBatch();
+        int current = size.get();
+        if (!settings.isAdaptive() || rows < current / 2 || nanos <= 0) {
+            return;
+        }
+
+        double rowsPerSecond = rows * 1e9 / nanos;
+        int next;
+        if (nanos > settings.getTargetLatency().toNanos()) {
+            next = clamp((int) (current * settings.getDecreaseFactor()));
+        } else if (previousSize < current && rowsPerSecond < previousRowsPerSecond * (1 - THROUGHPUT_TOLERANCE)) {
+            // O aumento anterior piorou a vazão
+            next = previousSize;
+        } else {
+            next = clamp(current + settings.getIncreaseStep());
+        }
+
+        previousSize = current;
+        previousRowsPerSecond = rowsPerSecond;
+        if (next != current) {
+            size.set(next);
+            log.debug("Lote de {} registros gravado em {} ms ({} registros/s); próximo lote: {}",
+                    rows, nanos / 1_000_000, (long) rowsPerSecond, next);
+        }
+    }
+
+    private int clamp(int value) {
+        RalieImportProperties.Batch settings = importProperties.getBatch();
+        return Math.max(settings.getMinSize(), Math.min(settings.getMaxSize(), value));
+    }
+}
@@ -0,0 +1,31 @@
+package com.boltenergy.service.pipeline;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+/**
+ * Heap ocupado após a última coleta de lixo de cada área do heap. Diferente do heap em uso, que
+ * sobe e desce com os objetos temporários de cada lote, esse valor só cresce se a importação
+ * retiver objetos entre os lotes.
+ */
+public final class RalieHeapUsage {
+
+    private RalieHeapUsage() {
+    }
+
+    public static long afterLastGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,263 @@
+package com.boltenergy.service.pipeline;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipeline entre a leitura do arquivo e a gravação no banco. A leitura roda em uma thread
+ * própria e entrega lotes prontos em uma fila limitada a {@code queueCapacity} lotes; as etapas
+ * de gravação esvaziam a fila. A primeira gravação roda na thread que chamou {@link #run}, que
+ * continua dona da transação da importação; as demais, quando houver, em threads próprias.
+ *
+ * <p>Com a fila cheia, a leitura aguarda, então no máximo {@code queueCapacity} lotes, mais um
+ * em cada gravação e o que está sendo montado, ficam em memória. A primeira falha de qualquer
+ * etapa interrompe as outras e é lançada por {@link #run}. Cada etapa mede o tempo ocupado e o
+ * tempo aguardando a outra, e a fila registra a sua profundidade a cada lote, o que mostra qual
+ * etapa limita a importação ({@link #snapshot()}).
+ */
+public final class RalieImportPipeline<T> {
+
+    @FunctionalInterface
+    public interface Source<T> {
+        void produce(Sink<T> sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Sink<T> {
+        void accept(T batch) throws IOException;
+    }
+
+    private static final Object END = new Object();
+    private static final long POLL_MILLIS = 50;
+
+    private final int queueCapacity;
+    private final BlockingQueue<Object> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Stage reader = new Stage("leitura");
+    private final List<Stage> writers = new ArrayList<>();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile long depthSamples;
+    private volatile long depthTotal;
+
+    public RalieImportPipeline(int queueCapacity, int writers) {
+        if (queueCapacity < 1 || writers < 1) {
+            throw new IllegalArgumentException("A fila e a gravação precisam de pelo menos uma posição e uma thread");
+        }
+        this.queueCapacity = queueCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < writers; i++) {
+            this.writers.add(new Stage(writers == 1 ? "gravação" : "gravação " + (i + 1)));
+        }
+    }
+
+    /**
+     * Executa {@code source}, que entrega os lotes ao {@link Sink} recebido, e grava cada lote com
+     * {@code writer}. Retorna depois que todos os lotes foram gravados, ou lança a primeira falha
+     * de qualquer etapa depois que todas pararam.
+     */
+    public void run(Source<T> source, Sink<T> writer) throws Exception {
+        Thread producer = start("ralie-import-reader", () -> produce(source));
+        List<Thread> threads = new ArrayList<>(List.of(producer));
+        for (int i = 1; i < writers.size(); i++) {
+            Stage stage = writers.get(i);
+            threads.add(start("ralie-import-writer-" + i, () -> consume(stage, writer)));
+        }
+        consume(writers.get(0), writer);
+
+        for (Thread thread : threads) {
+            join(thread);
+        }
+        // Sobram o marcador de fim ou, após uma falha, lotes que não serão gravados
+        queue.clear();
+        Throwable error = failure.get();
+        if (error instanceof Exception exception) {
+            throw exception;
+        }
+        if (error instanceof Error e) {
+            throw e;
+        }
+    }
+
+    public Snapshot snapshot() {
+        long samples = depthSamples;
+        List<StageSnapshot> writerSnapshots = writers.stream().map(Stage::snapshot).toList();
+        return new Snapshot(queueCapacity, queue.size(), maxQueueDepth.get(),
+                samples > 0 ? (double) depthTotal / samples : 0, reader.snapshot(), writerSnapshots);
+    }
+
+    private void produce(Source<T> source) {
+        reader.begin();
+        try {
+            source.produce(this::enqueue);
+            offer(END, reader);
+        } catch (Aborted e) {
+            // outra etapa falhou e a falha dela é a que será lançada
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            reader.end();
+        }
+    }
+
+    private void enqueue(T batch) throws IOException {
+        try {
+            offer(batch, reader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura interrompida aguardando espaço na fila de gravação");
+        }
+        reader.batches++;
+        int depth = queue.size();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        depthTotal += depth;
+        depthSamples++;
+    }
+
+    private void offer(Object item, Stage stage) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    throw new Aborted();
+                }
+            }
+        } finally {
+            stage.waitingNanos += System.nanoTime() - start;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume(Stage stage, Sink<T> writer) {
+        stage.begin();
+        try {
+            while (failure.get() == null) {
+                long start = System.nanoTime();
+                Object item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                stage.waitingNanos += System.nanoTime() - start;
+                if (item == END) {
+                    // Devolve o marcador para as demais gravações; a posição acabou de ser liberada
+                    queue.offer(END);
+                    return;
+                }
+                if (item != null && failure.get() == null) {
+                    writer.accept((T) item);
+                    stage.batches++;
+                }
+            }
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            stage.end();
+        }
+    }
+
+    private void fail(Throwable t) {
+        failure.compareAndSet(null, t);
+    }
+
+    private Thread start(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void join(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                fail(e);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Interrompe a leitura quando outra etapa já falhou.
+     */
+    private static final class Aborted extends RuntimeException {
+        Aborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Tempos de uma etapa. Cada campo é escrito só pela thread da etapa e lido por qualquer uma.
+     */
+    private static final class Stage {
+
+        private final String name;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile long waitingNanos;
+        private volatile long batches;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        void begin() {
+            startNanos = System.nanoTime();
+        }
+
+        void end() {
+            endNanos = System.nanoTime();
+        }
+
+        StageSnapshot snapshot() {
+            long start = startNanos;
+            if (start == 0) {
+                return new StageSnapshot(name, 0, 0, 0);
+            }
+            long end = endNanos >= start ? endNanos : System.nanoTime();
+            long elapsed = Math.max(end - start, 1);
+            double waiting = Math.min((double) waitingNanos / elapsed, 1);
+            return new StageSnapshot(name, batches, 1 - waiting, waiting);
+        }
+    }
+
+    /**
+     * Situação de uma etapa: {@code utilization} é a fração do tempo trabalhando e
+     * {@code waiting} a fração aguardando a outra etapa (a leitura aguarda espaço na fila; a
+     * gravação aguarda lotes).
+     */
+    public record StageSnapshot(String name, long batches, double utilization, double waiting) {
+    }
+
+    public record Snapshot(int queueCapacity, int queueDepth, int maxQueueDepth, double averageQueueDepth,
+                           StageSnapshot reader, List<StageSnapshot> writers) {
+
+        /**
+         * Etapa que limita a importação: a leitura, se ela trabalha mais do que a gravação em
+         * média, ou a gravação.
+         */
+        public String bottleneck() {
+            double writing = writers.stream().mapToDouble(StageSnapshot::utilization).average().orElse(0);
+            return reader.utilization() >= writing ? reader.name() : "gravação";
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder description = new StringBuilder(String.format("%s %.0f%% ocupada (%d lotes)",
+                    reader.name(), reader.utilization() * 100, reader.batches()));
+            for (StageSnapshot writer : writers) {
+                description.append(String.format(", %s %.0f%% ocupada (%d lotes)",
+                        writer.name(), writer.utilization() * 100, writer.batches()));
+            }
+            return description.append(String.format(", fila com média de %.1f e máximo de %d de %d lotes; gargalo: %s",
+                    averageQueueDepth, maxQueueDepth, queueCapacity, bottleneck())).toString();
+        }
+    }
+}
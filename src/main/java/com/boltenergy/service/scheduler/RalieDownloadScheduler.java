@@ -1,6 +1,7 @@
 package com.boltenergy.service.scheduler;
 
 import com.boltenergy.config.RalieSchedulingProperties;
+import com.boltenergy.exception.RalieLeaseException;
 import com.boltenergy.service.AneelRalieService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -32,6 +33,8 @@ public class RalieDownloadScheduler {
         try {
             String filePath = aneelRalieService.downloadRalieCsv();
             log.info("{} - Download concluído com sucesso. Arquivo salvo em: {}", jobName, filePath);
+        } catch (RalieLeaseException e) {
+            log.info("{} - Execução ignorada nesta instância: {}", jobName, e.getMessage());
         } catch (Exception e) {
             log.error("{} - Erro durante o download agendado do arquivo RALIE: {}", jobName, e.getMessage(), e);
         }
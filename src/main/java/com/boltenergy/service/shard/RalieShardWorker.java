@@ -0,0 +1,144 @@
+package com.boltenergy.service.shard;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.model.RalieImportShard;
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.repository.RalieImportShardTable;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.service.csv.RalieParallelCsvParser;
+import com.boltenergy.service.csv.RalieRecordException;
+import com.boltenergy.service.job.RalieRefreshLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Grava trechos da importação distribuída registrados em {@code ralie_import_shard}. Toda
+ * instância procura trechos pendentes a cada {@code ralie.import.sharding.poll-interval}; a que
+ * registrou os trechos também grava enquanto aguarda. Cada trecho é lido com o mesmo mapeamento
+ * da importação local e gravado na tabela de staging na mesma transação que o marca como
+ * concluído, então um trecho interrompido no meio não deixa linhas para trás.
+ */
+@Slf4j
+@Component
+public class RalieShardWorker {
+
+    /**
+     * Bits dos IDs reservados para cada trecho: até 2^20 registros, muito acima do que cabe em
+     * um trecho de alguns megabytes.
+     */
+    public static final int SHARD_ID_BITS = 20;
+
+    private static final int BATCH_SIZE = 10000;
+
+    private final RalieImportShardTable shardTable;
+    private final RalieUsinaCsvImportBulkWriter bulkWriter;
+    private final RalieImportProperties importProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final String ownerId;
+
+    public RalieShardWorker(RalieImportShardTable shardTable, RalieUsinaCsvImportBulkWriter bulkWriter,
+                            RalieImportProperties importProperties, PlatformTransactionManager transactionManager,
+                            RalieRefreshLease refreshLease) {
+        this.shardTable = shardTable;
+        this.bulkWriter = bulkWriter;
+        this.importProperties = importProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ownerId = refreshLease.getOwnerId();
+    }
+
+    @Scheduled(fixedDelayString = "${ralie.import.sharding.poll-interval:PT2S}")
+    public void poll() {
+        if (!importProperties.getSharding().isEnabled()) {
+            return;
+        }
+        try {
+            while (processNext()) {
+                // continua enquanto houver trechos disponíveis
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao procurar trechos da importação distribuída: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtém e grava um trecho pendente. Devolve {@code false} se não havia trecho disponível.
+     */
+    public boolean processNext() {
+        Optional<RalieImportShard> claimed = shardTable.claim(ownerId, importProperties.getSharding().getClaimTtl());
+        if (claimed.isEmpty()) {
+            return false;
+        }
+        process(claimed.get());
+        return true;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    private void process(RalieImportShard shard) {
+        long start = System.nanoTime();
+        RalieParallelCsvParser.ParsedSegment parsed;
+        try {
+            parsed = RalieParallelCsvParser.parseSegment(Path.of(shard.filePath()), Charset.forName(shard.charset()),
+                    new RalieParallelCsvParser.Segment(shard.headerStart(), shard.headerEnd(), 1),
+                    new RalieParallelCsvParser.Segment(shard.startOffset(), shard.endOffset(), shard.firstLine()));
+            if (parsed.entities().size() >= 1L << SHARD_ID_BITS) {
+                throw new IOException("Trecho com " + parsed.entities().size() + " registros; reduza ralie.import.sharding.shard-size");
+            }
+        } catch (RalieRecordException e) {
+            // O mesmo registro falharia em qualquer instância
+            release(shard, String.format("Erro ao processar o registro %d do trecho %d (a partir da linha %d): %s",
+                    e.getRecordNumber(), shard.shardIndex(), shard.firstLine(), e.getCause().getMessage()), false);
+            return;
+        } catch (IOException | RuntimeException e) {
+            release(shard, "Erro ao ler o trecho " + shard.shardIndex() + ": " + e.getMessage(), true);
+            return;
+        }
+
+        List<RalieUsinaCsvImportEntity> entities = parsed.entities();
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).setId(shard.idBase() + i);
+        }
+        LocalDate datasetVersion = entities.isEmpty() ? null : entities.get(0).getDatGeracaoConjuntoDados();
+
+        try {
+            Boolean completed = transactionTemplate.execute(status -> {
+                for (int from = 0; from < entities.size(); from += BATCH_SIZE) {
+                    bulkWriter.insertAll(shard.stagingTable(), entities.subList(from, Math.min(from + BATCH_SIZE, entities.size())));
+                }
+                if (!shardTable.complete(shard, ownerId, entities.size(), datasetVersion, parsed.parseFailures())) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(completed)) {
+                log.info("Trecho {} da importação {} gravado por {}: {} registros em {} ms", shard.shardIndex(),
+                        shard.runId(), ownerId, entities.size(), (System.nanoTime() - start) / 1_000_000);
+            } else {
+                log.warn("O trecho {} foi obtido por outra instância antes da gravação terminar; gravação desfeita",
+                        shard.shardIndex());
+            }
+        } catch (RuntimeException e) {
+            release(shard, "Erro ao gravar o trecho " + shard.shardIndex() + ": " + e.getMessage(), true);
+        }
+    }
+
+    private void release(RalieImportShard shard, String message, boolean retry) {
+        log.error(message);
+        shardTable.release(shard, ownerId, message, retry, importProperties.getSharding().getMaxAttempts());
+    }
+}
@@ -0,0 +1,130 @@
+package com.boltenergy.service.shard;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.RalieImportShard;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.repository.RalieImportShardTable;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.service.csv.RalieParallelCsvParser;
+import com.boltenergy.service.job.RalieImportProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Lado da instância que atualiza na importação distribuída. Divide o arquivo baixado em trechos
+ * que começam no início de um registro, com a mesma divisão da leitura paralela, registra-os em
+ * {@code ralie_import_shard} e grava trechos junto com as demais instâncias até todos estarem
+ * concluídos. A publicação continua com o {@link com.boltenergy.service.RalieDatasetPublisher}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RalieShardedImport {
+
+    private final RalieImportShardTable shardTable;
+    private final RalieShardWorker worker;
+    private final RalieUsinaCsvImportBulkWriter bulkWriter;
+    private final RalieImportProperties importProperties;
+
+    /**
+     * Importa o arquivo na tabela de staging, já preparada, no modo {@code full}. Se um trecho
+     * falhar, a importação é cancelada e os trechos pendentes saem da fila.
+     */
+    public RalieImportResult importToStaging(Path file, RalieImportProgress progress) throws IOException {
+        RalieImportProperties.Sharding sharding = importProperties.getSharding();
+        String runId = UUID.randomUUID().toString();
+        List<RalieImportShard> shards = split(file, runId, (int) sharding.getShardSize().toBytes());
+        if (shards.isEmpty()) {
+            return new RalieImportResult(0, null, 0, 0, 0, 0);
+        }
+
+        shardTable.register(runId, shards);
+        log.info("Importação distribuída {}: {} trechos registrados para {}", runId, shards.size(), file);
+
+        boolean finished = false;
+        try {
+            RalieImportShardTable.RunProgress run = awaitShards(runId, progress, sharding);
+            if (run.failed() > 0) {
+                throw new IOException("Falha na importação distribuída: " + run.failure());
+            }
+            finished = true;
+            log.info("Importação distribuída {} concluída: {} registros em {} trechos", runId, run.records(), run.total());
+            Map<String, Long> parseFailures = shardTable.parseFailures(runId);
+            if (!parseFailures.isEmpty()) {
+                log.warn("Valores inválidos gravados como nulos, por coluna: {}", parseFailures);
+                progress.addParseFailures(parseFailures);
+            }
+            return new RalieImportResult(run.records(), run.datasetVersion(), run.records(), 0, 0, 0);
+        } finally {
+            if (!finished) {
+                shardTable.cancel(runId);
+            }
+        }
+    }
+
+    private List<RalieImportShard> split(Path file, String runId, int shardSize) throws IOException {
+        String stagingTable = RalieDatasetTables.staging(RalieDatasetTables.IMPORT_TABLE);
+        String filePath = file.toAbsolutePath().toString();
+        try (RalieParallelCsvParser parser = RalieParallelCsvParser.open(file, 1, shardSize)) {
+            if (parser.header().isEmpty()) {
+                throw new IOException("O arquivo CSV não contém cabeçalhos válidos");
+            }
+            List<RalieParallelCsvParser.Segment> segments = parser.segments();
+            RalieParallelCsvParser.Segment header = parser.headerSegment();
+            long idBase = bulkWriter.reserveIds((long) segments.size() << RalieShardWorker.SHARD_ID_BITS);
+
+            List<RalieImportShard> shards = new ArrayList<>(segments.size());
+            for (int i = 0; i < segments.size(); i++) {
+                RalieParallelCsvParser.Segment segment = segments.get(i);
+                shards.add(new RalieImportShard(RalieImportShard.id(runId, i), runId, i, filePath,
+                        parser.charset().name(), header.start(), header.end(), segment.start(), segment.end(),
+                        segment.firstLine(), idBase + ((long) i << RalieShardWorker.SHARD_ID_BITS), stagingTable, 0));
+            }
+            return shards;
+        }
+    }
+
+    private RalieImportShardTable.RunProgress awaitShards(String runId, RalieImportProgress progress,
+                                                          RalieImportProperties.Sharding sharding) throws IOException {
+        long deadline = System.nanoTime() + sharding.getTimeout().toNanos();
+        long reported = 0;
+        while (true) {
+            progress.checkCancelled();
+            boolean processed = worker.processNext();
+
+            RalieImportShardTable.RunProgress run = shardTable.progress(runId);
+            progress.addRowsParsed(run.records() - reported);
+            progress.addRowsWritten(run.records() - reported);
+            reported = run.records();
+            if (run.isComplete() || run.failed() > 0) {
+                return run;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IOException(String.format(
+                        "Tempo esgotado aguardando a importação distribuída: %d de %d trechos gravados", run.done(), run.total()));
+            }
+            if (!processed) {
+                // Os trechos restantes estão com outras instâncias
+                sleep(sharding.getPollInterval().toMillis());
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando a importação distribuída", e);
+        }
+    }
+}
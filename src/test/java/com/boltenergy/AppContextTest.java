@@ -0,0 +1,36 @@
+package com.boltenergy;
+
+import com.boltenergy.service.AneelRalieService;
+import com.boltenergy.service.shard.RalieShardWorker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Sobe o contexto completo da aplicação no H2, com o {@code application.yml} de produção, para
+ * que erros de configuração (propriedades, {@code @Scheduled}, construtores ambíguos) falhem no
+ * {@code mvn test} e não apenas ao iniciar a aplicação.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {
+                // O application.yml fixa o dialeto do MySQL, que tem precedência sobre database-platform
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "ralie.schedule.enabled=false"})
+class AppContextTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoads() {
+        assertNotNull(context.getBean(AneelRalieService.class));
+        assertNotNull(context.getBean(RalieShardWorker.class));
+    }
+}
@@ -18,7 +18,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "ralie.source.download-dir=${java.io.tmpdir}/ralie-test-downloads",
+        "logging.file.name="})
 @AutoConfigureMockMvc
 class RalieUsinaControllerTest {
 
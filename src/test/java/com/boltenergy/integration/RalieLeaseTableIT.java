@@ -0,0 +1,74 @@
+package com.boltenergy.integration;
+
+import com.boltenergy.model.RalieLease;
+import com.boltenergy.repository.RalieLeaseTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(RalieLeaseTable.class)
+@Sql(scripts = "classpath:schema.sql")
+class RalieLeaseTableIT {
+
+    private static final String NAME = "ralie-refresh";
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Autowired
+    private RalieLeaseTable leaseTable;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM ralie_lease");
+    }
+
+    @Test
+    void tryAcquire_WhileHeldByAnotherOwner_ShouldFail() {
+        RalieLease lease = leaseTable.tryAcquire(NAME, "app-1", TTL).orElseThrow();
+
+        assertEquals(1, lease.fencingToken());
+        assertTrue(leaseTable.tryAcquire(NAME, "app-2", TTL).isEmpty());
+        assertEquals(Optional.of("app-1"), leaseTable.currentOwner(NAME));
+        assertTrue(leaseTable.renew(lease, TTL));
+    }
+
+    @Test
+    void tryAcquire_AfterRelease_ShouldIncrementFencingToken() {
+        RalieLease first = leaseTable.tryAcquire(NAME, "app-1", TTL).orElseThrow();
+        leaseTable.release(first);
+
+        RalieLease second = leaseTable.tryAcquire(NAME, "app-2", TTL).orElseThrow();
+
+        assertEquals(first.fencingToken() + 1, second.fencingToken());
+        assertFalse(leaseTable.renew(first, TTL));
+    }
+
+    @Test
+    void tryAcquire_AfterExpiry_ShouldTakeOverAndFenceThePreviousOwner() {
+        RalieLease stale = leaseTable.tryAcquire(NAME, "app-1", TTL).orElseThrow();
+        jdbcTemplate.update("UPDATE ralie_lease SET expires_at = TIMESTAMPADD(SECOND, -1, CURRENT_TIMESTAMP(3))");
+
+        RalieLease current = leaseTable.tryAcquire(NAME, "app-2", TTL).orElseThrow();
+
+        assertTrue(current.fencingToken() > stale.fencingToken());
+        assertFalse(leaseTable.renew(stale, TTL));
+        leaseTable.release(stale);
+        assertEquals(Optional.of("app-2"), leaseTable.currentOwner(NAME));
+    }
+}
@@ -0,0 +1,218 @@
+package com.boltenergy.integration;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.config.RalieLeaseProperties;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.RalieImportShard;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.repository.RalieImportShardTable;
+import com.boltenergy.repository.RalieLeaseTable;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.shard.RalieShardWorker;
+import com.boltenergy.service.shard.RalieShardedImport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Importação distribuída com várias instâncias simuladas na mesma JVM: cada
+ * {@link RalieShardWorker} tem a sua identificação e todos usam o mesmo banco H2.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import({RalieImportShardTable.class, RalieUsinaCsvImportBulkWriter.class})
+@Sql(scripts = "classpath:schema.sql")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RalieShardedImportIT {
+
+    private static final String STAGING_TABLE = RalieDatasetTables.staging(RalieDatasetTables.IMPORT_TABLE);
+    private static final int COPIES = 300;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RalieImportShardTable shardTable;
+
+    @Autowired
+    private RalieUsinaCsvImportBulkWriter bulkWriter;
+
+    @TempDir
+    Path tempDir;
+
+    private final RalieImportProperties importProperties = new RalieImportProperties();
+    private final List<RalieRefreshLease> leases = new ArrayList<>();
+    private final ExecutorService nodes = Executors.newCachedThreadPool();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + STAGING_TABLE
+                + " AS SELECT * FROM " + RalieDatasetTables.IMPORT_TABLE + " WITH NO DATA");
+        jdbcTemplate.update("DELETE FROM " + STAGING_TABLE);
+        jdbcTemplate.update("DELETE FROM ralie_import_shard");
+
+        importProperties.setMode(RalieImportProperties.Mode.FULL);
+        importProperties.getSharding().setEnabled(true);
+        importProperties.getSharding().setShardSize(DataSize.ofKilobytes(16));
+        importProperties.getSharding().setPollInterval(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        stopped.set(true);
+        nodes.shutdown();
+        assertTrue(nodes.awaitTermination(10, TimeUnit.SECONDS));
+        leases.forEach(RalieRefreshLease::shutdown);
+    }
+
+    @Test
+    void importToStaging_WithSeveralNodes_ShouldWriteEveryRecordOnce() throws Exception {
+        Path file = replicatedCsv(COPIES);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 2; i <= 3; i++) {
+            workers.add(startNode(worker("node-" + i)));
+        }
+        RalieShardedImport leader = new RalieShardedImport(shardTable, worker("node-1"), bulkWriter, importProperties);
+        RalieImportProgress progress = new RalieImportProgress();
+
+        RalieImportResult result = leader.importToStaging(file, progress);
+
+        long expected = 2L * COPIES;
+        assertEquals(expected, result.totalRecords());
+        assertEquals(expected, result.inserted());
+        assertNotNull(result.datasetVersion());
+        assertEquals(expected, progress.rowsWritten());
+        assertEquals(expected, count("SELECT COUNT(*) FROM " + STAGING_TABLE));
+        assertEquals(expected, count("SELECT COUNT(DISTINCT id) FROM " + STAGING_TABLE));
+        assertEquals(0, count("SELECT COUNT(*) FROM " + RalieDatasetTables.IMPORT_TABLE));
+
+        long shards = count("SELECT COUNT(*) FROM ralie_import_shard");
+        assertTrue(shards > 1, "O arquivo deveria ter sido dividido em vários trechos");
+        assertEquals(shards, count("SELECT COUNT(*) FROM ralie_import_shard WHERE status = 'DONE'"));
+        for (Future<?> node : workers) {
+            assertFalse(node.isDone(), "As instâncias continuam procurando trechos");
+        }
+    }
+
+    @Test
+    void importToStaging_WithInvalidValues_ShouldReportTheParseFailuresOfEveryShard() throws Exception {
+        Path file = replicatedCsv(COPIES);
+        Files.writeString(file, Files.readString(file).replace(";Usina Teste 1;10000;", ";Usina Teste 1;dez mil;"));
+        startNode(worker("node-2"));
+        RalieShardedImport leader = new RalieShardedImport(shardTable, worker("node-1"), bulkWriter, importProperties);
+        RalieImportProgress progress = new RalieImportProgress();
+
+        leader.importToStaging(file, progress);
+
+        assertTrue(count("SELECT COUNT(*) FROM ralie_import_shard WHERE parse_failures IS NOT NULL") > 1,
+                "Os valores inválidos deveriam estar em vários trechos");
+        assertEquals(Map.of("MdaPotenciaOutorgadaKw", (long) COPIES), progress.parseFailures());
+    }
+
+    @Test
+    void claim_AfterClaimExpires_ShouldMoveShardToAnotherNodeAndFenceTheFirst() throws Exception {
+        Path file = replicatedCsv(1);
+        shardTable.register("run-1", List.of(new RalieImportShard(RalieImportShard.id("run-1", 0), "run-1", 0,
+                file.toString(), "UTF-8", 0, headerEnd(file), headerEnd(file), (int) Files.size(file), 2,
+                bulkWriter.reserveIds(1L << RalieShardWorker.SHARD_ID_BITS), STAGING_TABLE, 0)));
+
+        RalieImportShard stale = shardTable.claim("node-1", Duration.ZERO).orElseThrow();
+        RalieImportShard current = shardTable.claim("node-2", Duration.ofMinutes(1)).orElseThrow();
+
+        assertEquals(stale.id(), current.id());
+        assertEquals(stale.attempts() + 1, current.attempts());
+        assertFalse(shardTable.complete(stale, "node-1", 2, null, Map.of()));
+        assertTrue(shardTable.complete(current, "node-2", 2, null, Map.of()));
+        assertTrue(shardTable.claim("node-3", Duration.ofMinutes(1)).isEmpty());
+    }
+
+    @Test
+    void importToStaging_WhenAShardCannotBeRead_ShouldFailAndCancelTheRest() throws Exception {
+        Path file = replicatedCsv(COPIES);
+        Files.writeString(file, "\"registro sem fim", StandardCharsets.UTF_8, java.nio.file.StandardOpenOption.APPEND);
+        importProperties.getSharding().setMaxAttempts(1);
+        RalieShardedImport leader = new RalieShardedImport(shardTable, worker("node-1"), bulkWriter, importProperties);
+
+        IOException exception = assertThrows(IOException.class,
+                () -> leader.importToStaging(file, RalieImportProgress.untracked()));
+
+        assertTrue(exception.getMessage().contains("Aspas não fechadas"), exception.getMessage());
+        assertEquals(0, count("SELECT COUNT(*) FROM ralie_import_shard WHERE status IN ('PENDING', 'CLAIMED')"));
+    }
+
+    private RalieShardWorker worker(String ownerId) {
+        RalieLeaseProperties leaseProperties = new RalieLeaseProperties();
+        leaseProperties.setOwnerId(ownerId);
+        RalieRefreshLease lease = new RalieRefreshLease(new RalieLeaseTable(jdbcTemplate), leaseProperties);
+        leases.add(lease);
+        return new RalieShardWorker(shardTable, bulkWriter, importProperties, transactionManager, lease);
+    }
+
+    private Future<?> startNode(RalieShardWorker worker) {
+        return nodes.submit(() -> {
+            while (!stopped.get()) {
+                if (!worker.processNext()) {
+                    Thread.sleep(5);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Arquivo com o cabeçalho de {@code ralie-test-data.csv} e os registros dele repetidos.
+     */
+    private Path replicatedCsv(int copies) throws IOException {
+        List<String> lines = Files.readAllLines(new ClassPathResource("test-data/ralie-test-data.csv").getFile().toPath());
+        StringBuilder csv = new StringBuilder(lines.get(0)).append('\n');
+        String records = String.join("\n", lines.subList(1, lines.size())) + "\n";
+        csv.append(records.repeat(copies));
+        Path file = tempDir.resolve("ralie_" + copies + ".csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static int headerEnd(Path file) throws IOException {
+        return Files.readAllLines(file).get(0).getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.boltenergy.integration;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.repository.RalieUsinaCsvImportRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(RalieUsinaCsvImportBulkWriter.class)
+@Sql(scripts = "classpath:schema.sql")
+class RalieUsinaCsvImportBulkWriterIT {
+
+    @Autowired
+    private RalieUsinaCsvImportBulkWriter bulkWriter;
+
+    @Autowired
+    private RalieUsinaCsvImportRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void saveAll_ShouldInsertWithTimeOrderedIdsAndUpdateExistingRows() {
+        repository.deleteAllInBatch();
+        RalieUsinaCsvImportEntity first = entity("UHE.PH.RS.000324-7.1", "Usina Teste 1", 10000.0);
+        RalieUsinaCsvImportEntity second = entity("UHE.PH.RS.000325-7.1", "Usina Teste 2", null);
+
+        bulkWriter.saveAll(List.of(first, second));
+
+        assertNotNull(first.getId());
+        assertTrue(second.getId() > first.getId(), "Os IDs devem crescer na ordem de gravação");
+        entityManager.clear();
+        RalieUsinaCsvImportEntity stored = repository.findById(first.getId()).orElseThrow();
+        assertEquals("Usina Teste 1", stored.getNomEmpreendimento());
+        assertEquals(LocalDate.of(2023, 1, 1), stored.getDatGeracaoConjuntoDados());
+        assertEquals(10000.0, stored.getMdaPotenciaOutorgadaKw(), 0.001);
+        assertNotNull(stored.getDataImportacao());
+        assertNull(repository.findById(second.getId()).orElseThrow().getMdaPotenciaOutorgadaKw());
+
+        first.setNomEmpreendimento("Usina Teste 1 Ampliada");
+        bulkWriter.saveAll(List.of(first));
+
+        entityManager.clear();
+        assertEquals(2, repository.count());
+        assertEquals("Usina Teste 1 Ampliada", repository.findById(first.getId()).orElseThrow().getNomEmpreendimento());
+    }
+
+    private static RalieUsinaCsvImportEntity entity(String codCeg, String nome, Double potencia) {
+        RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+        entity.setCodCeg(codCeg);
+        entity.setNomEmpreendimento(nome);
+        entity.setMdaPotenciaOutorgadaKw(potencia);
+        entity.setDatGeracaoConjuntoDados(LocalDate.of(2023, 1, 1));
+        return entity;
+    }
+}
@@ -1,10 +1,21 @@
 package com.boltenergy.integration;
 
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.model.RalieImportResult;
 import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.repository.RalieLeaseTable;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.repository.RalieUsinaCsvImportLoadDataWriter;
 import com.boltenergy.repository.RalieUsinaCsvImportRepository;
 import com.boltenergy.service.RalieUsinaCsvImportService;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.pipeline.RalieBatchSizer;
+import com.boltenergy.support.RalieSyntheticCsv;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
@@ -17,7 +28,10 @@ import org.springframework.test.context.jdbc.Sql;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +39,8 @@ import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
 @ActiveProfiles("test")
 @TestPropertySource(locations = "classpath:application-test.properties")
-@Import(RalieUsinaCsvImportService.class)
+@Import({RalieUsinaCsvImportService.class, RalieUsinaCsvImportBulkWriter.class, RalieUsinaCsvImportLoadDataWriter.class,
+        RalieBatchSizer.class, SimpleMeterRegistry.class, RalieRefreshLease.class, RalieLeaseTable.class})
 @Transactional
 @Sql(scripts = "classpath:schema.sql")
 class RalieUsinaCsvImportServiceIT {
@@ -39,6 +54,9 @@ class RalieUsinaCsvImportServiceIT {
     @Autowired
     private TestEntityManager entityManager;
     
+    @Autowired
+    private RalieImportProperties importProperties;
+    
     private String testCsvContent;
     
     @BeforeEach
@@ -85,6 +103,87 @@ class RalieUsinaCsvImportServiceIT {
         }
     }
     
+    @Test
+    void importCsv_WithJpaEngine_ShouldNotRetainImportedEntities() throws IOException {
+        RalieImportProperties.Batch batch = importProperties.getBatch();
+        RalieImportProperties.Engine engine = importProperties.getEngine();
+        RalieImportProperties.Mode mode = importProperties.getMode();
+        boolean adaptive = batch.isAdaptive();
+        int size = batch.getSize();
+        importProperties.setEngine(RalieImportProperties.Engine.JPA);
+        importProperties.setMode(RalieImportProperties.Mode.FULL);
+        batch.setAdaptive(false);
+        batch.setSize(20);
+        try {
+            long retainedSmall = importAndCountManagedEntities(50);
+            long retainedLarge = importAndCountManagedEntities(150);
+            
+            assertEquals(retainedSmall, retainedLarge, "Entidades retidas crescem com o número de registros");
+            assertTrue(retainedLarge <= batch.getSize(), "Mais de um lote retido: " + retainedLarge);
+        } finally {
+            importProperties.setEngine(engine);
+            importProperties.setMode(mode);
+            batch.setAdaptive(adaptive);
+            batch.setSize(size);
+        }
+    }
+    
+    /**
+     * Importa {@code copies} vezes os registros do arquivo de teste na transação do teste e conta
+     * as entidades que continuam no contexto de persistência depois da importação.
+     */
+    private long importAndCountManagedEntities(int copies) throws IOException {
+        String[] lines = testCsvContent.split("\\R");
+        String records = String.join("\n", Arrays.copyOfRange(lines, 1, lines.length)) + "\n";
+        csvImportService.importCsv(lines[0] + "\n" + records.repeat(copies));
+        
+        assertEquals(2L * copies, repository.count());
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        return session.getStatistics().getEntityCount();
+    }
+    
+    @Test
+    void importCsv_InDeltaModeWithANewDatasetVersion_ShouldKeepEveryRowUnchanged() throws IOException {
+        RalieImportProperties.Mode mode = importProperties.getMode();
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        try {
+            csvImportService.importCsv(testCsvContent);
+            
+            // Mesmas linhas em uma nova publicação do RALIE: só a DatGeracaoConjuntoDados muda
+            RalieImportResult result = csvImportService.importCsv(testCsvContent.replaceAll("(?m)^26/05/2025;", "02/06/2025;"));
+            entityManager.clear();
+            
+            assertEquals(0, result.updated());
+            assertEquals(2, result.unchanged());
+            assertEquals(LocalDate.of(2025, 6, 2), result.datasetVersion());
+            assertTrue(repository.findAll().stream()
+                    .allMatch(row -> LocalDate.of(2025, 6, 2).equals(row.getDatGeracaoConjuntoDados())),
+                    "As linhas inalteradas deveriam receber a nova versão do conjunto de dados");
+        } finally {
+            importProperties.setMode(mode);
+        }
+    }
+    
+    @Test
+    void importCsv_WithSyntheticFile_ShouldImportEveryRecord(@TempDir Path tempDir) throws IOException {
+        RalieImportProperties.Mode mode = importProperties.getMode();
+        importProperties.setMode(RalieImportProperties.Mode.FULL);
+        try {
+            Path file = RalieSyntheticCsv.fromExamples().write(tempDir.resolve("ralie_sintetico.csv"), 5000);
+            
+            RalieImportResult result = csvImportService.importCsv(file);
+            
+            assertEquals(5000, result.totalRecords());
+            assertEquals(5000, repository.count());
+            assertTrue(repository.findAll().stream()
+                    .map(RalieUsinaCsvImportEntity::getDscPropriRegimePariticipacao)
+                    .anyMatch(ownership -> ownership != null && ownership.contains("\n")),
+                    "A composição societária em várias linhas deveria ser importada inteira");
+        } finally {
+            importProperties.setMode(mode);
+        }
+    }
+    
     @Test
     void importCsv_WithEmptyCsv_ShouldNotImportAnyRecords() {
         try {
@@ -0,0 +1,107 @@
+package com.boltenergy.repository;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RalieUsinaCsvImportLoadDataWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RalieUsinaCsvImportBulkWriter bulkWriter;
+
+    @InjectMocks
+    private RalieUsinaCsvImportLoadDataWriter loadDataWriter;
+
+    @Test
+    void append_ShouldWriteTypedUtf8RowsWithMySqlEscapes() throws IOException {
+        when(bulkWriter.nextId()).thenReturn(41L, 42L);
+        RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+        entity.setDataImportacao(LocalDateTime.of(2024, 5, 10, 8, 30, 15));
+        entity.setDatGeracaoConjuntoDados(LocalDate.of(2024, 5, 1));
+        entity.setCodCeg("UHE.PH.RS.000324-7.1");
+        entity.setNomEmpreendimento("Usina Hídrica");
+        entity.setMdaPotenciaOutorgadaKw(1234.5);
+        entity.setDscPropriRegimePariticipacao("Empresa A (50%)\r\nEmpresa\tB\\C (50%)");
+
+        Path path;
+        try (RalieUsinaCsvImportLoadDataWriter.LoadFile loadFile = loadDataWriter.open()) {
+            path = loadFile.path();
+            loadFile.append(entity);
+            loadFile.append(new RalieUsinaCsvImportEntity());
+            assertEquals(2, loadFile.rows());
+
+            loadDataWriter.load(loadFile);
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            assertEquals(2, lines.size());
+
+            List<String> columns = List.of(lines.get(0).split("\t", -1));
+            assertEquals(RalieUsinaCsvImportColumns.COLUMNS.size() + 1, columns.size());
+            assertEquals("41", columns.get(0));
+            assertEquals(41L, entity.getId());
+            assertEquals("2024-05-10 08:30:15.000000", value(columns, "data_importacao"));
+            assertEquals("2024-05-01", value(columns, "dat_geracao_conjunto_dados"));
+            assertEquals("Usina Hídrica", value(columns, "nom_empreendimento"));
+            assertEquals("1234.5", value(columns, "mda_potencia_outorgada_kw"));
+            assertEquals("Empresa A (50%)\\r\\nEmpresa\\tB\\\\C (50%)", value(columns, "dsc_propri_regime_pariticipacao"));
+            assertEquals("\\N", value(columns, "dat_ralie"));
+            assertTrue(lines.get(1).startsWith("42\t"));
+        }
+        assertFalse(Files.exists(path), "O arquivo intermediário deve ser apagado ao fechar");
+        verify(jdbcTemplate).execute(ArgumentMatchers.<ConnectionCallback<Long>>any());
+    }
+
+    @Test
+    void load_ShouldRegisterTheFileInTheConnectorJStatement() throws Exception {
+        when(bulkWriter.nextId()).thenReturn(7L);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        JdbcStatement mysqlStatement = mock(JdbcStatement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.unwrap(JdbcStatement.class)).thenReturn(mysqlStatement);
+        when(statement.executeLargeUpdate(startsWith("LOAD DATA LOCAL INFILE"))).thenReturn(1L);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<Long>>any()))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<Long>>getArgument(0).doInConnection(connection));
+
+        try (RalieUsinaCsvImportLoadDataWriter.LoadFile loadFile = loadDataWriter.open()) {
+            loadFile.append(new RalieUsinaCsvImportEntity());
+
+            assertEquals(1, loadDataWriter.load(loadFile));
+        }
+        verify(mysqlStatement).setLocalInfileInputStream(any(InputStream.class));
+    }
+
+    private static String value(List<String> columns, String name) {
+        List<RalieUsinaCsvImportColumns.Mapping> mappings = RalieUsinaCsvImportColumns.COLUMNS;
+        for (int i = 0; i < mappings.size(); i++) {
+            if (mappings.get(i).name().equals(name)) {
+                return columns.get(i + 1);
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
@@ -0,0 +1,190 @@
+package com.boltenergy.service;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.config.RalieLeaseProperties;
+import com.boltenergy.config.RalieSourceProperties;
+import com.boltenergy.config.RalieSchedulingProperties;
+import com.boltenergy.config.WebClientConfig;
+import com.boltenergy.controller.RalieUsinaController;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.RalieLease;
+import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.repository.RalieLeaseTable;
+import com.boltenergy.service.download.RalieDownloadResult;
+import com.boltenergy.service.download.RalieFileDownloader;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.metrics.RalieImportMetrics;
+import com.boltenergy.service.scheduler.RalieDownloadScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dispara o agendamento e o endpoint de download ao mesmo tempo e verifica que todos os
+ * chamadores compartilham uma única atualização.
+ */
+@ExtendWith(MockitoExtension.class)
+class AneelRalieServiceConcurrencyTest {
+
+    private static final int CALLERS_PER_ENTRY_POINT = 8;
+
+    @Mock
+    private WebClientConfig webClientConfig;
+
+    @Mock
+    private RalieMetadataService metadataService;
+
+    @Mock
+    private RalieDatasetPublisher datasetPublisher;
+
+    @Mock
+    private RalieFileDownloader fileDownloader;
+
+    @Mock
+    private RalieUsinaEmpresaPotenciaGeradaService potenciaGeradaService;
+
+    @Mock
+    private RalieLeaseTable leaseTable;
+
+    @TempDir
+    Path tempDir;
+
+    private final RalieRefreshCoordinator refreshCoordinator = new RalieRefreshCoordinator();
+    private final AtomicInteger downloads = new AtomicInteger();
+    private ExecutorService callers;
+    private AneelRalieService aneelRalieService;
+    private RalieDownloadScheduler scheduler;
+    private RalieUsinaController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(webClientConfig.createWebClient(anyString())).thenReturn(mock(WebClient.class));
+        when(metadataService.loadMetadata()).thenAnswer(invocation -> new RalieMetadata());
+        when(leaseTable.tryAcquire(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> Optional.of(new RalieLease(invocation.getArgument(0), invocation.getArgument(1), 1)));
+
+        RalieRefreshLease refreshLease = new RalieRefreshLease(leaseTable, new RalieLeaseProperties());
+        aneelRalieService = new AneelRalieService(webClientConfig, new RalieSourceProperties(), metadataService, datasetPublisher,
+                fileDownloader, refreshCoordinator, refreshLease,
+                new RalieImportMetrics(new SimpleMeterRegistry(), new RalieImportProperties(), metadataService));
+        aneelRalieService.init();
+        ReflectionTestUtils.setField(aneelRalieService, "downloadPath", tempDir);
+
+        RalieSchedulingProperties schedulingProperties = new RalieSchedulingProperties();
+        schedulingProperties.setEnabled(true);
+        scheduler = new RalieDownloadScheduler(aneelRalieService, schedulingProperties);
+        controller = new RalieUsinaController(aneelRalieService, potenciaGeradaService, datasetPublisher);
+        callers = Executors.newFixedThreadPool(CALLERS_PER_ENTRY_POINT * 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentSchedulerAndEndpointCalls_ShouldShareOneRefresh() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        stubDownload(release);
+        when(datasetPublisher.publish(any(Path.class), any(RalieImportProgress.class)))
+                .thenReturn(new RalieImportResult(1, LocalDate.of(2025, 5, 26), 1, 0, 0, 0));
+        when(leaseTable.renew(any(RalieLease.class), any())).thenReturn(true);
+
+        List<Future<ResponseEntity<String>>> endpointCalls = new ArrayList<>();
+        List<Future<?>> scheduledCalls = new ArrayList<>();
+        for (int i = 0; i < CALLERS_PER_ENTRY_POINT; i++) {
+            endpointCalls.add(callers.submit(controller::downloadRalieCsv));
+            scheduledCalls.add(callers.submit(scheduler::scheduledDownload));
+        }
+
+        awaitWaitingCallers(CALLERS_PER_ENTRY_POINT * 2 - 1);
+        release.countDown();
+
+        for (Future<?> call : scheduledCalls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+        for (Future<ResponseEntity<String>> call : endpointCalls) {
+            assertTrue(call.get(10, TimeUnit.SECONDS).getStatusCode().is2xxSuccessful());
+        }
+        assertEquals(1, downloads.get(), "Apenas uma atualização deve baixar o arquivo");
+        verify(datasetPublisher, times(1)).publish(any(Path.class), any(RalieImportProgress.class));
+        verify(metadataService, times(1)).saveMetadata(any(RalieMetadata.class));
+        verify(leaseTable, times(1)).tryAcquire(anyString(), anyString(), any());
+        verify(leaseTable, times(1)).release(any(RalieLease.class));
+        assertFalse(refreshCoordinator.isRunning());
+
+        // Com a atualização concluída, a próxima chamada inicia outra
+        aneelRalieService.downloadRalieCsv();
+        assertEquals(2, downloads.get());
+    }
+
+    @Test
+    void concurrentCalls_WhenRefreshFails_ShouldAllReceiveTheFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(fileDownloader.download(any(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            downloads.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            throw new IllegalStateException("conexão recusada");
+        });
+
+        List<Future<String>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS_PER_ENTRY_POINT; i++) {
+            calls.add(callers.submit(() -> aneelRalieService.downloadRalieCsv()));
+        }
+        awaitWaitingCallers(CALLERS_PER_ENTRY_POINT - 1);
+        release.countDown();
+
+        for (Future<String> call : calls) {
+            Exception exception = assertThrows(Exception.class, () -> call.get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause().getMessage().contains("conexão recusada"));
+        }
+        assertEquals(1, downloads.get());
+    }
+
+    private void stubDownload(CountDownLatch release) {
+        when(fileDownloader.download(any(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            downloads.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            Path target = invocation.getArgument(2);
+            Files.writeString(target, "id;nome\n1;Usina");
+            return new RalieDownloadResult(false, "\"etag\"", null, target, Files.size(target), "hash-" + downloads.get());
+        });
+    }
+
+    private void awaitWaitingCallers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (refreshCoordinator.waiting() < expected) {
+            assertTrue(System.nanoTime() < deadline,
+                    "Esperados " + expected + " chamadores aguardando, encontrados " + refreshCoordinator.waiting());
+            Thread.sleep(10);
+        }
+    }
+}
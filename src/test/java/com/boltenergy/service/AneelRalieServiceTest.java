@@ -1,19 +1,36 @@
 package com.boltenergy.service;
 
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.config.RalieLeaseProperties;
+import com.boltenergy.config.RalieSourceProperties;
 import com.boltenergy.config.WebClientConfig;
+import com.boltenergy.config.WebClientProperties;
 import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieImportResult;
 import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.repository.RalieLeaseTable;
+import com.boltenergy.service.download.RalieContentHash;
+import com.boltenergy.service.download.RalieFileDownloader;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.metrics.RalieImportMetrics;
+import com.boltenergy.service.shard.RalieShardedImport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.mockito.stubbing.OngoingStubbing;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -28,7 +45,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -49,11 +70,16 @@ class AneelRalieServiceTest {
     
     @Mock
     private RalieUsinaEmpresaPotenciaGeradaService potenciaGeradaService;
+    
+    @Mock
+    private RalieDatasetTables datasetTables;
 
     private WebClient webClient;
     private ExchangeFunction exchangeFunction;
 
     private AneelRalieService aneelRalieService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RalieImportMetrics importMetrics;
 
     @BeforeEach
     void setUp() {
@@ -67,11 +93,28 @@ class AneelRalieServiceTest {
         RalieMetadata metadata = new RalieMetadata();
         when(metadataService.loadMetadata()).thenReturn(metadata);
         
+        WebClientProperties webClientProperties = new WebClientProperties();
+        webClientProperties.setDownloadMaxAttempts(1);
+        
+        // Uma única instância: sem lease entre instâncias
+        RalieLeaseProperties leaseProperties = new RalieLeaseProperties();
+        leaseProperties.setEnabled(false);
+        RalieRefreshLease refreshLease = new RalieRefreshLease(mock(RalieLeaseTable.class), leaseProperties);
+        
+        RalieImportProperties importProperties = new RalieImportProperties();
+        importMetrics = new RalieImportMetrics(meterRegistry, importProperties, metadataService);
+        
+        RalieRefreshCoordinator refreshCoordinator = new RalieRefreshCoordinator();
         aneelRalieService = new AneelRalieService(
             webClientConfig, 
+            new RalieSourceProperties(),
             metadataService, 
-            csvImportService, 
-            potenciaGeradaService
+            new RalieDatasetPublisher(csvImportService, potenciaGeradaService, datasetTables, importProperties,
+                refreshLease, refreshCoordinator, mock(RalieShardedImport.class), importMetrics),
+            new RalieFileDownloader(webClientProperties),
+            refreshCoordinator,
+            refreshLease,
+            importMetrics
         );
         
         try {
@@ -83,47 +126,29 @@ class AneelRalieServiceTest {
         }
     }
 
-    private void mockHeadRequest(HttpStatus status, String etag, String lastModified) {
+    private void mockConditionalGet(String currentEtag, String currentLastModified, byte[] responseBody) {
         when(exchangeFunction.exchange(any()))
             .thenAnswer(invocation -> {
-                org.springframework.web.reactive.function.client.ClientRequest request = invocation.getArgument(0);
-                if (request != null && request.method() == HttpMethod.HEAD) {
-                    return Mono.just(ClientResponse.create(status)
-                        .header(HttpHeaders.ETAG, etag)
-                        .header(HttpHeaders.LAST_MODIFIED, lastModified)
-                        .build());
-                } else if (request != null && request.method() == HttpMethod.GET) {
-                    DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
-                    DataBuffer buffer = dataBufferFactory.wrap("id,nome,cnpj\n1,Usina Teste,12345678000199".getBytes());
-                    
-                    return Mono.just(ClientResponse.create(HttpStatus.OK)
-                        .header(HttpHeaders.CONTENT_TYPE, "text/csv")
-                        .body(Flux.just(buffer))
-                        .build());
+                ClientRequest request = invocation.getArgument(0);
+                if (request == null || request.method() != HttpMethod.GET) {
+                    return Mono.error(new RuntimeException("Unexpected request: " + (request != null ? request.method() : "null")));
                 }
-                return Mono.error(new RuntimeException("Unexpected request: " + (request != null ? request.method() : "null")));
-            });
-    }
-    
-    private void mockGetRequest(byte[] responseBody) {
-        when(exchangeFunction.exchange(any()))
-            .thenAnswer(invocation -> {
-                org.springframework.web.reactive.function.client.ClientRequest request = invocation.getArgument(0);
-                if (request != null && request.method() == HttpMethod.GET) {
-                    DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
-                    DataBuffer buffer = dataBufferFactory.wrap(responseBody);
-                    
-                    return Mono.just(ClientResponse.create(HttpStatus.OK)
-                        .header(HttpHeaders.CONTENT_TYPE, "text/csv")
-                        .body(Flux.just(buffer))
-                        .build());
-                } else if (request != null && request.method() == HttpMethod.HEAD) {
-                    return Mono.just(ClientResponse.create(HttpStatus.OK)
-                        .header(HttpHeaders.ETAG, "\"test-etag\"")
-                        .header(HttpHeaders.LAST_MODIFIED, "test-last-modified")
+                
+                if (currentEtag != null && currentEtag.equals(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                    return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                        .header(HttpHeaders.ETAG, currentEtag)
                         .build());
                 }
-                return Mono.error(new RuntimeException("Unexpected request: " + (request != null ? request.method() : "null")));
+                
+                DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+                DataBuffer buffer = dataBufferFactory.wrap(responseBody);
+                
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, "text/csv")
+                    .header(HttpHeaders.ETAG, currentEtag)
+                    .header(HttpHeaders.LAST_MODIFIED, currentLastModified)
+                    .body(Flux.just(buffer))
+                    .build());
             });
     }
     
@@ -131,25 +156,8 @@ class AneelRalieServiceTest {
     void downloadRalieCsv_Success() throws IOException {
         Path tempDir = Files.createTempDirectory("test-downloads");
         try {
-            when(exchangeFunction.exchange(any()))
-                .thenAnswer(invocation -> {
-                    org.springframework.web.reactive.function.client.ClientRequest request = invocation.getArgument(0);
-                    if (request != null && request.method() == HttpMethod.HEAD) {
-                        return Mono.just(ClientResponse.create(HttpStatus.OK)
-                            .header(HttpHeaders.ETAG, "\"test-etag\"")
-                            .header(HttpHeaders.LAST_MODIFIED, "test-last-modified")
-                            .build());
-                    } else if (request != null && request.method() == HttpMethod.GET) {
-                        DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
-                        DataBuffer buffer = dataBufferFactory.wrap("id,nome,cnpj\n1,Usina Teste,12345678000199".getBytes());
-                        
-                        return Mono.just(ClientResponse.create(HttpStatus.OK)
-                            .header(HttpHeaders.CONTENT_TYPE, "text/csv")
-                            .body(Flux.just(buffer))
-                            .build());
-                    }
-                    return Mono.error(new RuntimeException("Unexpected request: " + (request != null ? request.method() : "null")));
-                });
+            mockConditionalGet("\"test-etag\"", "test-last-modified", "id,nome,cnpj\n1,Usina Teste,12345678000199".getBytes());
+            stubImport();
             
             RalieMetadata metadata = new RalieMetadata();
             when(metadataService.loadMetadata()).thenReturn(metadata);
@@ -160,59 +168,40 @@ class AneelRalieServiceTest {
             
             assertNotNull(result, "O resultado não deve ser nulo");
             assertTrue(Files.exists(Paths.get(result)), "O arquivo deve ter sido baixado");
+            assertEquals("id,nome,cnpj\n1,Usina Teste,12345678000199", Files.readString(Paths.get(result)));
             
+            verify(csvImportService).importCsv(any(Path.class), any(RalieImportProgress.class));
             verify(metadataService, atLeastOnce()).saveMetadata(any(RalieMetadata.class));
+            
+            assertEquals(Files.size(Paths.get(result)), meterRegistry.get("ralie.download.bytes").counter().count());
+            assertEquals(1, meterRegistry.get("ralie.download.duration").tag("outcome", "modified").timer().count());
+            assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "updated").timer().count());
+            assertEquals(1, meterRegistry.get("ralie.aggregation.duration").tag("publish", "in_place").timer().count());
+            assertTrue(meterRegistry.get("ralie.dataset.age").gauge().value() >= 0);
         } finally {
-            Files.walk(tempDir)
-                 .sorted(Comparator.reverseOrder())
-                 .map(Path::toFile)
-                 .forEach(java.io.File::delete);
+            deleteRecursively(tempDir);
         }
     }
 
     @Test
     void downloadRalieCsv_ApiError_ThrowsException() {
         when(exchangeFunction.exchange(any()))
-            .thenAnswer(invocation -> {
-                org.springframework.web.reactive.function.client.ClientRequest request = invocation.getArgument(0);
-                if (request.method() == HttpMethod.HEAD) {
-                    return Mono.error(new WebClientResponseException(
-                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                        "Internal Server Error",
-                        null,
-                        null,
-                        null
-                    ));
-                }
-                return Mono.error(new RuntimeException("Unexpected request"));
-            });
+            .thenReturn(Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
         
         assertThrows(RalieDownloadException.class, aneelRalieService::downloadRalieCsv);
+        assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "failed").timer().count());
     }
 
     @Test
     void downloadRalieCsv_DownloadError_ThrowsException() {
-        mockHeadRequest(HttpStatus.OK, "\"test-etag\"", "test-last-modified");
-        
         when(exchangeFunction.exchange(any()))
-            .thenAnswer(invocation -> {
-                org.springframework.web.reactive.function.client.ClientRequest request = invocation.getArgument(0);
-                if (request.method() == HttpMethod.HEAD) {
-                    return Mono.just(ClientResponse.create(HttpStatus.OK)
-                        .header(HttpHeaders.ETAG, "\"test-etag\"")
-                        .header(HttpHeaders.LAST_MODIFIED, "test-last-modified")
-                        .build());
-                } else if (request.method() == HttpMethod.GET) {
-                    return Mono.error(new WebClientResponseException(
-                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                        "Download Error",
-                        null,
-                        null,
-                        null
-                    ));
-                }
-                return Mono.error(new RuntimeException("Unexpected request"));
-            });
+            .thenReturn(Mono.error(new WebClientResponseException(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "Download Error",
+                null,
+                null,
+                null
+            )));
         
         assertThrows(RalieDownloadException.class, aneelRalieService::downloadRalieCsv);
     }
@@ -228,41 +217,175 @@ class AneelRalieServiceTest {
             existingMetadata.setEtag("\"test-etag\"");
             existingMetadata.setLastModified("test-last-modified");
             existingMetadata.setLastDownloadedFile(existingFilePath);
+            LocalDateTime lastDownloadTime = LocalDateTime.now().minusDays(1);
+            existingMetadata.setLastDownloadTime(lastDownloadTime);
             when(metadataService.loadMetadata()).thenReturn(existingMetadata);
             
-            mockHeadRequest(HttpStatus.OK, "\"test-etag\"", "test-last-modified");
+            mockConditionalGet("\"test-etag\"", "test-last-modified", new byte[0]);
+            ReflectionTestUtils.setField(aneelRalieService, "downloadPath", tempDir);
             
             String result = aneelRalieService.downloadRalieCsv();
             
-            assertNotNull(result, "O resultado não deve ser nulo");
+            assertEquals(existingFilePath, result, "Deveria retornar o arquivo já baixado");
             assertTrue(Files.exists(Paths.get(result)), "O arquivo deve existir");
-            verify(metadataService, never()).saveMetadata(any(RalieMetadata.class));
+            
+            ArgumentCaptor<ClientRequest> requestCaptor = ArgumentCaptor.forClass(ClientRequest.class);
+            verify(exchangeFunction, times(1)).exchange(requestCaptor.capture());
+            assertEquals(HttpMethod.GET, requestCaptor.getValue().method());
+            assertEquals("\"test-etag\"", requestCaptor.getValue().headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+            assertEquals("test-last-modified", requestCaptor.getValue().headers().getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+            
+            verify(csvImportService, never()).importCsv(any(Path.class), any(RalieImportProgress.class));
+            
+            ArgumentCaptor<RalieMetadata> metadataCaptor = ArgumentCaptor.forClass(RalieMetadata.class);
+            verify(metadataService).saveMetadata(metadataCaptor.capture());
+            assertEquals(lastDownloadTime, metadataCaptor.getValue().getLastDownloadTime());
+            assertTrue(metadataCaptor.getValue().getLastCheckTime().isAfter(lastDownloadTime));
+            
+            assertEquals(1, meterRegistry.get("ralie.download.duration").tag("outcome", "not_modified").timer().count());
+            assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "unchanged").timer().count());
+            assertNull(meterRegistry.find("ralie.download.bytes").counter());
         } finally {
-            Files.walk(tempDir)
-                 .sorted(Comparator.reverseOrder())
-                 .map(Path::toFile)
-                 .forEach(java.io.File::delete);
+            deleteRecursively(tempDir);
         }
     }
     
     @Test
-    void downloadRalieCsv_FileModified_DownloadsNewFile() {
-        String csvContent = "id,nome,cnpj\n1,Usina Teste,12345678000199";
-        String existingFilePath = "/caminho/para/arquivo/antigo.csv";
-        
-        RalieMetadata existingMetadata = new RalieMetadata();
-        existingMetadata.setEtag("\"old-etag\"");
-        existingMetadata.setLastModified("old-last-modified");
-        existingMetadata.setLastDownloadedFile(existingFilePath);
-        when(metadataService.loadMetadata()).thenReturn(existingMetadata);
-        
-        mockHeadRequest(HttpStatus.OK, "\"new-etag\"", "new-last-modified");
-        mockGetRequest(csvContent.getBytes());
-        
-        String result = aneelRalieService.downloadRalieCsv();
-        
-        assertNotNull(result, "O resultado não deve ser nulo");
-        assertNotEquals(existingFilePath, result, "Deveria ser um novo arquivo");
-        verify(metadataService, atLeastOnce()).saveMetadata(any(RalieMetadata.class));
+    void downloadRalieCsv_FileModified_DownloadsNewFile() throws IOException {
+        Path tempDir = Files.createTempDirectory("test-downloads");
+        try {
+            String csvContent = "id,nome,cnpj\n1,Usina Teste,12345678000199";
+            Path existingFile = Files.createFile(tempDir.resolve("ralie_antigo.csv"));
+            
+            RalieMetadata existingMetadata = new RalieMetadata();
+            existingMetadata.setEtag("\"old-etag\"");
+            existingMetadata.setLastModified("old-last-modified");
+            existingMetadata.setLastDownloadedFile(existingFile.toString());
+            when(metadataService.loadMetadata()).thenReturn(existingMetadata);
+            
+            mockConditionalGet("\"new-etag\"", "new-last-modified", csvContent.getBytes());
+            stubImport();
+            ReflectionTestUtils.setField(aneelRalieService, "downloadPath", tempDir);
+            
+            String result = aneelRalieService.downloadRalieCsv();
+            
+            assertNotNull(result, "O resultado não deve ser nulo");
+            assertNotEquals(existingFile.toString(), result, "Deveria ser um novo arquivo");
+            verify(exchangeFunction, times(1)).exchange(any());
+            
+            ArgumentCaptor<RalieMetadata> metadataCaptor = ArgumentCaptor.forClass(RalieMetadata.class);
+            verify(metadataService).saveMetadata(metadataCaptor.capture());
+            assertEquals("\"new-etag\"", metadataCaptor.getValue().getEtag());
+            assertEquals("new-last-modified", metadataCaptor.getValue().getLastModified());
+            assertEquals(RalieContentHash.of(Paths.get(result)), metadataCaptor.getValue().getContentHash());
+            assertEquals(LocalDate.of(2025, 5, 26), metadataCaptor.getValue().getDatasetVersion());
+        } finally {
+            deleteRecursively(tempDir);
+        }
+    }
+    
+    @Test
+    void downloadRalieCsv_WhenEtagChangesButContentIsIdentical_SkipsImport() throws IOException {
+        Path tempDir = Files.createTempDirectory("test-downloads");
+        try {
+            byte[] csvContent = "id,nome,cnpj\n1,Usina Teste,12345678000199".getBytes();
+            Path existingFile = Files.write(tempDir.resolve("ralie_antigo.csv"), csvContent);
+            
+            RalieMetadata existingMetadata = new RalieMetadata();
+            existingMetadata.setEtag("\"old-etag\"");
+            existingMetadata.setLastModified("old-last-modified");
+            existingMetadata.setLastDownloadedFile(existingFile.toString());
+            existingMetadata.setContentHash(RalieContentHash.of(existingFile));
+            existingMetadata.setDatasetVersion(LocalDate.of(2025, 5, 26));
+            LocalDateTime lastDownloadTime = LocalDateTime.now().minusDays(1);
+            existingMetadata.setLastDownloadTime(lastDownloadTime);
+            when(metadataService.loadMetadata()).thenReturn(existingMetadata);
+            
+            mockConditionalGet("\"new-etag\"", "new-last-modified", csvContent);
+            ReflectionTestUtils.setField(aneelRalieService, "downloadPath", tempDir);
+            
+            aneelRalieService.downloadRalieCsv();
+            
+            verify(csvImportService, never()).importCsv(any(Path.class), any(RalieImportProgress.class));
+            verify(potenciaGeradaService, never()).processImportedData();
+            
+            ArgumentCaptor<RalieMetadata> metadataCaptor = ArgumentCaptor.forClass(RalieMetadata.class);
+            verify(metadataService).saveMetadata(metadataCaptor.capture());
+            assertEquals("\"new-etag\"", metadataCaptor.getValue().getEtag());
+            assertEquals(LocalDate.of(2025, 5, 26), metadataCaptor.getValue().getDatasetVersion());
+            assertEquals(lastDownloadTime, metadataCaptor.getValue().getLastDownloadTime());
+            assertTrue(metadataCaptor.getValue().getLastCheckTime().isAfter(lastDownloadTime));
+        } finally {
+            deleteRecursively(tempDir);
+        }
+    }
+    
+    @Test
+    void downloadRalieCsv_WhenContentIsIdentical_KeepsOnlyThePreviousFile() throws IOException {
+        Path tempDir = Files.createTempDirectory("test-downloads");
+        try {
+            byte[] csvContent = "id,nome,cnpj\n1,Usina Teste,12345678000199".getBytes();
+            Path existingFile = Files.write(tempDir.resolve("ralie_antigo.csv"), csvContent);
+            
+            RalieMetadata existingMetadata = new RalieMetadata();
+            existingMetadata.setEtag("\"old-etag\"");
+            existingMetadata.setLastDownloadedFile(existingFile.toString());
+            existingMetadata.setContentHash(RalieContentHash.of(existingFile));
+            when(metadataService.loadMetadata()).thenReturn(existingMetadata);
+            
+            mockConditionalGet("\"new-etag\"", "new-last-modified", csvContent);
+            ReflectionTestUtils.setField(aneelRalieService, "downloadPath", tempDir);
+            
+            String result = aneelRalieService.downloadRalieCsv();
+            
+            assertEquals(existingFile.toString(), result);
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(List.of(existingFile), files.toList());
+            }
+            ArgumentCaptor<RalieMetadata> metadataCaptor = ArgumentCaptor.forClass(RalieMetadata.class);
+            verify(metadataService).saveMetadata(metadataCaptor.capture());
+            assertEquals(existingFile.toString(), metadataCaptor.getValue().getLastDownloadedFile());
+        } finally {
+            deleteRecursively(tempDir);
+        }
+    }
+    
+    @Test
+    void downloadRalieCsv_WhenLocalFileIsMissing_SendsUnconditionalGet() throws IOException {
+        Path tempDir = Files.createTempDirectory("test-downloads");
+        try {
+            RalieMetadata existingMetadata = new RalieMetadata();
+            existingMetadata.setEtag("\"test-etag\"");
+            existingMetadata.setLastModified("test-last-modified");
+            existingMetadata.setLastDownloadedFile(tempDir.resolve("removido.csv").toString());
+            when(metadataService.loadMetadata()).thenReturn(existingMetadata);
+            
+            mockConditionalGet("\"test-etag\"", "test-last-modified", "id,nome\n1,Usina".getBytes());
+            stubImport();
+            ReflectionTestUtils.setField(aneelRalieService, "downloadPath", tempDir);
+            
+            String result = aneelRalieService.downloadRalieCsv();
+            
+            assertTrue(Files.exists(Paths.get(result)), "O arquivo deve ter sido baixado novamente");
+            ArgumentCaptor<ClientRequest> requestCaptor = ArgumentCaptor.forClass(ClientRequest.class);
+            verify(exchangeFunction).exchange(requestCaptor.capture());
+            assertNull(requestCaptor.getValue().headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+            assertNull(requestCaptor.getValue().headers().getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        } finally {
+            deleteRecursively(tempDir);
+        }
+    }
+    
+    private void stubImport() throws IOException {
+        when(csvImportService.importCsv(any(Path.class), any(RalieImportProgress.class)))
+            .thenReturn(new RalieImportResult(1, LocalDate.of(2025, 5, 26), 1, 0, 0, 0));
+    }
+    
+    private void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                 .map(Path::toFile)
+                 .forEach(java.io.File::delete);
+        }
     }
 }
@@ -0,0 +1,262 @@
+package com.boltenergy.service;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.exception.RalieLeaseException;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.RalieLease;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.metrics.RalieImportMetrics;
+import com.boltenergy.service.shard.RalieShardedImport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RalieDatasetPublisherTest {
+
+    private static final Path FILE = Path.of("downloads", "ralie.csv");
+    private static final String STAGING_TABLE = RalieDatasetTables.staging(RalieDatasetTables.IMPORT_TABLE);
+
+    @Mock
+    private RalieUsinaCsvImportService csvImportService;
+
+    @Mock
+    private RalieUsinaEmpresaPotenciaGeradaService potenciaGeradaService;
+
+    @Mock
+    private RalieDatasetTables datasetTables;
+
+    @Spy
+    private RalieImportProperties importProperties = new RalieImportProperties();
+
+    @Mock
+    private RalieRefreshLease refreshLease;
+
+    @Spy
+    private RalieRefreshCoordinator refreshCoordinator = new RalieRefreshCoordinator();
+
+    @Mock
+    private RalieShardedImport shardedImport;
+
+    @Mock
+    private RalieImportMetrics importMetrics;
+
+    @InjectMocks
+    private RalieDatasetPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        importProperties.setPublish(RalieImportProperties.Publish.SWAP);
+    }
+
+    @Test
+    void publish_InSwapMode_ShouldLoadValidateAndRenameInOrder() throws IOException {
+        fenceRenames();
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 1));
+        when(datasetTables.countStaging(RalieDatasetTables.IMPORT_TABLE)).thenReturn(3L);
+
+        RalieImportResult result = publisher.publish(FILE);
+
+        assertEquals(3, result.totalRecords());
+        InOrder inOrder = inOrder(datasetTables, csvImportService, refreshLease);
+        inOrder.verify(datasetTables).prepareStaging(true);
+        inOrder.verify(csvImportService).importCsvToStaging(eq(FILE), any(RalieImportProgress.class));
+        inOrder.verify(datasetTables).countStaging(RalieDatasetTables.IMPORT_TABLE);
+        inOrder.verify(datasetTables).aggregateGeneratorsStaging(STAGING_TABLE);
+        inOrder.verify(refreshLease).fencedWithoutTransaction(any());
+        inOrder.verify(datasetTables).publishStaging(null);
+        verify(datasetTables, never()).dropStaging();
+        verify(csvImportService, never()).importCsv(any(Path.class), any(RalieImportProgress.class));
+        verify(potenciaGeradaService, never()).processImportedData();
+    }
+
+    @Test
+    void publish_WithShardingInFullMode_ShouldImportThroughShardsAndPublish() throws IOException {
+        fenceRenames();
+        importProperties.getSharding().setEnabled(true);
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(shardedImport.importToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 3));
+        when(datasetTables.countStaging(RalieDatasetTables.IMPORT_TABLE)).thenReturn(3L);
+
+        publisher.publish(FILE);
+
+        verify(datasetTables).prepareStaging(false);
+        verify(datasetTables).publishStaging(null);
+        verify(csvImportService, never()).importCsvToStaging(any(Path.class), any(RalieImportProgress.class));
+    }
+
+    @Test
+    void publish_InSwapFullMode_ShouldReportTheReplacedRowsAsDeleted() throws IOException {
+        fenceRenames();
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 3));
+        when(datasetTables.countPublished(RalieDatasetTables.IMPORT_TABLE)).thenReturn(5L);
+        when(datasetTables.countStaging(RalieDatasetTables.IMPORT_TABLE)).thenReturn(3L);
+
+        RalieImportResult result = publisher.publish(FILE);
+
+        assertEquals(5, result.deleted());
+        InOrder inOrder = inOrder(datasetTables);
+        inOrder.verify(datasetTables).countPublished(RalieDatasetTables.IMPORT_TABLE);
+        inOrder.verify(datasetTables).publishStaging(null);
+    }
+
+    @Test
+    void publish_WithShardingInDeltaMode_ShouldImportLocally() throws IOException {
+        importProperties.getSharding().setEnabled(true);
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 0));
+
+        publisher.publish(FILE);
+
+        verify(shardedImport, never()).importToStaging(any(Path.class), any(RalieImportProgress.class));
+    }
+
+    @Test
+    void publish_InSwapModeWithoutChanges_ShouldDropStagingAndKeepPublishedVersion() throws IOException {
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 0));
+
+        publisher.publish(FILE);
+
+        verify(datasetTables).prepareStaging(false);
+        verify(datasetTables).dropStaging();
+        verify(datasetTables, never()).publishStaging(any());
+    }
+
+    @Test
+    void publish_WhenStagingCountDoesNotMatchFile_ShouldDropStagingAndThrow() throws IOException {
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 3));
+        when(datasetTables.countStaging(RalieDatasetTables.IMPORT_TABLE)).thenReturn(2L);
+
+        assertThrows(RalieDownloadException.class, () -> publisher.publish(FILE));
+
+        verify(datasetTables).dropStaging();
+        verify(datasetTables, never()).aggregateGeneratorsStaging(anyString());
+        verify(datasetTables, never()).publishStaging(any());
+    }
+
+    @Test
+    void publish_WhenLeaseWasLost_ShouldDropStagingWithoutRenaming() throws IOException {
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 3));
+        when(datasetTables.countStaging(RalieDatasetTables.IMPORT_TABLE)).thenReturn(3L);
+        doThrow(new RalieLeaseException("Lease perdido")).when(refreshLease).fencedWithoutTransaction(any());
+
+        assertThrows(RalieLeaseException.class, () -> publisher.publish(FILE));
+
+        verify(datasetTables).dropStaging();
+        verify(datasetTables, never()).publishStaging(any());
+    }
+
+    @Test
+    void publish_WhenStagingLoadFails_ShouldDropStagingAndRethrow() throws IOException {
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(csvImportService.importCsvToStaging(eq(FILE), any(RalieImportProgress.class))).thenThrow(new IOException("linha inválida"));
+
+        IOException exception = assertThrows(IOException.class, () -> publisher.publish(FILE));
+
+        assertEquals("linha inválida", exception.getMessage());
+        verify(datasetTables).dropStaging();
+        verify(datasetTables, never()).publishStaging(any());
+    }
+
+    @Test
+    void publish_OutsideMySql_ShouldFallBackToInPlaceImport() throws IOException {
+        fenceWrites();
+        when(datasetTables.isSupported()).thenReturn(false);
+        when(csvImportService.importCsv(eq(FILE), any(RalieImportProgress.class))).thenReturn(result(3, 3));
+
+        publisher.publish(FILE);
+
+        verify(potenciaGeradaService).processImportedData();
+        verify(datasetTables, never()).prepareStaging(anyBoolean());
+        verify(csvImportService, never()).importCsvToStaging(any(Path.class), any(RalieImportProgress.class));
+    }
+
+    @Test
+    void rollback_WithoutPreviousVersion_ShouldThrow() {
+        holdLease();
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(datasetTables.hasPrevious()).thenReturn(false);
+
+        assertThrows(RalieDownloadException.class, () -> publisher.rollback());
+
+        verify(datasetTables, never()).rollback(any());
+    }
+
+    @Test
+    void rollback_WithPreviousVersion_ShouldRenameTablesWithTheLease() {
+        holdLease();
+        fenceRenames();
+        when(datasetTables.isSupported()).thenReturn(true);
+        when(datasetTables.hasPrevious()).thenReturn(true);
+
+        publisher.rollback();
+
+        InOrder inOrder = inOrder(refreshLease, datasetTables);
+        inOrder.verify(refreshLease).runExclusive(any(Runnable.class));
+        inOrder.verify(refreshLease).fencedWithoutTransaction(any());
+        inOrder.verify(datasetTables).rollback(null);
+    }
+
+    @Test
+    void rollback_DuringARefresh_ShouldKeepThePublishedTables() {
+        when(datasetTables.isSupported()).thenReturn(true);
+
+        refreshCoordinator.refresh(RalieImportProgress.untracked(), progress -> {
+            assertThrows(RalieDownloadException.class, () -> publisher.rollback());
+            return "ok";
+        });
+
+        verifyNoInteractions(refreshLease);
+        verify(datasetTables, never()).rollback(any());
+    }
+
+    private void holdLease() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(refreshLease).runExclusive(any(Runnable.class));
+    }
+
+    /**
+     * Sem atualização com lease em andamento, as escritas protegidas rodam sem token.
+     */
+    private void fenceRenames() {
+        doAnswer(invocation -> invocation.<Predicate<RalieLease>>getArgument(0).test(null))
+                .when(refreshLease).fencedWithoutTransaction(any());
+    }
+
+    private void fenceWrites() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(refreshLease).fenced(any());
+    }
+
+    private static RalieImportResult result(long total, long inserted) {
+        return new RalieImportResult(total, LocalDate.of(2025, 5, 26), inserted, 0, 0, total - inserted);
+    }
+}
@@ -106,6 +106,20 @@ class RalieMetadataDbServiceTest {
         verify(metadataRepository).save(any(RalieMetadataEntity.class));
     }
 
+    @Test
+    void saveMetadata_WhenOnlyChecked_ShouldKeepLastDownloadTime() {
+        LocalDateTime lastDownloadTime = LocalDateTime.now().minusDays(1);
+        when(metadataRepository.findFirstByOrderByLastDownloadTimeDesc()).thenReturn(testEntity);
+        when(metadataRepository.save(any(RalieMetadataEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        testMetadata.setLastDownloadTime(lastDownloadTime);
+        testMetadata.checked();
+        metadataService.saveMetadata(testMetadata);
+        
+        assertEquals(lastDownloadTime, testEntity.getLastDownloadTime());
+        assertEquals(testMetadata.getLastCheckTime(), testEntity.getLastCheckTime());
+    }
+
     @Test
     void saveMetadata_ShouldUpdateCurrentMetadata() {
         when(metadataRepository.findFirstByOrderByLastDownloadTimeDesc()).thenReturn(testEntity);
@@ -1,21 +1,44 @@
 package com.boltenergy.service;
 
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieImportCancelledException;
+import com.boltenergy.model.RalieImportResult;
 import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.repository.RalieDatasetTables;
+import com.boltenergy.repository.RalieUsinaCsvImportBulkWriter;
+import com.boltenergy.repository.RalieUsinaCsvImportLoadDataWriter;
 import com.boltenergy.repository.RalieUsinaCsvImportRepository;
+import com.boltenergy.exception.RalieLeaseException;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshLease;
+import com.boltenergy.service.pipeline.RalieBatchSizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
@@ -31,9 +54,29 @@ class RalieUsinaCsvImportServiceTest {
     @Mock
     private RalieUsinaCsvImportRepository repository;
 
+    @Mock
+    private RalieUsinaCsvImportBulkWriter bulkWriter;
+
+    @Mock
+    private RalieUsinaCsvImportLoadDataWriter loadDataWriter;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private RalieRefreshLease refreshLease;
+
+    @Spy
+    private RalieImportProperties importProperties = new RalieImportProperties();
+
+    @Spy
+    private RalieBatchSizer batchSizer = new RalieBatchSizer(importProperties, new SimpleMeterRegistry());
+
     @InjectMocks
     private RalieUsinaCsvImportService service;
 
+    private static final String STAGING_TABLE = RalieDatasetTables.staging(RalieDatasetTables.IMPORT_TABLE);
+
     @Captor
     private ArgumentCaptor<List<RalieUsinaCsvImportEntity>> entitiesCaptor;
 
@@ -82,8 +125,10 @@ class RalieUsinaCsvImportServiceTest {
         verify(repository, times(1)).count();
     }
 
-    @Test
-    void importCsv_WithValidContent_ShouldImportSuccessfully() throws IOException {
+    @ParameterizedTest
+    @EnumSource(RalieImportProperties.Parser.class)
+    void importCsv_WithValidContent_ShouldImportSuccessfully(RalieImportProperties.Parser parser) throws IOException {
+        importProperties.setParser(parser);
         when(repository.count()).thenReturn(1L);
         
         service.importCsv(validCsvContent);
@@ -93,6 +138,278 @@ class RalieUsinaCsvImportServiceTest {
         verify(repository, times(1)).saveAllAndFlush(anyList());
     }
 
+    @ParameterizedTest
+    @EnumSource(RalieImportProperties.Parser.class)
+    void importCsv_WithLatin1Stream_ShouldDecodeWhileParsing(RalieImportProperties.Parser parser) throws IOException {
+        importProperties.setParser(parser);
+        String csv = "CodCEG;NomEmpreendimento;DscTipoConexao\n" +
+                     "UHE.PH.RS.000324-7.1;Usina Hídrica;Subestação\n";
+        
+        service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.ISO_8859_1)));
+        
+        verify(repository).saveAllAndFlush(entitiesCaptor.capture());
+        RalieUsinaCsvImportEntity entity = entitiesCaptor.getValue().get(0);
+        assertEquals("Usina Hídrica", entity.getNomEmpreendimento());
+        assertEquals("Subestação", entity.getDscTipoConexao());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RalieImportProperties.Parser.class)
+    void importCsv_WithWindows1252ExampleFile_ShouldKeepAccents(RalieImportProperties.Parser parser) throws IOException {
+        importProperties.setParser(parser);
+        RalieImportResult result;
+        try (InputStream inputStream = getClass().getResourceAsStream("/examples/ralie-usina-example-simple.csv")) {
+            result = service.importCsv(inputStream);
+        }
+        
+        verify(repository).saveAllAndFlush(entitiesCaptor.capture());
+        assertEquals(entitiesCaptor.getValue().size(), result.totalRecords());
+        RalieUsinaCsvImportEntity entity = entitiesCaptor.getValue().get(0);
+        assertEquals(entity.getDatGeracaoConjuntoDados(), result.datasetVersion());
+        assertNotNull(result.datasetVersion());
+        assertEquals("Hídrica", entity.getDscOrigemCombustivel());
+        assertEquals("Subestação", entity.getDscTipoConexao());
+        assertEquals("Não Iniciada", entity.getDscSituacaoObra());
+    }
+
+    @Test
+    void importCsv_WithJdbcEngine_ShouldWriteThroughBulkWriter() throws IOException {
+        importProperties.setEngine(RalieImportProperties.Engine.JDBC);
+        
+        RalieImportResult result = service.importCsv(validCsvContent);
+        
+        verify(bulkWriter).saveAll(entitiesCaptor.capture());
+        assertEquals(2, entitiesCaptor.getValue().size());
+        assertEquals(2, result.inserted());
+        verify(repository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void importCsv_ShouldCheckTheLeaseAfterTheLastWrite() throws IOException {
+        importProperties.setEngine(RalieImportProperties.Engine.JDBC);
+        
+        service.importCsv(validCsvContent);
+        
+        InOrder inOrder = inOrder(bulkWriter, refreshLease);
+        inOrder.verify(bulkWriter).saveAll(anyList());
+        inOrder.verify(refreshLease).checkHeld();
+    }
+
+    @Test
+    void importCsv_WhenTheLeaseWasLost_ShouldFailTheImport() {
+        importProperties.setEngine(RalieImportProperties.Engine.JDBC);
+        doThrow(new RalieLeaseException("Lease ralie-refresh perdido")).when(refreshLease).checkHeld();
+        
+        assertThrows(RalieLeaseException.class, () -> service.importCsv(validCsvContent));
+    }
+
+    @Test
+    void importCsv_WithLoadDataEngine_ShouldLoadNewRowsFromIntermediateFile() throws IOException {
+        importProperties.setEngine(RalieImportProperties.Engine.LOAD_DATA);
+        RalieUsinaCsvImportLoadDataWriter.LoadFile loadFile = mock(RalieUsinaCsvImportLoadDataWriter.LoadFile.class);
+        when(loadDataWriter.isSupported()).thenReturn(true);
+        when(loadDataWriter.open()).thenReturn(loadFile);
+        
+        RalieImportResult result = service.importCsv(validCsvContent);
+        
+        assertEquals(2, result.inserted());
+        verify(loadFile, times(2)).append(any(RalieUsinaCsvImportEntity.class));
+        verify(loadDataWriter).load(loadFile);
+        verify(loadFile).close();
+        verify(repository, never()).saveAllAndFlush(anyList());
+        verify(bulkWriter, never()).saveAll(anyList());
+    }
+
+    @Test
+    void importCsv_WithLoadDataEngineOutsideMySql_ShouldFallBackToJpa() throws IOException {
+        importProperties.setEngine(RalieImportProperties.Engine.LOAD_DATA);
+        when(loadDataWriter.isSupported()).thenReturn(false);
+        
+        service.importCsv(validCsvContent);
+        
+        verify(loadDataWriter, never()).open();
+        verify(repository).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void importCsvToStaging_ShouldWriteToStagingWithoutTouchingPublishedTable(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("ralie.csv");
+        Files.writeString(file, validCsvContent);
+        
+        RalieImportResult result = service.importCsvToStaging(file);
+        
+        verify(bulkWriter).saveAll(eq(STAGING_TABLE), entitiesCaptor.capture());
+        assertEquals(2, entitiesCaptor.getValue().size());
+        assertEquals(2, result.inserted());
+        assertEquals(0, result.deleted());
+        verify(repository, never()).count();
+        verify(repository, never()).deleteAllInBatch();
+        verify(repository, never()).saveAllAndFlush(anyList());
+        verify(refreshLease, never()).checkHeld();
+    }
+
+    @Test
+    void importCsvToStaging_InDeltaMode_ShouldDeleteRemovedRowsFromStaging(@TempDir Path tempDir) throws IOException {
+        List<RalieUsinaCsvImportEntity> imported = importFullAndCapture(validCsvContent);
+        RalieUsinaCsvImportEntity first = imported.get(0);
+        RalieUsinaCsvImportEntity second = imported.get(1);
+        Path file = tempDir.resolve("ralie.csv");
+        Files.writeString(file, validCsvContent);
+        
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        when(repository.findAllFingerprints()).thenReturn(List.of(
+            new Fingerprint(1L, first.getCodCeg(), first.getIdeNucleoCeg(), first.getRowHash()),
+            new Fingerprint(2L, second.getCodCeg(), second.getIdeNucleoCeg(), second.getRowHash()),
+            new Fingerprint(3L, "UHE.PH.RS.999999-0.1", "NUC999", "hash-removido")));
+        
+        RalieImportResult result = service.importCsvToStaging(file);
+        
+        assertEquals(1, result.deleted());
+        assertEquals(2, result.unchanged());
+        verify(bulkWriter).deleteAllById(STAGING_TABLE, List.of(3L));
+        verify(repository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void importCsv_WithJpaEngine_ShouldClearPersistenceContextAfterEveryBatch(@TempDir Path tempDir) throws IOException {
+        String[] lines = validCsvContent.split("\n");
+        Path file = tempDir.resolve("ralie.csv");
+        Files.writeString(file, lines[0] + "\n" + (lines[1] + "\n").repeat(250));
+        importProperties.getBatch().setAdaptive(false);
+        importProperties.getBatch().setSize(100);
+        RalieImportProgress progress = new RalieImportProgress();
+        
+        service.importCsv(file, progress);
+        
+        InOrder inOrder = inOrder(repository, entityManager);
+        for (int i = 0; i < 3; i++) {
+            inOrder.verify(repository).saveAllAndFlush(anyList());
+            inOrder.verify(entityManager).clear();
+        }
+        assertTrue(progress.heapAfterGc() >= 0);
+    }
+
+    @Test
+    void importCsvToStaging_WithSeveralWriters_ShouldWriteEveryBatchOnce(@TempDir Path tempDir) throws IOException {
+        String[] lines = validCsvContent.split("\n");
+        Path file = tempDir.resolve("ralie.csv");
+        Files.writeString(file, lines[0] + "\n" + (lines[1] + "\n").repeat(25000));
+        importProperties.getBatch().setAdaptive(false);
+        importProperties.getPipeline().setEnabled(true);
+        importProperties.getPipeline().setWriters(3);
+        importProperties.getPipeline().setQueueCapacity(1);
+        RalieImportProgress progress = new RalieImportProgress();
+        
+        RalieImportResult result = service.importCsvToStaging(file, progress);
+        
+        verify(bulkWriter, times(3)).saveAll(eq(STAGING_TABLE), entitiesCaptor.capture());
+        assertEquals(25000, entitiesCaptor.getAllValues().stream().mapToInt(List::size).sum());
+        assertEquals(25000, result.inserted());
+        assertEquals(25000, progress.rowsWritten());
+        assertEquals(3, progress.pipelineSnapshot().writers().size());
+        assertEquals(3, progress.pipelineSnapshot().reader().batches());
+    }
+
+    @Test
+    void importCsv_WhenBatchWriteFails_ShouldReportTheBatch() {
+        when(repository.saveAllAndFlush(anyList())).thenThrow(new IllegalStateException("Conexão encerrada"));
+        
+        IOException exception = assertThrows(IOException.class, () -> service.importCsv(validCsvContent));
+        
+        assertEquals("Erro ao gravar o lote iniciado na linha 1 do CSV: Conexão encerrada", exception.getMessage());
+    }
+
+    @Test
+    void importCsv_WhenCancelled_ShouldStopBeforeWritingAnyRow(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("ralie.csv");
+        Files.writeString(file, validCsvContent);
+        RalieImportProgress progress = new RalieImportProgress();
+        progress.cancel();
+        
+        assertThrows(RalieImportCancelledException.class, () -> service.importCsv(file, progress));
+        
+        assertEquals(0, progress.rowsParsed());
+        verify(repository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void importCsv_WithProgress_ShouldCountParsedAndWrittenRows(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("ralie.csv");
+        Files.writeString(file, validCsvContent);
+        RalieImportProgress progress = new RalieImportProgress();
+        
+        service.importCsv(file, progress);
+        
+        assertEquals(2, progress.rowsParsed());
+        assertEquals(2, progress.rowsWritten());
+    }
+
+    @Test
+    void importCsv_WithFileInParallel_ShouldWriteSameRowsInFileOrder(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("ralie.csv");
+        try (InputStream inputStream = getClass().getResourceAsStream("/examples/ralie-usina-example-simple.csv")) {
+            Files.copy(inputStream, file);
+        }
+        RalieImportResult sequentialResult = service.importCsv(Files.newInputStream(file));
+        verify(repository).saveAllAndFlush(entitiesCaptor.capture());
+        List<RalieUsinaCsvImportEntity> sequential = List.copyOf(entitiesCaptor.getValue());
+        clearInvocations(repository);
+        
+        importProperties.setParallelism(4);
+        importProperties.setChunkSize(DataSize.ofBytes(1));
+        RalieImportResult parallelResult = service.importCsv(file);
+        
+        verify(repository).saveAllAndFlush(entitiesCaptor.capture());
+        assertEquals(sequential, entitiesCaptor.getValue());
+        assertEquals(sequentialResult, parallelResult);
+    }
+
+    @Test
+    void importCsv_InDeltaMode_ShouldApplyOnlyChangedRows() throws IOException {
+        List<RalieUsinaCsvImportEntity> imported = importFullAndCapture(validCsvContent);
+        RalieUsinaCsvImportEntity first = imported.get(0);
+        RalieUsinaCsvImportEntity second = imported.get(1);
+        clearInvocations(repository);
+        
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        when(repository.findAllFingerprints()).thenReturn(List.of(
+            new Fingerprint(1L, first.getCodCeg(), first.getIdeNucleoCeg(), first.getRowHash()),
+            new Fingerprint(2L, second.getCodCeg(), second.getIdeNucleoCeg(), "hash-anterior"),
+            new Fingerprint(3L, "UHE.PH.RS.999999-0.1", "NUC999", "hash-removido")));
+        
+        RalieImportResult result = service.importCsv(validCsvContent);
+        
+        assertEquals(2, result.totalRecords());
+        assertEquals(0, result.inserted());
+        assertEquals(1, result.updated());
+        assertEquals(1, result.deleted());
+        assertEquals(1, result.unchanged());
+        verify(repository, never()).deleteAllInBatch();
+        verify(repository).saveAllAndFlush(entitiesCaptor.capture());
+        assertEquals(1, entitiesCaptor.getValue().size());
+        assertEquals(2L, entitiesCaptor.getValue().get(0).getId());
+        verify(repository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void importCsv_InDeltaMode_ShouldMatchDuplicateKeysOneToOne() throws IOException {
+        String[] lines = validCsvContent.split("\n");
+        String duplicated = lines[0] + "\n" + lines[1] + "\n" + lines[1];
+        RalieUsinaCsvImportEntity row = importFullAndCapture(duplicated).get(0);
+        clearInvocations(repository);
+        
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        when(repository.findAllFingerprints()).thenReturn(List.of(
+            new Fingerprint(1L, row.getCodCeg(), row.getIdeNucleoCeg(), row.getRowHash())));
+        
+        RalieImportResult result = service.importCsv(duplicated);
+        
+        assertEquals(1, result.unchanged());
+        assertEquals(1, result.inserted());
+        assertEquals(0, result.deleted());
+        assertTrue(result.hasChanges());
+    }
+
     @Test
     void importCsv_WithEmptyContent_ShouldThrowException() {
         Exception exception = assertThrows(
@@ -103,8 +420,10 @@ class RalieUsinaCsvImportServiceTest {
         assertEquals("O conteúdo do CSV não pode ser nulo ou vazio", exception.getMessage());
     }
 
-    @Test
-    void importCsv_WithEmptyCsv_ShouldNotSaveAnyRecords() throws IOException {
+    @ParameterizedTest
+    @EnumSource(RalieImportProperties.Parser.class)
+    void importCsv_WithEmptyCsv_ShouldNotSaveAnyRecords(RalieImportProperties.Parser parser) throws IOException {
+        importProperties.setParser(parser);
         when(repository.count()).thenReturn(0L);
         
         service.importCsv(emptyCsvContent);
@@ -119,8 +438,10 @@ class RalieUsinaCsvImportServiceTest {
         verify(repository, never()).saveAllAndFlush(anyList());
     }
 
-    @Test
-    void importCsv_WithMalformedCsv_ShouldProcessGracefully() throws IOException {
+    @ParameterizedTest
+    @EnumSource(RalieImportProperties.Parser.class)
+    void importCsv_WithMalformedCsv_ShouldProcessGracefully(RalieImportProperties.Parser parser) throws IOException {
+        importProperties.setParser(parser);
         // Testa se o método processa o CSV malformado sem lançar exceção
         // O parser do Apache Commons CSV é tolerante a linhas com número incorreto de colunas
         service.importCsv(malformedCsvContent);
@@ -133,5 +454,13 @@ class RalieUsinaCsvImportServiceTest {
         // Se chegou até aqui, o teste passa
     }
 
+    private List<RalieUsinaCsvImportEntity> importFullAndCapture(String csv) throws IOException {
+        service.importCsv(csv);
+        verify(repository).saveAllAndFlush(entitiesCaptor.capture());
+        return List.copyOf(entitiesCaptor.getValue());
+    }
 
+    private record Fingerprint(Long getId, String getCodCeg, String getIdeNucleoCeg, String getRowHash)
+            implements RalieUsinaCsvImportRepository.RowFingerprint {
+    }
 }
@@ -1,19 +1,29 @@
 package com.boltenergy.service;
 
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieLease;
 import com.boltenergy.model.entity.RalieUsinaEmpresaPotenciaGeradaEntity;
+import com.boltenergy.repository.RalieDatasetTables;
 import com.boltenergy.repository.RalieUsinaCsvImportRepository;
 import com.boltenergy.repository.RalieUsinaEmpresaPotenciaGeradaRepository;
+import com.boltenergy.service.job.RalieImportProgress;
+import com.boltenergy.service.job.RalieRefreshCoordinator;
+import com.boltenergy.service.job.RalieRefreshLease;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +37,18 @@ class RalieUsinaEmpresaPotenciaGeradaServiceTest {
     @Mock
     private RalieUsinaCsvImportRepository csvImportRepository;
 
+    @Mock
+    private RalieDatasetTables datasetTables;
+
+    @Spy
+    private RalieImportProperties importProperties = new RalieImportProperties();
+
+    @Spy
+    private RalieRefreshCoordinator refreshCoordinator = new RalieRefreshCoordinator();
+
+    @Mock
+    private RalieRefreshLease refreshLease;
+
     @InjectMocks
     private RalieUsinaEmpresaPotenciaGeradaService service;
 
@@ -145,9 +167,58 @@ class RalieUsinaEmpresaPotenciaGeradaServiceTest {
 
     @Test
     void processLargestGeneratorsTable_ShouldProcessSuccessfully() {
+        holdLease();
+        fenceWrites();
+        
         service.processLargestGeneratorsTable();
         
-        verify(repository, times(1)).deleteAll();
-        verify(repository, times(1)).processDataTableLargestGenerators();
+        InOrder inOrder = inOrder(refreshLease, repository);
+        inOrder.verify(refreshLease).runExclusive(any(Runnable.class));
+        inOrder.verify(refreshLease).fenced(any());
+        inOrder.verify(repository, times(1)).deleteAll();
+        inOrder.verify(repository, times(1)).processDataTableLargestGenerators();
+    }
+
+    @Test
+    void processLargestGeneratorsTable_InSwapMode_ShouldPublishStagingTable() {
+        holdLease();
+        doAnswer(invocation -> invocation.<Predicate<RalieLease>>getArgument(0).test(null))
+                .when(refreshLease).fencedWithoutTransaction(any());
+        importProperties.setPublish(RalieImportProperties.Publish.SWAP);
+        when(datasetTables.isSupported()).thenReturn(true);
+        
+        service.processLargestGeneratorsTable();
+        
+        InOrder inOrder = inOrder(datasetTables, refreshLease);
+        inOrder.verify(datasetTables).prepareGeneratorsStaging();
+        inOrder.verify(datasetTables).aggregateGeneratorsStaging(RalieDatasetTables.IMPORT_TABLE);
+        inOrder.verify(refreshLease).fencedWithoutTransaction(any());
+        inOrder.verify(datasetTables).publishGeneratorsStaging(null);
+        verify(repository, never()).deleteAll();
+        verify(repository, never()).processDataTableLargestGenerators();
+    }
+
+    @Test
+    void processLargestGeneratorsTable_DuringARefresh_ShouldNotTouchTheTables() {
+        refreshCoordinator.refresh(RalieImportProgress.untracked(), progress -> {
+            assertThrows(RalieDownloadException.class, service::processLargestGeneratorsTable);
+            return "ok";
+        });
+        
+        verifyNoInteractions(refreshLease, datasetTables, repository);
+    }
+
+    private void holdLease() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(refreshLease).runExclusive(any(Runnable.class));
+    }
+
+    private void fenceWrites() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(refreshLease).fenced(any());
     }
 }
@@ -0,0 +1,74 @@
+package com.boltenergy.service.csv;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieBindingPlanTest {
+
+    @Test
+    void compile_ShouldReportMissingAndUnknownColumnsOnce() {
+        RalieBindingPlan plan = RalieBindingPlan.compile(List.of("codceg", "ColunaNova", "NomEmpreendimento"));
+
+        assertEquals(List.of("ColunaNova"), plan.unknownColumns());
+        assertTrue(plan.missingColumns().contains("DatRalie"));
+        assertFalse(plan.missingColumns().contains("CodCEG"));
+        assertEquals(77, plan.missingColumns().size());
+    }
+
+    @Test
+    void bind_ShouldMapColumnsByIndexAndParseTypedValues() throws IOException {
+        String csv = "NomEmpreendimento;Extra;DatRalie;MdaPotenciaOutorgadaKw;CodCEG\n" +
+                     "Usina Teste;ignorado;02/01/2023;1234,5;UHE.PH.RS.000324-7.1\n" +
+                     ";;99/01/2023;abc\n";
+        RalieUsinaCsvImportEntity first = new RalieUsinaCsvImportEntity();
+        RalieUsinaCsvImportEntity second = new RalieUsinaCsvImportEntity();
+
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new StringReader(csv))) {
+            RalieBindingPlan plan = RalieBindingPlan.compile(tokenizer.header());
+            assertTrue(tokenizer.next());
+            plan.bind(tokenizer.current(), first);
+            assertTrue(tokenizer.next());
+            plan.bind(tokenizer.current(), second);
+        }
+
+        assertEquals("Usina Teste", first.getNomEmpreendimento());
+        assertEquals(LocalDate.of(2023, 1, 2), first.getDatRalie());
+        assertEquals(1234.5, first.getMdaPotenciaOutorgadaKw());
+        assertEquals("UHE.PH.RS.000324-7.1", first.getCodCeg());
+
+        assertNull(second.getNomEmpreendimento());
+        assertNull(second.getDatRalie());
+        assertNull(second.getMdaPotenciaOutorgadaKw());
+        assertNull(second.getCodCeg());
+    }
+
+    @Test
+    void parseFailures_ShouldCountInvalidValuesPerColumnAcrossCopies() throws IOException {
+        String csv = "NomEmpreendimento;DatRalie;MdaPotenciaOutorgadaKw\n" +
+                     "Usina A;99/01/2023;abc\n" +
+                     "Usina B;;1,5\n" +
+                     "Usina C;02/01/2023;x\n";
+
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new StringReader(csv))) {
+            RalieBindingPlan plan = RalieBindingPlan.compile(tokenizer.header());
+            RalieBindingPlan copy = plan.copy();
+            assertTrue(tokenizer.next());
+            plan.bind(tokenizer.current(), new RalieUsinaCsvImportEntity());
+            assertTrue(tokenizer.next());
+            copy.bind(tokenizer.current(), new RalieUsinaCsvImportEntity());
+            assertTrue(tokenizer.next());
+            copy.bind(tokenizer.current(), new RalieUsinaCsvImportEntity());
+
+            assertEquals(Map.of("DatRalie", 1L, "MdaPotenciaOutorgadaKw", 2L), plan.parseFailures());
+            assertEquals(plan.parseFailures(), copy.parseFailures());
+        }
+    }
+}
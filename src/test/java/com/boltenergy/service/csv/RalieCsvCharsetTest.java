@@ -0,0 +1,104 @@
+package com.boltenergy.service.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieCsvCharsetTest {
+
+    private static final String ACCENTED = "Hídrica;Subestação;Não Iniciada\n";
+
+    @Test
+    void detect_WithUtf8Content_ShouldReturnUtf8() {
+        byte[] bytes = ACCENTED.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(StandardCharsets.UTF_8, RalieCsvCharset.detect(bytes, bytes.length, false));
+    }
+
+    @Test
+    void detect_WithLatin1Content_ShouldReturnIso88591() {
+        byte[] bytes = ACCENTED.getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals(StandardCharsets.ISO_8859_1, RalieCsvCharset.detect(bytes, bytes.length, false));
+    }
+
+    @Test
+    void detect_WithWindows1252Punctuation_ShouldReturnWindows1252() {
+        byte[] bytes = "Pirangi – UTE Colombo;Subestação".getBytes(RalieCsvCharset.WINDOWS_1252);
+
+        assertEquals(RalieCsvCharset.WINDOWS_1252, RalieCsvCharset.detect(bytes, bytes.length, false));
+    }
+
+    @Test
+    void detect_WithSampleCutInsideMultibyteSequence_ShouldStillReturnUtf8() {
+        byte[] bytes = ACCENTED.getBytes(StandardCharsets.UTF_8);
+        int cut = ACCENTED.indexOf('í') + 1;
+
+        assertEquals(StandardCharsets.UTF_8, RalieCsvCharset.detect(Arrays.copyOf(bytes, cut), cut, true));
+    }
+
+    @Test
+    void openReader_WithExampleFile_ShouldTranscodeAccents() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/examples/ralie-usina-example-simple.csv");
+             Reader reader = RalieCsvCharset.openReader(inputStream)) {
+            String content = readAll(reader);
+
+            assertTrue(content.contains("Hídrica"));
+            assertTrue(content.contains("Subestação"));
+        }
+    }
+
+    @Test
+    void openReader_WithUtf8Bom_ShouldSkipBom() throws IOException {
+        byte[] body = "CodCEG;NomEmpreendimento\n".getBytes(StandardCharsets.UTF_8);
+        byte[] withBom = new byte[body.length + 3];
+        withBom[0] = (byte) 0xEF;
+        withBom[1] = (byte) 0xBB;
+        withBom[2] = (byte) 0xBF;
+        System.arraycopy(body, 0, withBom, 3, body.length);
+
+        try (Reader reader = RalieCsvCharset.openReader(new ByteArrayInputStream(withBom))) {
+            assertEquals("CodCEG;NomEmpreendimento\n", readAll(reader));
+        }
+    }
+
+    @Test
+    void openReader_WithAsciiPrefixAndLatin1Later_ShouldDetectAtFirstAccent() throws IOException {
+        String ascii = "CEG;Usina Sem Acento\n".repeat(5000);
+        byte[] file = (ascii + ACCENTED).getBytes(StandardCharsets.ISO_8859_1);
+
+        try (Reader reader = RalieCsvCharset.openReader(new ByteArrayInputStream(file))) {
+            assertEquals(ascii + ACCENTED, readAll(reader));
+        }
+    }
+
+    @Test
+    void openReader_WhenLaterBytesContradictTheDetectedCharset_ShouldFail() throws IOException {
+        byte[] utf8 = (ACCENTED + "CEG;Usina Sem Acento\n".repeat(5000)).getBytes(StandardCharsets.UTF_8);
+        byte[] latin1 = ACCENTED.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] file = Arrays.copyOf(utf8, utf8.length + latin1.length);
+        System.arraycopy(latin1, 0, file, utf8.length, latin1.length);
+
+        try (Reader reader = RalieCsvCharset.openReader(new ByteArrayInputStream(file))) {
+            assertThrows(CharacterCodingException.class, () -> readAll(reader));
+        }
+    }
+
+    private String readAll(Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[4096];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.boltenergy.service.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieCsvTokenizerTest {
+
+    @Test
+    void next_WithQuotedFieldsAndEmbeddedNewline_ShouldExposeUnquotedSlices() throws IOException {
+        String csv = "CodCEG;DscPropriRegimePariticipacao;NomEmpreendimento\r\n" +
+                     "UHE.PH.RS.000324-7.1;\"Empresa A (50%)\r\nEmpresa \"\"B\"\" (50%)\";  Usina Teste  \r\n";
+
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new StringReader(csv))) {
+            assertEquals(List.of("CodCEG", "DscPropriRegimePariticipacao", "NomEmpreendimento"), tokenizer.header());
+            assertTrue(tokenizer.next());
+
+            RalieRecord record = tokenizer.current();
+            assertEquals(1, record.recordNumber());
+            assertEquals(3, record.size());
+            assertEquals("UHE.PH.RS.000324-7.1", record.getString(0));
+            assertEquals("Empresa A (50%)\r\nEmpresa \"B\" (50%)", record.getString(1));
+            assertEquals("Usina Teste", record.getString(2));
+            assertEquals("Usina Teste", new String(record.chars(), record.start(2), record.length(2)));
+            assertFalse(tokenizer.next());
+        }
+    }
+
+    @Test
+    void next_WithEmptyFieldsAndBlankLines_ShouldKeepPositions() throws IOException {
+        String csv = "A;B;C\n\n1;;\n\n;2;\n";
+
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new StringReader(csv))) {
+            assertTrue(tokenizer.next());
+            assertEquals(3, tokenizer.size());
+            assertEquals("1", tokenizer.getString(0));
+            assertTrue(tokenizer.isEmpty(1));
+            assertTrue(tokenizer.isEmpty(2));
+            assertNull(tokenizer.getString(3));
+
+            assertTrue(tokenizer.next());
+            assertEquals("2", tokenizer.getString(1));
+            assertFalse(tokenizer.next());
+        }
+    }
+
+    @Test
+    void next_WithUnclosedQuote_ShouldThrow() throws IOException {
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(new StringReader("A;B\n1;\"aberto\n"))) {
+            assertThrows(IOException.class, tokenizer::next);
+        }
+    }
+
+    @Test
+    void next_WithSmallBuffer_ShouldMatchCommonsCsvOnExampleFile() throws IOException {
+        List<List<String>> expected = readAll(new CommonsCsvRecordReader(openExample()));
+        List<List<String>> actual = readAll(new RalieCsvTokenizer(openExample(), 7));
+
+        assertFalse(actual.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void hash_ShouldBeTheSameForBothReaders() throws IOException {
+        String csv = "A;B\n\"Subestação – 1\";\"x\"\"y\"\n";
+        RalieRowHash rowHash = new RalieRowHash(List.of("A", "B"));
+
+        try (RalieRecordReader tokenizer = new RalieCsvTokenizer(new StringReader(csv));
+             RalieRecordReader commons = new CommonsCsvRecordReader(new StringReader(csv))) {
+            assertTrue(tokenizer.next());
+            assertTrue(commons.next());
+            assertEquals(rowHash.hash(commons.current()), rowHash.hash(tokenizer.current()));
+        }
+    }
+
+    private Reader openExample() throws IOException {
+        InputStream inputStream = getClass().getResourceAsStream("/examples/ralie-usina-example-simple.csv");
+        return RalieCsvCharset.openReader(inputStream);
+    }
+
+    private static List<List<String>> readAll(RalieRecordReader reader) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (reader) {
+            rows.add(reader.header());
+            while (reader.next()) {
+                RalieRecord record = reader.current();
+                List<String> row = new ArrayList<>(record.size());
+                for (int i = 0; i < record.size(); i++) {
+                    row.add(record.getString(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,68 @@
+package com.boltenergy.service.csv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieFieldParsersTest {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @ParameterizedTest
+    @ValueSource(strings = {"01/01/2023", "26/05/2025", "29/02/2024", "29/02/2023", "31/04/2025", "31/12/1999",
+            "00/01/2023", "32/01/2023", "01/13/2023", "01/00/2023", "1/1/2023", "01-01-2023", "aa/01/2023",
+            "01/01/0000", "01/01/20231", ""})
+    void date_ShouldMatchLocalDateParse(String value) {
+        LocalDate expected;
+        try {
+            expected = LocalDate.parse(value, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            expected = null;
+        }
+
+        assertEquals(expected, new RalieFieldParsers().date(value.toCharArray(), 0, value.length()), value);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1234,5", "1234.5", "0", "-0", "10000.00", "0,0001", "9,27158E+13", "1E-5", "+,5",
+            "5,", "123456789012345678901", "1,7976931348623157E308", "4,9E-324", "0,1", "3,3", "NaN", "Infinity",
+            "1d", "0x1p3", "1,234,5", "abc", ",", "1e", "E5", "", "-", "12 5"})
+    void parseDecimal_ShouldMatchDoubleParseDoubleWithCommaReplaced(String value) {
+        Double expected;
+        try {
+            expected = Double.parseDouble(value.replace(",", "."));
+        } catch (NumberFormatException e) {
+            expected = Double.NaN;
+        }
+
+        assertEquals(expected, RalieFieldParsers.parseDecimal(value.toCharArray(), 0, value.length()), value);
+    }
+
+    @Test
+    void date_ShouldReuseInstancesForRepeatedDates() {
+        RalieFieldParsers parsers = new RalieFieldParsers();
+        char[] chars = "xx26/05/2025;26/05/2025".toCharArray();
+
+        LocalDate first = parsers.date(chars, 2, 12);
+        LocalDate second = parsers.date(chars, 13, 23);
+
+        assertEquals(LocalDate.of(2025, 5, 26), first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void date_ShouldKeepWorkingWhenManyDistinctDatesAreCached() {
+        RalieFieldParsers parsers = new RalieFieldParsers();
+        LocalDate date = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < 10_000; i++, date = date.plusDays(1)) {
+            char[] chars = date.format(DATE_FORMAT).toCharArray();
+            assertEquals(date, parsers.date(chars, 0, chars.length));
+        }
+    }
+}
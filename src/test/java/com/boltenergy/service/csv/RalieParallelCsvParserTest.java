@@ -0,0 +1,116 @@
+package com.boltenergy.service.csv;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieParallelCsvParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void forEachChunk_WithExampleFile_ShouldMatchSequentialTokenizerInOrder() throws IOException {
+        Path file = tempDir.resolve("ralie.csv");
+        try (InputStream inputStream = getClass().getResourceAsStream("/examples/ralie-usina-example-simple.csv")) {
+            Files.copy(inputStream, file);
+        }
+
+        List<RalieUsinaCsvImportEntity> expected = new ArrayList<>();
+        try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(RalieCsvCharset.openReader(Files.newInputStream(file)))) {
+            RalieBindingPlan plan = RalieBindingPlan.compile(tokenizer.header());
+            RalieRowHash rowHash = new RalieRowHash(plan.header());
+            while (tokenizer.next()) {
+                RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+                plan.bind(tokenizer.current(), entity);
+                entity.setRowHash(rowHash.hash(tokenizer.current()));
+                expected.add(entity);
+            }
+        }
+
+        List<RalieUsinaCsvImportEntity> actual = new ArrayList<>();
+        List<Long> firstRecordNumbers = new ArrayList<>();
+        try (RalieParallelCsvParser parser = RalieParallelCsvParser.open(file, 4, 1)) {
+            assertEquals(RalieCsvCharset.WINDOWS_1252, parser.charset());
+            assertEquals(expected.size(), parser.chunkCount());
+            parser.forEachChunk(RalieBindingPlan.compile(parser.header()), chunk -> {
+                firstRecordNumbers.add(chunk.firstRecordNumber());
+                actual.addAll(chunk.entities());
+            });
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), firstRecordNumbers);
+    }
+
+    @Test
+    void open_WithAsciiPrefixLongerThanTheSample_ShouldDetectFromFirstAccent() throws IOException {
+        String csv = "CodCEG;NomEmpreendimento\n" + "CEG;Usina Sem Acento\n".repeat(5000) + "CEG;Subestação\n";
+        Path file = Files.write(tempDir.resolve("ralie.csv"), csv.getBytes(StandardCharsets.ISO_8859_1));
+
+        List<RalieUsinaCsvImportEntity> entities = new ArrayList<>();
+        try (RalieParallelCsvParser parser = RalieParallelCsvParser.open(file, 2, 64 * 1024)) {
+            assertEquals(StandardCharsets.ISO_8859_1, parser.charset());
+            parser.forEachChunk(RalieBindingPlan.compile(parser.header()), chunk -> entities.addAll(chunk.entities()));
+        }
+
+        assertEquals("Subestação", entities.get(entities.size() - 1).getNomEmpreendimento());
+    }
+
+    @Test
+    void forEachChunk_WithQuotedNewlines_ShouldNeverSplitInsideAField() throws IOException {
+        String csv = "CodCEG;DscPropriRegimePariticipacao;NomEmpreendimento\r\n" +
+                     "CEG1;\"Empresa A (50%)\r\nEmpresa \"\"B\"\"\r\n(50%)\";Usina 1\r\n" +
+                     "CEG2;\"Empresa C;\nEmpresa D\";Usina \"2\"\r\n" +
+                     "\r\n" +
+                     "CEG3;Empresa E;Usina 3";
+        Path file = Files.writeString(tempDir.resolve("ralie.csv"), csv, StandardCharsets.UTF_8);
+
+        List<RalieUsinaCsvImportEntity> entities = new ArrayList<>();
+        try (RalieParallelCsvParser parser = RalieParallelCsvParser.open(file, 2, 1)) {
+            parser.forEachChunk(RalieBindingPlan.compile(parser.header()), chunk -> entities.addAll(chunk.entities()));
+        }
+
+        assertEquals(3, entities.size());
+        assertEquals("Empresa A (50%)\r\nEmpresa \"B\"\r\n(50%)", entities.get(0).getDscPropriRegimePariticipacao());
+        assertEquals("Usina 1", entities.get(0).getNomEmpreendimento());
+        assertEquals("Empresa C;\nEmpresa D", entities.get(1).getDscPropriRegimePariticipacao());
+        assertEquals("Usina \"2\"", entities.get(1).getNomEmpreendimento());
+        assertEquals("CEG3", entities.get(2).getCodCeg());
+    }
+
+    @Test
+    void forEachChunk_WithUnclosedQuote_ShouldReportLineInWholeFile() throws IOException {
+        String csv = "CodCEG;NomEmpreendimento\n" +
+                     "CEG1;Usina 1\n" +
+                     "CEG2;\"Usina\n2\"\n" +
+                     "CEG3;\"Usina 3\n";
+        Path file = Files.writeString(tempDir.resolve("ralie.csv"), csv, StandardCharsets.UTF_8);
+
+        try (RalieParallelCsvParser parser = RalieParallelCsvParser.open(file, 2, 1)) {
+            RalieBindingPlan plan = RalieBindingPlan.compile(parser.header());
+            IOException exception = assertThrows(IOException.class, () -> parser.forEachChunk(plan, chunk -> { }));
+            assertEquals("Aspas não fechadas no registro iniciado na linha 5", exception.getMessage());
+        }
+    }
+
+    @Test
+    void open_WithOnlyHeader_ShouldHaveNoChunks() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("ralie.csv"), "﻿CodCEG;NomEmpreendimento\n", StandardCharsets.UTF_8);
+
+        try (RalieParallelCsvParser parser = RalieParallelCsvParser.open(file, 2, 1)) {
+            assertEquals(List.of("CodCEG", "NomEmpreendimento"), parser.header());
+            assertEquals(0, parser.chunkCount());
+        }
+    }
+}
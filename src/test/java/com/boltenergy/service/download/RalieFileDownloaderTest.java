@@ -0,0 +1,278 @@
+package com.boltenergy.service.download;
+
+import com.boltenergy.config.WebClientConfig;
+import com.boltenergy.config.WebClientProperties;
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieMetadata;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieFileDownloaderTest {
+
+    private static final String ETAG = "\"ralie-v1\"";
+    private static final String LAST_MODIFIED = "Mon, 26 May 2025 10:00:00 GMT";
+
+    @TempDir
+    Path downloadDir;
+
+    private MockWebServer server;
+    private WebClientProperties properties;
+    private WebClient webClient;
+    private byte[] body;
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+
+        properties = new WebClientProperties();
+        properties.setDownloadMaxAttempts(3);
+        properties.setDownloadRetryBackoff(Duration.ZERO);
+        webClient = new WebClientConfig(properties).createWebClient(server.url("/").toString());
+
+        body = new byte[512 * 1024];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + (i % 26));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void download_WhenConnectionDropsMidBody_ResumesWithRangeAndIfRange() throws IOException {
+        server.setDispatcher(rangeAwareDispatcher(1, true));
+
+        RalieDownloadResult result = download();
+
+        assertFalse(result.notModified());
+        assertEquals(ETAG, result.etag());
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertEquals(sha256(body), result.contentHash(), "O hash deve cobrir o prefixo retomado");
+        assertEquals(2, requests.size());
+
+        RecordedRequest resumed = requests.get(1);
+        long offset = Long.parseLong(resumed.getHeader("Range").replace("bytes=", "").replace("-", ""));
+        assertTrue(offset > 0 && offset < body.length, "Deveria retomar a partir do último byte gravado");
+        assertEquals(ETAG, resumed.getHeader("If-Range"));
+        assertNull(resumed.getHeader("If-None-Match"));
+        assertFalse(Files.exists(downloadDir.resolve(RalieFileDownloader.PARTIAL_FILE_NAME)));
+        assertFalse(Files.exists(downloadDir.resolve(RalieFileDownloader.PARTIAL_STATE_FILE_NAME)));
+    }
+
+    @Test
+    void download_WhenServerIgnoresRange_FallsBackToFullFetch() throws IOException {
+        server.setDispatcher(rangeAwareDispatcher(1, false));
+
+        RalieDownloadResult result = download();
+
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertNotNull(requests.get(1).getHeader("Range"));
+    }
+
+    @Test
+    void download_WhenAttemptsAreExhausted_KeepsPartialForNextRun() throws IOException {
+        properties.setDownloadMaxAttempts(1);
+        server.setDispatcher(rangeAwareDispatcher(1, true));
+
+        assertThrows(RalieDownloadException.class, this::download);
+
+        Path partial = downloadDir.resolve(RalieFileDownloader.PARTIAL_FILE_NAME);
+        assertTrue(Files.exists(partial));
+        assertTrue(Files.size(partial) > 0);
+        assertTrue(Files.readString(downloadDir.resolve(RalieFileDownloader.PARTIAL_STATE_FILE_NAME)).contains("ralie-v1"));
+
+        RalieDownloadResult result = download();
+
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertNotNull(requests.get(1).getHeader("Range"));
+    }
+
+    @Test
+    void download_WhenBodyIsShorterThanContentLength_DoesNotKeepTheFile() {
+        properties.setDownloadMaxAttempts(1);
+        properties.setDownloadSegments(1);
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", ETAG)
+                .setBody(new Buffer().write(Arrays.copyOf(body, body.length / 2)))
+                .setHeader("Content-Length", body.length)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_AT_END));
+
+        assertThrows(RalieDownloadException.class, this::download);
+
+        assertFalse(Files.exists(downloadDir.resolve("ralie.csv")));
+    }
+
+    @Test
+    void download_WhenServerAnswersNotModified_ReturnsWithoutBody() {
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", ETAG));
+
+        RalieMetadata validators = new RalieMetadata();
+        validators.setEtag(ETAG);
+        validators.setLastModified(LAST_MODIFIED);
+
+        RalieDownloadResult result = new RalieFileDownloader(properties)
+                .download(webClient, "/ralie-usina.csv", downloadDir.resolve("ralie.csv"), validators);
+
+        assertTrue(result.notModified());
+        assertFalse(Files.exists(downloadDir.resolve("ralie.csv")));
+        assertFalse(Files.exists(downloadDir.resolve(RalieFileDownloader.PARTIAL_FILE_NAME)));
+    }
+
+    @Test
+    void download_WhenServerAcceptsRanges_FetchesSegmentsInParallel() throws IOException {
+        useSmallSegments();
+        server.setDispatcher(segmentDispatcher(new AtomicInteger(), new AtomicInteger()));
+
+        RalieDownloadResult result = download();
+
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertEquals(body.length, result.size());
+        assertEquals(sha256(body), result.contentHash());
+        assertEquals("bytes=0-65535", requests.get(0).getHeader("Range"));
+        assertEquals(5, requests.size());
+        requests.subList(1, requests.size())
+                .forEach(request -> assertEquals(ETAG, request.getHeader("If-Range")));
+        assertFalse(Files.exists(downloadDir.resolve(RalieFileDownloader.PARTIAL_FILE_NAME)));
+    }
+
+    @Test
+    void download_WhenSegmentDrops_RetriesOnlyThatSegment() throws IOException {
+        useSmallSegments();
+        server.setDispatcher(segmentDispatcher(new AtomicInteger(1), new AtomicInteger()));
+
+        RalieDownloadResult result = download();
+
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertEquals(1, requests.stream().filter(request -> request.getHeader("If-Range") == null).count(),
+                "A queda de um segmento não deveria reiniciar o download");
+    }
+
+    @Test
+    void download_WhenFileChangesBetweenSegments_RestartsFromScratch() throws IOException {
+        useSmallSegments();
+        server.setDispatcher(segmentDispatcher(new AtomicInteger(), new AtomicInteger(1)));
+
+        RalieDownloadResult result = download();
+
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertEquals(2, requests.stream().filter(request -> request.getHeader("If-Range") == null).count());
+    }
+
+    @Test
+    void download_WhenSegmentationIsDisabled_UsesSingleRequest() throws IOException {
+        properties.setDownloadSegments(1);
+        server.setDispatcher(segmentDispatcher(new AtomicInteger(), new AtomicInteger()));
+
+        RalieDownloadResult result = download();
+
+        assertArrayEquals(body, Files.readAllBytes(result.file()));
+        assertEquals(1, requests.size());
+        assertNull(requests.get(0).getHeader("Range"));
+    }
+
+    private void useSmallSegments() {
+        properties.setDownloadSegments(4);
+        properties.setMinSegmentSize(DataSize.ofKilobytes(64));
+    }
+
+    private static String sha256(byte[] content) {
+        MessageDigest digest = RalieContentHash.newDigest();
+        digest.update(content);
+        return RalieContentHash.hex(digest);
+    }
+
+    private RalieDownloadResult download() {
+        return new RalieFileDownloader(properties)
+                .download(webClient, "/ralie-usina.csv", downloadDir.resolve("ralie.csv"), new RalieMetadata());
+    }
+
+    /**
+     * Responde intervalos fechados ({@code bytes=a-b}); {@code drops} derruba a conexão de um
+     * segmento no meio e {@code rejections} simula a troca do arquivo respondendo 200.
+     */
+    private Dispatcher segmentDispatcher(AtomicInteger drops, AtomicInteger rejections) {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                requests.add(request);
+                String range = request.getHeader("Range");
+                String ifRange = request.getHeader("If-Range");
+
+                if (range == null || (ifRange != null && rejections.getAndDecrement() > 0)) {
+                    return new MockResponse()
+                            .setHeader("ETag", ETAG)
+                            .setBody(new Buffer().write(body));
+                }
+
+                String[] bounds = range.replace("bytes=", "").split("-");
+                int start = Integer.parseInt(bounds[0]);
+                int end = bounds.length > 1 ? Math.min(Integer.parseInt(bounds[1]), body.length - 1) : body.length - 1;
+                MockResponse response = new MockResponse()
+                        .setResponseCode(206)
+                        .setHeader("ETag", ETAG)
+                        .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + body.length)
+                        .setBody(new Buffer().write(Arrays.copyOfRange(body, start, end + 1)));
+                if (ifRange != null && drops.getAndDecrement() > 0) {
+                    response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+                }
+                return response;
+            }
+        };
+    }
+
+    private Dispatcher rangeAwareDispatcher(int failures, boolean supportsRanges) {
+        AtomicInteger remainingFailures = new AtomicInteger(failures);
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                requests.add(request);
+                String range = request.getHeader("Range");
+
+                if (range != null && supportsRanges && ETAG.equals(request.getHeader("If-Range"))) {
+                    int start = Integer.parseInt(range.replace("bytes=", "").replace("-", ""));
+                    return new MockResponse()
+                            .setResponseCode(206)
+                            .setHeader("ETag", ETAG)
+                            .setHeader("Content-Range", "bytes " + start + "-" + (body.length - 1) + "/" + body.length)
+                            .setBody(new Buffer().write(Arrays.copyOfRange(body, start, body.length)));
+                }
+
+                MockResponse response = new MockResponse()
+                        .setHeader("ETag", ETAG)
+                        .setHeader("Last-Modified", LAST_MODIFIED)
+                        .setHeader("Accept-Ranges", supportsRanges ? "bytes" : "none")
+                        .setBody(new Buffer().write(body));
+                if (remainingFailures.getAndDecrement() > 0) {
+                    response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+                }
+                return response;
+            }
+        };
+    }
+}
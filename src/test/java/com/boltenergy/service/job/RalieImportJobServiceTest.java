@@ -0,0 +1,147 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.dto.RalieImportJobDTO;
+import com.boltenergy.model.entity.RalieImportJobEntity;
+import com.boltenergy.repository.RalieImportJobRepository;
+import com.boltenergy.service.AneelRalieService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RalieImportJobServiceTest {
+
+    @Mock
+    private AneelRalieService aneelRalieService;
+
+    @Mock
+    private RalieImportJobRepository repository;
+
+    @Mock
+    private RalieRefreshLease refreshLease;
+
+    private RalieImportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RalieImportJobService(aneelRalieService, repository, refreshLease);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void start_ShouldReturnImmediatelyAndRecordFinishedJob() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(refreshLease.getOwnerId()).thenReturn("app-1");
+        when(aneelRalieService.downloadRalieCsv(any(RalieImportProgress.class))).thenAnswer(invocation -> {
+            RalieImportProgress progress = invocation.getArgument(0);
+            release.await(5, TimeUnit.SECONDS);
+            progress.phase(RalieImportProgress.Phase.IMPORTING);
+            progress.addRowParsed();
+            progress.addRowsWritten(1);
+            progress.importResult(new RalieImportResult(1, LocalDate.of(2025, 5, 26), 1, 0, 0, 0));
+            return "downloads/ralie.csv";
+        });
+
+        RalieImportJobDTO job = service.start();
+
+        assertNotNull(job.getId());
+        assertEquals(RalieImportJobEntity.Status.QUEUED, job.getStatus());
+        release.countDown();
+
+        RalieImportJobEntity finished = awaitFinished(3);
+        assertEquals(job.getId(), finished.getId());
+        assertEquals(RalieImportJobEntity.Status.SUCCEEDED, finished.getStatus());
+        assertEquals("app-1", finished.getOwnerId());
+        assertEquals("IMPORTING", finished.getPhase());
+        assertEquals(1, finished.getRowsParsed());
+        assertEquals(1, finished.getRowsWritten());
+        assertEquals(1L, finished.getInserted());
+        assertEquals("downloads/ralie.csv", finished.getFilePath());
+        assertFalse(service.cancel(job.getId()), "Um job finalizado não pode ser cancelado");
+    }
+
+    @Test
+    void cancel_ShouldStopRunningJobAtNextCheckpoint() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        when(aneelRalieService.downloadRalieCsv(any(RalieImportProgress.class))).thenAnswer(invocation -> {
+            RalieImportProgress progress = invocation.getArgument(0);
+            started.countDown();
+            while (true) {
+                progress.checkCancelled();
+                Thread.sleep(5);
+            }
+        });
+
+        RalieImportJobDTO job = service.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(service.cancel(job.getId()));
+
+        RalieImportJobEntity finished = awaitFinished(3);
+        assertEquals(RalieImportJobEntity.Status.CANCELLED, finished.getStatus());
+        assertNotNull(finished.getFinishedAt());
+    }
+
+    @Test
+    void start_WhenRefreshFails_ShouldRecordFailure() throws InterruptedException {
+        when(aneelRalieService.downloadRalieCsv(any(RalieImportProgress.class)))
+                .thenThrow(new RalieDownloadException("Falha ao baixar o arquivo"));
+
+        service.start();
+
+        RalieImportJobEntity finished = awaitFinished(3);
+        assertEquals(RalieImportJobEntity.Status.FAILED, finished.getStatus());
+        assertEquals("Falha ao baixar o arquivo", finished.getMessage());
+    }
+
+    @Test
+    void markInterruptedJobs_ShouldFailJobsLeftRunning() {
+        RalieImportJobEntity running = new RalieImportJobEntity();
+        running.setId("job-1");
+        running.setStatus(RalieImportJobEntity.Status.RUNNING);
+        running.setOwnerId("app-1");
+        when(refreshLease.getOwnerId()).thenReturn("app-1");
+        when(repository.findByStatusInAndOwnerId(any(), eq("app-1"))).thenReturn(List.of(running));
+
+        service.markInterruptedJobs();
+
+        assertEquals(RalieImportJobEntity.Status.FAILED, running.getStatus());
+        assertNotNull(running.getFinishedAt());
+        verify(repository).saveAll(List.of(running));
+    }
+
+    @Test
+    void markInterruptedJobs_ShouldLeaveJobsOfOtherInstances() {
+        when(refreshLease.getOwnerId()).thenReturn("app-2");
+        when(repository.findByStatusInAndOwnerId(any(), eq("app-2"))).thenReturn(List.of());
+
+        service.markInterruptedJobs();
+
+        verify(repository, never()).saveAll(any());
+    }
+
+    private RalieImportJobEntity awaitFinished(int saves) {
+        ArgumentCaptor<RalieImportJobEntity> captor = ArgumentCaptor.forClass(RalieImportJobEntity.class);
+        verify(repository, timeout(5000).times(saves)).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,84 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.exception.RalieDownloadException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieRefreshCoordinatorTest {
+
+    private final RalieRefreshCoordinator coordinator = new RalieRefreshCoordinator();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runAlone_DuringARefresh_ShouldThrowWithoutRunning() {
+        List<String> steps = new CopyOnWriteArrayList<>();
+
+        coordinator.refresh(RalieImportProgress.untracked(), progress -> {
+            assertThrows(RalieDownloadException.class, () -> coordinator.runAlone(() -> steps.add("runAlone")));
+            return "ok";
+        });
+
+        assertTrue(steps.isEmpty());
+        assertFalse(coordinator.isRunning());
+    }
+
+    @Test
+    void refresh_DuringRunAlone_ShouldStartAfterItEnds() throws Exception {
+        List<String> steps = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> alone = executor.submit(() -> coordinator.runAlone(() -> {
+            started.countDown();
+            await(release);
+            steps.add("runAlone");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread releaser = new Thread(() -> {
+            sleep(300);
+            release.countDown();
+        });
+        releaser.start();
+        String result = coordinator.refresh(RalieImportProgress.untracked(), progress -> {
+            steps.add("refresh");
+            return "arquivo.csv";
+        });
+
+        alone.get(5, TimeUnit.SECONDS);
+        releaser.join();
+        assertEquals("arquivo.csv", result);
+        assertEquals(List.of("runAlone", "refresh"), steps);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
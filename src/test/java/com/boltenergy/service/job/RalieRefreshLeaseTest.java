@@ -0,0 +1,156 @@
+package com.boltenergy.service.job;
+
+import com.boltenergy.config.RalieLeaseProperties;
+import com.boltenergy.exception.RalieImportCancelledException;
+import com.boltenergy.exception.RalieLeaseException;
+import com.boltenergy.model.RalieLease;
+import com.boltenergy.repository.RalieLeaseTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RalieRefreshLeaseTest {
+
+    private static final String OWNER = "app-1";
+    private static final RalieLease LEASE = new RalieLease(RalieRefreshLease.LEASE_NAME, OWNER, 7);
+
+    @Mock
+    private RalieLeaseTable leaseTable;
+
+    private RalieLeaseProperties properties;
+    private RalieRefreshLease refreshLease;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RalieLeaseProperties();
+        properties.setOwnerId(OWNER);
+        properties.setTtl(Duration.ofSeconds(5));
+        properties.setRenewInterval(Duration.ofMillis(20));
+        refreshLease = new RalieRefreshLease(leaseTable, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshLease.shutdown();
+    }
+
+    @Test
+    void runExclusive_WhenLeaseIsFree_ShouldRunAndRelease() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.of(LEASE));
+
+        String result = refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> "ok");
+
+        assertEquals("ok", result);
+        verify(leaseTable).release(LEASE);
+    }
+
+    @Test
+    void runExclusive_WhenAnotherInstanceHoldsTheLease_ShouldNotRun() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.empty());
+        when(leaseTable.currentOwner(RalieRefreshLease.LEASE_NAME)).thenReturn(Optional.of("app-2"));
+
+        RalieLeaseException exception = assertThrows(RalieLeaseException.class,
+                () -> refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> fail("não deveria executar")));
+
+        assertTrue(exception.getMessage().contains("app-2"));
+        verify(leaseTable, never()).release(any());
+    }
+
+    @Test
+    void runExclusive_WhenTaskFails_ShouldStillRelease() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.of(LEASE));
+
+        assertThrows(IllegalStateException.class, () -> refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> {
+            throw new IllegalStateException("falha");
+        }));
+
+        verify(leaseTable).release(LEASE);
+    }
+
+    @Test
+    void runExclusive_WhenRenewalFails_ShouldCancelTheRefreshAndFailTheFenceCheck() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.of(LEASE));
+        when(leaseTable.renew(LEASE, properties.getTtl())).thenReturn(false);
+
+        assertThrows(RalieImportCancelledException.class, () -> refreshLease.runExclusive(new RalieImportProgress(), progress -> {
+            while (true) {
+                progress.checkCancelled();
+                Thread.onSpinWait();
+            }
+        }));
+
+        verify(leaseTable, timeout(1000).atLeastOnce()).renew(LEASE, properties.getTtl());
+        verify(leaseTable).release(LEASE);
+    }
+
+    @Test
+    void checkHeld_WhenLeaseWasTakenOver_ShouldThrow() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.of(LEASE));
+        when(leaseTable.renew(LEASE, properties.getTtl())).thenReturn(false);
+        properties.setRenewInterval(Duration.ofMinutes(1));
+
+        assertThrows(RalieLeaseException.class, () -> refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> {
+            refreshLease.checkHeld();
+            return "publicado";
+        }));
+    }
+
+    @Test
+    void checkHeld_OutsideAnExclusiveRun_ShouldDoNothing() {
+        refreshLease.checkHeld();
+
+        verifyNoInteractions(leaseTable);
+    }
+
+    @Test
+    void fenced_ShouldCheckTheTokenBeforeTheWrite() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.of(LEASE));
+        when(leaseTable.renew(LEASE, properties.getTtl())).thenReturn(false);
+        properties.setRenewInterval(Duration.ofMinutes(1));
+        Runnable write = mock(Runnable.class);
+
+        assertThrows(RalieLeaseException.class, () -> refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> {
+            refreshLease.fenced(write);
+            return "salvo";
+        }));
+
+        verifyNoInteractions(write);
+    }
+
+    @Test
+    void fencedWithoutTransaction_WhenTheWriteFindsAnotherToken_ShouldThrow() {
+        when(leaseTable.tryAcquire(RalieRefreshLease.LEASE_NAME, OWNER, properties.getTtl())).thenReturn(Optional.of(LEASE));
+        when(leaseTable.renew(LEASE, properties.getTtl())).thenReturn(true);
+        properties.setRenewInterval(Duration.ofMinutes(1));
+        List<RalieLease> fences = new ArrayList<>();
+
+        assertThrows(RalieLeaseException.class, () -> refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> {
+            refreshLease.fencedWithoutTransaction(fence -> fences.add(fence) && false);
+            return "publicado";
+        }));
+
+        assertEquals(List.of(LEASE), fences);
+    }
+
+    @Test
+    void runExclusive_WhenDisabled_ShouldRunWithoutTouchingTheTable() {
+        properties.setEnabled(false);
+
+        assertEquals("ok", refreshLease.runExclusive(RalieImportProgress.untracked(), progress -> "ok"));
+
+        verifyNoInteractions(leaseTable);
+    }
+}
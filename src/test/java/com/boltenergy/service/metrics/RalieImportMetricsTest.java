@@ -0,0 +1,165 @@
+package com.boltenergy.service.metrics;
+
+import com.boltenergy.config.RalieImportProperties;
+import com.boltenergy.exception.RalieDownloadException;
+import com.boltenergy.exception.RalieImportCancelledException;
+import com.boltenergy.model.RalieImportResult;
+import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.service.RalieMetadataService;
+import com.boltenergy.service.download.RalieDownloadResult;
+import com.boltenergy.service.job.RalieImportProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RalieImportMetricsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RalieImportProperties importProperties = new RalieImportProperties();
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-05-26T12:00:00Z"));
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+    private final RalieMetadataService metadataService = mock(RalieMetadataService.class);
+    private RalieImportMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        importProperties.setEngine(RalieImportProperties.Engine.JDBC);
+        importProperties.setMode(RalieImportProperties.Mode.DELTA);
+        metrics = new RalieImportMetrics(meterRegistry, importProperties, metadataService, clock);
+    }
+
+    @Test
+    void download_WithNewFile_ShouldRecordBytesAndThroughput() {
+        metrics.download(new RalieDownloadResult(false, "\"etag\"", null, Path.of("ralie.csv"), 4_000_000, "hash"), 2 * SECOND);
+
+        assertEquals(4_000_000, meterRegistry.get("ralie.download.bytes").counter().count());
+        assertEquals(2, meterRegistry.get("ralie.download.duration").tag("outcome", "modified")
+                .timer().totalTime(TimeUnit.SECONDS));
+        assertEquals(2_000_000, meterRegistry.get("ralie.download.throughput").summary().mean());
+    }
+
+    @Test
+    void download_WhenNotModified_ShouldOnlyRecordDuration() {
+        metrics.download(RalieDownloadResult.notModifiedResult(), SECOND);
+
+        assertEquals(1, meterRegistry.get("ralie.download.duration").tag("outcome", "not_modified").timer().count());
+        assertNull(meterRegistry.find("ralie.download.bytes").counter());
+        assertNull(meterRegistry.find("ralie.download.throughput").summary());
+    }
+
+    @Test
+    void refresh_AfterImport_ShouldRecordRowsPhasesAndParseFailures() {
+        RalieImportProgress progress = new RalieImportProgress();
+        progress.phase(RalieImportProgress.Phase.IMPORTING);
+        progress.addRowsParsed(1000);
+        progress.addRowsWritten(400);
+        progress.addParseFailures(Map.of("DatRalie", 3L));
+        sleep(5);
+        progress.complete();
+        progress.importResult(new RalieImportResult(1000, LocalDate.of(2025, 5, 26), 400, 0, 0, 0));
+
+        metrics.refresh(progress, SECOND, null);
+
+        assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "updated").timer().count());
+        assertEquals(1, meterRegistry.get("ralie.refresh.phase.duration").tags("phase", "import", "engine", "jdbc")
+                .timer().count());
+        assertNull(meterRegistry.find("ralie.refresh.phase.duration").tag("phase", "download").timer());
+        assertEquals(1000, meterRegistry.get("ralie.import.rows.parsed").tags("engine", "jdbc", "mode", "delta")
+                .counter().count());
+        assertEquals(400, meterRegistry.get("ralie.import.rows.written").counter().count());
+        assertTrue(meterRegistry.get("ralie.import.rows.throughput").summary().mean() > 0);
+        assertEquals(3, meterRegistry.get("ralie.import.parse.failures").tag("column", "DatRalie").counter().count());
+    }
+
+    @Test
+    void refresh_WhenFailedOrCancelled_ShouldTagOutcome() {
+        metrics.refresh(new RalieImportProgress(), SECOND, new RalieDownloadException("Falha no download"));
+        metrics.refresh(new RalieImportProgress(), SECOND, new RalieDownloadException("Falha ao processar o arquivo",
+                new RalieImportCancelledException("Atualização do RALIE cancelada")));
+        metrics.refresh(new RalieImportProgress(), SECOND, null);
+
+        assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "failed").timer().count());
+        assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "cancelled").timer().count());
+        assertEquals(1, meterRegistry.get("ralie.refresh.duration").tag("outcome", "unchanged").timer().count());
+    }
+
+    @Test
+    void datasetAge_ShouldCountFromLastDownload() {
+        when(metadataService.loadMetadata()).thenReturn(new RalieMetadata());
+        assertTrue(Double.isNaN(meterRegistry.get("ralie.dataset.age").gauge().value()));
+
+        metrics.dataset(downloadedAt(LocalDateTime.of(2025, 5, 26, 11, 0)));
+
+        assertEquals(3600, meterRegistry.get("ralie.dataset.age").gauge().value());
+    }
+
+    @Test
+    void datasetAge_OnAnInstanceThatDidNotDownload_ShouldFollowTheSharedMetadata() {
+        when(metadataService.loadMetadata())
+                .thenReturn(downloadedAt(LocalDateTime.of(2025, 5, 26, 11, 0)))
+                .thenReturn(downloadedAt(LocalDateTime.of(2025, 5, 26, 12, 0)));
+
+        assertEquals(3600, meterRegistry.get("ralie.dataset.age").gauge().value());
+
+        // Outra instância publica um arquivo novo; a leitura seguinte, depois do intervalo, o vê
+        now.set(now.get().plus(RalieImportMetrics.DATASET_RELOAD_INTERVAL).plusSeconds(1));
+        assertEquals(31, meterRegistry.get("ralie.dataset.age").gauge().value());
+        assertEquals(31, meterRegistry.get("ralie.dataset.age").gauge().value());
+        verify(metadataService, times(2)).loadMetadata();
+    }
+
+    @Test
+    void datasetAge_WhenTheMetadataCannotBeRead_ShouldKeepTheLastValue() {
+        metrics.dataset(downloadedAt(LocalDateTime.of(2025, 5, 26, 11, 0)));
+        when(metadataService.loadMetadata()).thenThrow(new IllegalStateException("Banco indisponível"));
+
+        now.set(now.get().plus(RalieImportMetrics.DATASET_RELOAD_INTERVAL).plusSeconds(1));
+
+        assertEquals(3631, meterRegistry.get("ralie.dataset.age").gauge().value());
+    }
+
+    private static RalieMetadata downloadedAt(LocalDateTime time) {
+        RalieMetadata metadata = new RalieMetadata();
+        metadata.setLastDownloadTime(time);
+        return metadata;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.boltenergy.service.pipeline;
+
+import com.boltenergy.config.RalieImportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieBatchSizerTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final RalieImportProperties properties = new RalieImportProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RalieBatchSizer batchSizer;
+
+    @BeforeEach
+    void setUp() {
+        RalieImportProperties.Batch batch = properties.getBatch();
+        batch.setSize(10000);
+        batch.setMinSize(1000);
+        batch.setMaxSize(12000);
+        batch.setIncreaseStep(1000);
+        batch.setDecreaseFactor(0.5);
+        batch.setTargetLatency(Duration.ofMillis(500));
+        batchSizer = new RalieBatchSizer(properties, meterRegistry);
+    }
+
+    @Test
+    void record_WhenBatchIsFast_ShouldGrowAdditivelyUpToMaxSize() {
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 10000, 100 * MILLIS);
+        assertEquals(11000, batchSizer.size());
+
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 11000, 110 * MILLIS);
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 12000, 120 * MILLIS);
+
+        assertEquals(12000, batchSizer.size());
+    }
+
+    @Test
+    void record_WhenBatchExceedsTargetLatency_ShouldShrinkMultiplicativelyDownToMinSize() {
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 10000, 800 * MILLIS);
+        assertEquals(5000, batchSizer.size());
+
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 5000, 900 * MILLIS);
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 2500, 900 * MILLIS);
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 1250, 900 * MILLIS);
+
+        assertEquals(1000, batchSizer.size());
+    }
+
+    @Test
+    void record_WhenGrowingLowersThroughput_ShouldStepBack() {
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 10000, 100 * MILLIS);
+        assertEquals(11000, batchSizer.size());
+
+        // 11.000 registros em 200 ms: metade dos registros por segundo do lote anterior
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 11000, 200 * MILLIS);
+
+        assertEquals(10000, batchSizer.size());
+    }
+
+    @Test
+    void record_WithSmallLastBatch_ShouldKeepSize() {
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 300, 900 * MILLIS);
+
+        assertEquals(10000, batchSizer.size());
+        assertEquals(1, meterRegistry.get("ralie.import.batch.write").tag("engine", "jdbc").timer().count());
+    }
+
+    @Test
+    void size_WhenNotAdaptive_ShouldStayFixed() {
+        properties.getBatch().setAdaptive(false);
+
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 10000, 900 * MILLIS);
+
+        assertEquals(10000, batchSizer.size());
+    }
+
+    @Test
+    void size_ShouldBePublishedAsGauge() {
+        batchSizer.record(RalieImportProperties.Engine.JDBC, 10000, 800 * MILLIS);
+
+        assertEquals(5000, meterRegistry.get("ralie.import.batch.size").gauge().value());
+    }
+}
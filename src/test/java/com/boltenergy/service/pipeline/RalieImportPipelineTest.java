@@ -0,0 +1,144 @@
+package com.boltenergy.service.pipeline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Timeout(10)
+class RalieImportPipelineTest {
+
+    @Test
+    void run_WithOneWriter_ShouldWriteEveryBatchInOrderOnTheCallingThread() throws Exception {
+        RalieImportPipeline<Integer> pipeline = new RalieImportPipeline<>(2, 1);
+        List<Integer> written = new ArrayList<>();
+        Set<Thread> writerThreads = ConcurrentHashMap.newKeySet();
+
+        pipeline.run(sink -> {
+            for (int i = 0; i < 100; i++) {
+                sink.accept(i);
+            }
+        }, batch -> {
+            writerThreads.add(Thread.currentThread());
+            written.add(batch);
+        });
+
+        assertEquals(100, written.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, written.get(i));
+        }
+        assertEquals(Set.of(Thread.currentThread()), writerThreads);
+        RalieImportPipeline.Snapshot snapshot = pipeline.snapshot();
+        assertEquals(100, snapshot.reader().batches());
+        assertEquals(100, snapshot.writers().get(0).batches());
+        assertEquals(0, snapshot.queueDepth());
+    }
+
+    @Test
+    void run_WithSeveralWriters_ShouldWriteEveryBatchOnce() throws Exception {
+        RalieImportPipeline<Integer> pipeline = new RalieImportPipeline<>(4, 3);
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+
+        pipeline.run(sink -> {
+            for (int i = 0; i < 1000; i++) {
+                sink.accept(i);
+            }
+        }, written::add);
+
+        assertEquals(1000, written.size());
+        assertEquals(1000, Set.copyOf(written).size());
+        assertEquals(3, pipeline.snapshot().writers().size());
+        assertEquals(1000, pipeline.snapshot().writers().stream()
+                .mapToLong(RalieImportPipeline.StageSnapshot::batches).sum());
+    }
+
+    @Test
+    void run_WhenWriterIsSlow_ShouldBlockReaderAtQueueCapacity() throws Exception {
+        RalieImportPipeline<Integer> pipeline = new RalieImportPipeline<>(3, 1);
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+
+        pipeline.run(sink -> {
+            for (int i = 0; i < 20; i++) {
+                sink.accept(i);
+                maxAhead.accumulateAndGet(produced.incrementAndGet() - consumed.get(), Math::max);
+            }
+        }, batch -> {
+            sleep(10);
+            consumed.incrementAndGet();
+        });
+
+        // Na fila cabem 3 lotes; mais um pode estar na gravação
+        assertTrue(maxAhead.get() <= 4, "Lotes à frente da gravação: " + maxAhead.get());
+        RalieImportPipeline.Snapshot snapshot = pipeline.snapshot();
+        assertEquals(3, snapshot.maxQueueDepth());
+        assertTrue(snapshot.reader().waiting() > snapshot.writers().get(0).waiting());
+        assertEquals("gravação", snapshot.bottleneck());
+    }
+
+    @Test
+    void run_WhenReaderFails_ShouldStopWritersAndThrowTheFailure() {
+        RalieImportPipeline<Integer> pipeline = new RalieImportPipeline<>(2, 2);
+        AtomicInteger written = new AtomicInteger();
+
+        IOException exception = assertThrows(IOException.class, () -> pipeline.run(sink -> {
+            sink.accept(1);
+            throw new IOException("Erro ao processar a linha 2 do CSV");
+        }, batch -> written.incrementAndGet()));
+
+        assertEquals("Erro ao processar a linha 2 do CSV", exception.getMessage());
+        assertTrue(written.get() <= 1);
+    }
+
+    @Test
+    void run_WhenWriterFails_ShouldStopReaderBlockedOnFullQueue() {
+        RalieImportPipeline<Integer> pipeline = new RalieImportPipeline<>(1, 1);
+        CountDownLatch readerStopped = new CountDownLatch(1);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> pipeline.run(sink -> {
+            try {
+                for (int i = 0; i < 1_000_000; i++) {
+                    sink.accept(i);
+                }
+            } finally {
+                readerStopped.countDown();
+            }
+        }, batch -> {
+            if (batch == 5) {
+                throw new IllegalStateException("Falha na gravação");
+            }
+        }));
+
+        assertEquals("Falha na gravação", exception.getMessage());
+        assertEquals(0, readerStopped.getCount());
+    }
+
+    @Test
+    void run_WithoutBatches_ShouldReturnImmediately() throws Exception {
+        RalieImportPipeline<Integer> pipeline = new RalieImportPipeline<>(2, 2);
+
+        pipeline.run(sink -> { }, batch -> fail("Nenhum lote deveria ser gravado"));
+
+        assertEquals(0, pipeline.snapshot().reader().batches());
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
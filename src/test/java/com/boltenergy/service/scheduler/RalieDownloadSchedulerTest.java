@@ -1,6 +1,7 @@
 package com.boltenergy.service.scheduler;
 
 import com.boltenergy.config.RalieSchedulingProperties;
+import com.boltenergy.exception.RalieLeaseException;
 import com.boltenergy.service.AneelRalieService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -82,4 +83,19 @@ class RalieDownloadSchedulerTest {
         verify(schedulingProperties, times(1)).isEnabled();
         verify(schedulingProperties, times(1)).getJobName();
     }
+
+    @Test
+    void scheduledDownload_WhenAnotherInstanceHoldsTheLease_ShouldSkip() {
+        // Arrange
+        when(schedulingProperties.isEnabled()).thenReturn(true);
+        when(schedulingProperties.getJobName()).thenReturn(JOB_NAME);
+        when(aneelRalieService.downloadRalieCsv())
+                .thenThrow(new RalieLeaseException("Atualização do RALIE em andamento em outra instância (app-2)"));
+
+        // Act
+        scheduler.scheduledDownload();
+
+        // Assert
+        verify(aneelRalieService, times(1)).downloadRalieCsv();
+    }
 }
@@ -0,0 +1,240 @@
+package com.boltenergy.support;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servidor HTTP local que faz o papel do portal de dados abertos da ANEEL, para testes e
+ * benchmarks da atualização completa sem rede. Responde ao mesmo protocolo que o
+ * {@code RalieFileDownloader} usa: pedidos condicionais ({@code If-None-Match} e
+ * {@code If-Modified-Since}) com 304, intervalos ({@code Range}, fechados ou abertos) com 206 e
+ * {@code Content-Range}, e {@code If-Range}, que volta ao arquivo completo quando o validador não
+ * é mais o atual.
+ *
+ * <p>Cada {@link #publish(byte[])} troca o arquivo e gera um novo {@code ETag} e
+ * {@code Last-Modified}. As condições da rede são configuráveis: {@link #bandwidth(long)} limita
+ * a taxa de cada conexão, {@link #latency(Duration)} atrasa os cabeçalhos de cada resposta e
+ * {@link #resets(int)} derruba a conexão no meio do corpo das próximas respostas, como uma
+ * transferência interrompida. {@link #publishAfterNextResponse(byte[])} troca o arquivo no meio de
+ * um download.
+ */
+public final class AneelStandInServer implements Closeable {
+
+    public static final String CSV_PATH = "/dataset/ralie/resource/ralie-usina.csv";
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    /**
+     * Validador enviado junto com o arquivo.
+     */
+    public enum EtagMode {
+        /** {@code ETag} forte, usado em {@code If-None-Match} e {@code If-Range}. */
+        STRONG,
+        /** {@code ETag} fraco: o {@code If-Range} passa a usar o {@code Last-Modified}. */
+        WEAK,
+        /** Sem {@code ETag}, apenas {@code Last-Modified}. */
+        NONE
+    }
+
+    private final MockWebServer server = new MockWebServer();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger remainingResets = new AtomicInteger();
+    private final AtomicReference<byte[]> pendingPublish = new AtomicReference<>();
+    private volatile File current;
+    private volatile EtagMode etagMode = EtagMode.STRONG;
+    private volatile boolean sendLastModified = true;
+    private volatile long bytesPerSecond;
+    private volatile Duration latency = Duration.ZERO;
+
+    public AneelStandInServer() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+    }
+
+    public AneelStandInServer start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Endereço completo do arquivo, para {@code ralie.source.url}.
+     */
+    public String url() {
+        return server.url(CSV_PATH).toString();
+    }
+
+    /**
+     * Passa a servir {@code content} como uma nova versão do arquivo.
+     */
+    public AneelStandInServer publish(byte[] content) {
+        int version = current == null ? 1 : current.version() + 1;
+        // Last-Modified tem resolução de segundos: cada versão fica um segundo depois da anterior
+        Instant modified = Instant.parse("2025-01-01T00:00:00Z").plusSeconds(version);
+        current = new File(content, version, HTTP_DATE.format(modified));
+        return this;
+    }
+
+    /**
+     * Passa a servir {@code content} logo depois da próxima resposta com conteúdo.
+     */
+    public AneelStandInServer publishAfterNextResponse(byte[] content) {
+        pendingPublish.set(content);
+        return this;
+    }
+
+    public AneelStandInServer etag(EtagMode etagMode) {
+        this.etagMode = etagMode;
+        return this;
+    }
+
+    /**
+     * Com {@code false}, não envia {@code Last-Modified}; junto com {@link EtagMode#NONE}, as
+     * respostas não têm nenhum validador.
+     */
+    public AneelStandInServer lastModified(boolean sendLastModified) {
+        this.sendLastModified = sendLastModified;
+        return this;
+    }
+
+    /**
+     * Limite de bytes por segundo de cada conexão; {@code 0} não limita.
+     */
+    public AneelStandInServer bandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    public AneelStandInServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Derruba a conexão no meio do corpo das próximas {@code resets} respostas com conteúdo.
+     */
+    public AneelStandInServer resets(int resets) {
+        remainingResets.set(resets);
+        return this;
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        requests.incrementAndGet();
+        File file = current;
+        if (file == null || !CSV_PATH.equals(request.getPath())) {
+            return delayed(new MockResponse().setResponseCode(404));
+        }
+        if (notModified(request, file)) {
+            return delayed(validators(new MockResponse().setResponseCode(304), file));
+        }
+
+        byte[] content = file.content();
+        String range = request.getHeader("Range");
+        String ifRange = request.getHeader("If-Range");
+        boolean rangeApplies = range != null && range.startsWith("bytes=")
+                && (ifRange == null || ifRange.equals(file.lastModified())
+                        || etagMode == EtagMode.STRONG && ifRange.equals(file.tag()));
+        if (!rangeApplies) {
+            return withBody(validators(new MockResponse(), file), content, 0, content.length);
+        }
+
+        String[] bounds = range.substring("bytes=".length()).split("-", 2);
+        long start = Long.parseLong(bounds[0]);
+        long end = bounds[1].isEmpty() ? content.length - 1 : Math.min(Long.parseLong(bounds[1]), content.length - 1);
+        if (start >= content.length) {
+            return delayed(validators(new MockResponse().setResponseCode(416)
+                    .setHeader("Content-Range", "bytes */" + content.length), file));
+        }
+        MockResponse response = validators(new MockResponse().setResponseCode(206), file)
+                .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        return withBody(response, content, (int) start, (int) (end + 1));
+    }
+
+    /**
+     * Como em um servidor HTTP, {@code If-None-Match} tem precedência sobre {@code If-Modified-Since}.
+     */
+    private boolean notModified(RecordedRequest request, File file) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            String etag = etag(file);
+            // A comparação de If-None-Match é fraca: W/"v1" e "v1" são o mesmo arquivo
+            return etag != null && ifNoneMatch.replace("W/", "").equals(file.tag());
+        }
+        return file.lastModified().equals(request.getHeader("If-Modified-Since"));
+    }
+
+    private MockResponse withBody(MockResponse response, byte[] content, int from, int to) {
+        response.setHeader("Accept-Ranges", "bytes")
+                .setHeader("Content-Type", "text/csv")
+                .setBody(new Buffer().write(content, from, to - from));
+        if (bytesPerSecond > 0) {
+            // Blocos de 100 ms mantêm a taxa estável mesmo em respostas pequenas
+            response.throttleBody(Math.max(1, bytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+        }
+        if (remainingResets.getAndUpdate(resets -> Math.max(0, resets - 1)) > 0) {
+            response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+        }
+        byte[] next = pendingPublish.getAndSet(null);
+        if (next != null) {
+            publish(next);
+        }
+        return delayed(response);
+    }
+
+    private MockResponse validators(MockResponse response, File file) {
+        String etag = etag(file);
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+        }
+        return sendLastModified ? response.setHeader("Last-Modified", file.lastModified()) : response;
+    }
+
+    private MockResponse delayed(MockResponse response) {
+        Duration delay = latency;
+        if (!delay.isZero()) {
+            response.setHeadersDelay(delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private String etag(File file) {
+        return switch (etagMode) {
+            case STRONG -> file.tag();
+            case WEAK -> "W/" + file.tag();
+            case NONE -> null;
+        };
+    }
+
+    private record File(byte[] content, int version, String lastModified) {
+
+        String tag() {
+            return "\"ralie-v" + version + "\"";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.boltenergy.support;
+
+import com.boltenergy.config.WebClientConfig;
+import com.boltenergy.config.WebClientProperties;
+import com.boltenergy.model.RalieMetadata;
+import com.boltenergy.service.download.RalieDownloadResult;
+import com.boltenergy.service.download.RalieFileDownloader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AneelStandInServerTest {
+
+    @TempDir
+    Path downloadDir;
+
+    private final byte[] file = RalieSyntheticCsv.fromExamples().generate(3000);
+    private AneelStandInServer server;
+    private WebClientProperties properties;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new AneelStandInServer().publish(file).start();
+        properties = new WebClientProperties();
+        properties.setDownloadRetryBackoff(Duration.ZERO);
+        webClient = new WebClientConfig(properties).createWebClient(URI.create(server.url()).resolve("/").toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void download_WithSegmentsAndResets_ShouldRebuildTheFile() throws IOException {
+        properties.setMinSegmentSize(DataSize.ofKilobytes(64));
+        server.resets(2);
+
+        RalieDownloadResult result = download(new RalieMetadata());
+
+        assertArrayEquals(file, Files.readAllBytes(result.file()));
+        assertEquals("\"ralie-v1\"", result.etag());
+        assertTrue(server.requestCount() > 2, "Os segmentos interrompidos deveriam ser pedidos de novo");
+    }
+
+    @Test
+    void download_WithWeakEtag_ShouldResumeWithLastModified() throws IOException {
+        properties.setDownloadSegments(1);
+        server.etag(AneelStandInServer.EtagMode.WEAK).resets(1);
+
+        RalieDownloadResult result = download(new RalieMetadata());
+
+        assertArrayEquals(file, Files.readAllBytes(result.file()));
+        assertEquals("W/\"ralie-v1\"", result.etag());
+        assertEquals(2, server.requestCount());
+    }
+
+    @Test
+    void download_WithoutValidators_ShouldNotSpliceTwoVersions() throws IOException {
+        properties.setMinSegmentSize(DataSize.ofKilobytes(64));
+        byte[] next = RalieSyntheticCsv.fromExamples().withSeed(2).generate(3000);
+        server.etag(AneelStandInServer.EtagMode.NONE).lastModified(false).publishAfterNextResponse(next);
+
+        RalieDownloadResult result = download(new RalieMetadata());
+
+        assertArrayEquals(next, Files.readAllBytes(result.file()));
+        assertNull(result.etag());
+        assertNull(result.lastModified());
+        assertEquals(2, server.requestCount());
+    }
+
+    @Test
+    void download_WithValidators_ShouldAnswerNotModifiedUntilTheNextPublish() throws IOException {
+        RalieDownloadResult first = download(new RalieMetadata());
+        RalieMetadata validators = new RalieMetadata();
+        validators.setEtag(first.etag());
+        validators.setLastModified(first.lastModified());
+
+        assertTrue(download(validators).notModified());
+
+        byte[] next = RalieSyntheticCsv.fromExamples().withSeed(2).generate(100);
+        server.publish(next).latency(Duration.ofMillis(20)).bandwidth(256 * 1024);
+        RalieDownloadResult second = download(validators);
+
+        assertFalse(second.notModified());
+        assertEquals("\"ralie-v2\"", second.etag());
+        assertNotEquals(first.lastModified(), second.lastModified());
+        assertArrayEquals(next, Files.readAllBytes(second.file()));
+    }
+
+    private RalieDownloadResult download(RalieMetadata validators) {
+        return new RalieFileDownloader(properties)
+                .download(webClient, server.url(), downloadDir.resolve("ralie.csv"), validators);
+    }
+}
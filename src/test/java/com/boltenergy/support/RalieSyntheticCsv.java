@@ -0,0 +1,231 @@
+package com.boltenergy.support;
+
+import com.boltenergy.service.csv.RalieCsvCharset;
+import com.boltenergy.service.csv.RalieCsvTokenizer;
+import com.boltenergy.service.csv.RalieRecord;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Gera arquivos RALIE sintéticos de qualquer tamanho, sem rede, a partir dos arquivos de
+ * {@code src/main/resources/examples}. O cabeçalho é o dos exemplos e cada coluna é sorteada
+ * entre os valores que ela tem neles, vazios incluídos, então a proporção de datas vazias, os
+ * acentos e os decimais com vírgula seguem os arquivos reais. As colunas que descrevem a usina
+ * ({@code SigTipoGeracao}, {@code DscOrigemCombustivel}, {@code SigUFPrincipal} e
+ * {@code CodCEG}) vêm de uma mesma linha de exemplo, para continuarem coerentes entre si.
+ *
+ * <p>Cada registro recebe um {@code IdeNucleoCEG} sequencial e um {@code CodCEG} montado com
+ * ele, então não há registros repetidos. Uma fração {@link #withMultiLineRate(double)} dos
+ * registros tem a composição societária ({@code DscPropriRegimePariticipacao}) com várias
+ * participações, uma por linha, entre aspas. O arquivo é gravado em Windows-1252, como o
+ * publicado pela ANEEL, a menos que {@link #withCharset(Charset)} indique outro. Com a mesma
+ * semente, o conteúdo gerado é sempre o mesmo.
+ */
+public final class RalieSyntheticCsv {
+
+    public static final List<String> EXAMPLES = List.of(
+            "/examples/ralie-usina-example-simple.csv",
+            "/examples/ralie-usina-example-simple-2.csv");
+
+    public static final String OWNERSHIP_COLUMN = "DscPropriRegimePariticipacao";
+
+    private static final Set<String> PLANT_COLUMNS = Set.of(
+            "SigTipoGeracao", "DscOrigemCombustivel", "SigUFPrincipal", "CodCEG");
+    private static final String NUCLEO_COLUMN = "IdeNucleoCEG";
+    private static final String CEG_COLUMN = "CodCEG";
+    private static final String NAME_COLUMN = "NomEmpreendimento";
+
+    private final List<String> header;
+    private final List<List<String>> rows;
+    private final long seed;
+    private final Charset charset;
+    private final double multiLineRate;
+
+    private RalieSyntheticCsv(List<String> header, List<List<String>> rows, long seed, Charset charset,
+                              double multiLineRate) {
+        this.header = header;
+        this.rows = rows;
+        this.seed = seed;
+        this.charset = charset;
+        this.multiLineRate = multiLineRate;
+    }
+
+    /**
+     * Gerador com as distribuições dos arquivos de {@link #EXAMPLES}.
+     */
+    public static RalieSyntheticCsv fromExamples() {
+        List<String> header = null;
+        List<List<String>> rows = new ArrayList<>();
+        for (String example : EXAMPLES) {
+            try (InputStream inputStream = RalieSyntheticCsv.class.getResourceAsStream(example)) {
+                if (inputStream == null) {
+                    throw new IllegalStateException("Arquivo de exemplo não encontrado: " + example);
+                }
+                try (RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(RalieCsvCharset.openReader(inputStream))) {
+                    if (header == null) {
+                        header = List.copyOf(tokenizer.header());
+                    } else if (!header.equals(tokenizer.header())) {
+                        throw new IllegalStateException("Cabeçalho diferente em " + example);
+                    }
+                    while (tokenizer.next()) {
+                        rows.add(values(tokenizer.current(), header.size()));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new RalieSyntheticCsv(header, List.copyOf(rows), 1L, RalieCsvCharset.WINDOWS_1252, 0.05);
+    }
+
+    public RalieSyntheticCsv withSeed(long seed) {
+        return new RalieSyntheticCsv(header, rows, seed, charset, multiLineRate);
+    }
+
+    public RalieSyntheticCsv withCharset(Charset charset) {
+        return new RalieSyntheticCsv(header, rows, seed, charset, multiLineRate);
+    }
+
+    /**
+     * Fração dos registros, entre 0 e 1, com a composição societária em várias linhas.
+     */
+    public RalieSyntheticCsv withMultiLineRate(double multiLineRate) {
+        if (multiLineRate < 0 || multiLineRate > 1) {
+            throw new IllegalArgumentException("A fração de registros em várias linhas deve estar entre 0 e 1");
+        }
+        return new RalieSyntheticCsv(header, rows, seed, charset, multiLineRate);
+    }
+
+    public List<String> header() {
+        return header;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    public Path write(Path file, int records) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out, records);
+        }
+        return file;
+    }
+
+    public byte[] generate(int records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Grava o cabeçalho e {@code records} registros em {@code out}, que não é fechado.
+     */
+    public void write(OutputStream out, int records) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset), 64 * 1024);
+        Random random = new Random(seed);
+        writer.write(String.join(";", header));
+        writer.write('\n');
+        for (int record = 0; record < records; record++) {
+            List<String> plant = pick(random);
+            for (int column = 0; column < header.size(); column++) {
+                if (column > 0) {
+                    writer.write(';');
+                }
+                writer.write(quote(value(random, header.get(column), column, plant, record)));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private String value(Random random, String column, int index, List<String> plant, int record) {
+        int nucleo = record + 1;
+        if (column.equals(NUCLEO_COLUMN)) {
+            return String.valueOf(nucleo);
+        }
+        if (column.equals(CEG_COLUMN)) {
+            return ceg(plant.get(index), nucleo);
+        }
+        if (PLANT_COLUMNS.contains(column)) {
+            return plant.get(index);
+        }
+        String value = pick(random).get(index);
+        if (column.equals(NAME_COLUMN) && record >= rows.size()) {
+            // Os nomes dos exemplos se repetiriam a cada poucas centenas de registros
+            return value + " " + (record / rows.size() + 1);
+        }
+        if (column.equals(OWNERSHIP_COLUMN) && random.nextDouble() < multiLineRate) {
+            int shares = 2 + random.nextInt(3);
+            StringBuilder ownership = new StringBuilder(ownershipShare(value, 100 / shares + 100 % shares));
+            for (int i = 1; i < shares; i++) {
+                ownership.append('\n').append(ownershipShare(pick(random).get(index), 100 / shares));
+            }
+            return ownership.toString();
+        }
+        return value;
+    }
+
+    private List<String> pick(Random random) {
+        return rows.get(random.nextInt(rows.size()));
+    }
+
+    /**
+     * Troca o percentual do texto de exemplo ({@code " 100% para EMPRESA (PIE)"}).
+     */
+    private static String ownershipShare(String value, int percent) {
+        int marker = value.indexOf("% para ");
+        String owner = marker >= 0 ? value.substring(marker + 1) : " para " + value.strip();
+        return percent + "%" + owner;
+    }
+
+    /**
+     * {@code CodCEG} no formato {@code TIPO.FONTE.UF.NUCLEO-DV.VERSAO}, com o núcleo do registro
+     * e o dígito verificador calculado por módulo 11.
+     */
+    static String ceg(String template, int nucleo) {
+        String[] parts = template.split("\\.");
+        String prefix = parts.length >= 3 ? parts[0] + "." + parts[1] + "." + parts[2] : "UHE.PH.RS";
+        String version = parts.length >= 5 ? parts[parts.length - 1] : "1";
+        String digits = String.format("%06d", nucleo);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (digits.length() + 1 - i);
+        }
+        int checkDigit = (11 - sum % 11) % 10;
+        return prefix + "." + digits + "-" + checkDigit + "." + version;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(';') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static List<String> values(RalieRecord record, int columns) {
+        List<String> values = new ArrayList<>(columns);
+        for (int i = 0; i < columns; i++) {
+            String value = record.getString(i);
+            values.add(value != null ? value : "");
+        }
+        return values;
+    }
+}
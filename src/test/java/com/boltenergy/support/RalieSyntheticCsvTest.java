@@ -0,0 +1,93 @@
+package com.boltenergy.support;
+
+import com.boltenergy.model.entity.RalieUsinaCsvImportEntity;
+import com.boltenergy.service.csv.RalieBindingPlan;
+import com.boltenergy.service.csv.RalieCsvCharset;
+import com.boltenergy.service.csv.RalieCsvTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RalieSyntheticCsvTest {
+
+    private final RalieSyntheticCsv generator = RalieSyntheticCsv.fromExamples();
+
+    @Test
+    void generate_ShouldWriteWindows1252FileReadableByTheImport() throws IOException {
+        byte[] file = generator.generate(2000);
+        int dateColumns = (int) generator.header().stream().filter(column -> column.startsWith("Dat")).count();
+
+        Set<String> cegs = new HashSet<>();
+        int records = 0;
+        int multiLine = 0;
+        long emptyDates = 0;
+        try (InputStreamReader reader = RalieCsvCharset.openReader(new ByteArrayInputStream(file));
+             RalieCsvTokenizer tokenizer = new RalieCsvTokenizer(reader)) {
+            assertEquals(RalieCsvCharset.WINDOWS_1252.name(), encoding(reader));
+            List<String> header = tokenizer.header();
+            assertEquals(generator.header(), header);
+            RalieBindingPlan plan = RalieBindingPlan.compile(header);
+            int ownership = header.indexOf(RalieSyntheticCsv.OWNERSHIP_COLUMN);
+
+            while (tokenizer.next()) {
+                records++;
+                assertEquals(header.size(), tokenizer.size());
+                RalieUsinaCsvImportEntity entity = new RalieUsinaCsvImportEntity();
+                plan.bind(tokenizer.current(), entity);
+                assertTrue(cegs.add(entity.getCodCeg()), "CodCEG repetido: " + entity.getCodCeg());
+                assertNotNull(entity.getDatRalie());
+                if (tokenizer.getString(ownership).contains("\n")) {
+                    multiLine++;
+                }
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i).startsWith("Dat") && tokenizer.isEmpty(i)) {
+                        emptyDates++;
+                    }
+                }
+            }
+            assertEquals(Map.of(), plan.parseFailures());
+        }
+
+        assertEquals(2000, records);
+        assertTrue(multiLine > 40 && multiLine < 160, "Registros em várias linhas: " + multiLine);
+        // Nos exemplos, cerca de dois terços das datas estão vazias
+        double emptyRate = (double) emptyDates / (records * dateColumns);
+        assertTrue(emptyRate > 0.5 && emptyRate < 0.85, "Datas vazias: " + emptyRate);
+        assertTrue(new String(file, RalieCsvCharset.WINDOWS_1252).contains("Hídrica"));
+    }
+
+    @Test
+    void generate_WithSameSeed_ShouldRepeatTheContent() {
+        assertArrayEquals(generator.withSeed(7).generate(300), generator.withSeed(7).generate(300));
+        assertFalse(Arrays.equals(generator.withSeed(7).generate(300), generator.withSeed(8).generate(300)));
+    }
+
+    @Test
+    void generate_WithUtf8_ShouldBeDetectedAsUtf8() throws IOException {
+        byte[] file = generator.withCharset(StandardCharsets.UTF_8).generate(50);
+
+        try (InputStreamReader reader = RalieCsvCharset.openReader(new ByteArrayInputStream(file))) {
+            assertEquals(StandardCharsets.UTF_8.name(), encoding(reader));
+        }
+    }
+
+    @Test
+    void ceg_ShouldKeepTheTemplatePlantAndUseTheRecordNucleo() {
+        assertEquals("PCH.PH.SC.001234-3.1", RalieSyntheticCsv.ceg("PCH.PH.SC.000659-9.1", 1234));
+    }
+
+    private static String encoding(InputStreamReader reader) {
+        return Charset.forName(reader.getEncoding()).name();
+    }
+}
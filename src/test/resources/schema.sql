@@ -80,7 +80,42 @@ CREATE TABLE IF NOT EXISTS ralie_usina_csv_import (
     dsc_numero_ato VARCHAR(100),
     nom_orgao_outorgante VARCHAR(255),
     dsc_tipo_outorga VARCHAR(100),
-    dat_emissao_ato DATE
+    dat_emissao_ato DATE,
+    row_hash VARCHAR(64)
+);
+
+-- Criação da tabela ralie_lease para testes
+CREATE TABLE IF NOT EXISTS ralie_lease (
+    name VARCHAR(64) PRIMARY KEY,
+    owner_id VARCHAR(255),
+    fencing_token BIGINT NOT NULL,
+    acquired_at TIMESTAMP(6),
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+-- Criação da tabela ralie_import_shard para testes
+CREATE TABLE IF NOT EXISTS ralie_import_shard (
+    id VARCHAR(48) PRIMARY KEY,
+    run_id VARCHAR(36) NOT NULL,
+    shard_index INT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    file_path VARCHAR(1000) NOT NULL,
+    charset VARCHAR(32) NOT NULL,
+    header_start INT NOT NULL,
+    header_end INT NOT NULL,
+    start_offset INT NOT NULL,
+    end_offset INT NOT NULL,
+    first_line BIGINT NOT NULL,
+    id_base BIGINT NOT NULL,
+    staging_table VARCHAR(64) NOT NULL,
+    owner_id VARCHAR(255),
+    attempts INT NOT NULL,
+    claim_expires_at TIMESTAMP(6),
+    records BIGINT,
+    parse_failures VARCHAR(4000),
+    dataset_version DATE,
+    message VARCHAR(1000),
+    finished_at TIMESTAMP(6)
 );
 
 -- Garantir que a tabela está vazia antes dos testes